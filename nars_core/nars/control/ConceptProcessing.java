@@ -166,14 +166,8 @@ public class ConceptProcessing {
 
                             //we do not add the target, instead the strongest belief in the target concept
                             if(concept.beliefs.size() > 0) {
-                                Task strongest_target = null; //beliefs.get(0);
                                 //get the first eternal:
-                                for(Task t : concept.beliefs) {
-                                    if(t.sentence.isEternal()) {
-                                        strongest_target = t;
-                                        break;
-                                    }
-                                }
+                                Task strongest_target = concept.beliefs.firstEternal();
                                 if(strongest_target == null) {
                                     return;
                                 }
@@ -264,8 +258,8 @@ public class ConceptProcessing {
 
         Stamp s2=goal.stamp.clone();
         s2.setOccurrenceTime(concept.memory.time());
-        if(s2.after(task.sentence.stamp, Parameters.DURATION)) { //this task is not up to date we have to project it first
-            Sentence projGoal = task.sentence.projection(concept.memory.time(), Parameters.DURATION);
+        if(s2.after(task.sentence.stamp, concept.memory.param.duration.get())) { //this task is not up to date we have to project it first
+            Sentence projGoal = task.sentence.projection(concept.memory.time(), concept.memory.param.duration.get());
             if(projGoal!=null && projGoal.truth.getExpectation() > nal.memory.param.decisionThreshold.get()) {
                 nal.singlePremiseTask(projGoal, task.budget.clone()); //keep goal updated
                 // return false; //outcommented, allowing "roundtrips now", relevant for executing multiple steps of learned implication chains
@@ -277,7 +271,7 @@ public class ConceptProcessing {
             double AntiSatisfaction = 0.5f; //we dont know anything about that goal yet, so we pursue it to remember it because its maximally unsatisfied
             if (beliefT != null) {
                 Sentence belief = beliefT.sentence;
-                Sentence projectedBelief = belief.projection(task.sentence.getOccurenceTime(), Parameters.DURATION);
+                Sentence projectedBelief = belief.projection(task.sentence.getOccurenceTime(), concept.memory.param.duration.get());
                 AntiSatisfaction = task.sentence.truth.getExpDifAbs(projectedBelief.truth);
             }
 
@@ -462,13 +456,13 @@ public class ConceptProcessing {
                     //and the truth of the hypothesis:
                     TruthValue Hyp = t.sentence.truth;
                     //overlap will almost never happen, but to make sure
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(bestsofar.sentence.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(bestsofar.sentence.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, bestsofar.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, bestsofar.sentence.stamp)) {
                         continue; //base overlap
                     }
                     //and the truth of the precondition:
@@ -615,11 +609,16 @@ public class ConceptProcessing {
 
         //at first search beliefs for input tasks:
         boolean cancelled = false;
+        Term key = null;
         for(TaskLink tl : concept.taskLinks) { //search for input in tasklinks (beliefs alone can not take temporality into account as the eternals will win)
             Task t = tl.targetTask;
+            //the time window is checked first, to only compare the terms without intervals of the events in it
             if(t!= null && t.sentence.isJudgment() && t.isInput() && !t.sentence.isEternal() && t.sentence.truth.getExpectation() > Parameters.DEFAULT_CONFIRMATION_EXPECTATION &&
-                    CompoundTerm.replaceIntervals(t.sentence.term).equals(CompoundTerm.replaceIntervals(concept.getTerm()))) {
-                if(t.sentence.getOccurenceTime() >= concept.negConfirm_abort_mintime && t.sentence.getOccurenceTime() <= concept.negConfirm_abort_maxtime) {
+                    t.sentence.getOccurenceTime() >= concept.negConfirm_abort_mintime && t.sentence.getOccurenceTime() <= concept.negConfirm_abort_maxtime) {
+                if(key == null) {
+                    key = CompoundTerm.replaceIntervals(concept.getTerm());
+                }
+                if(CompoundTerm.replaceIntervals(t.sentence.term).equals(key)) {
                     cancelled = true;
                     break;
                 }
@@ -0,0 +1,181 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.control;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import nars.inference.RuleDispatch;
+
+/**
+ * Nanosecond timers and counters of the phases of a memory cycle and of the rule families.
+ *
+ * The profiler only measures while it is active, which is decided at the start of each cycle:
+ * when someone listens to Events.CycleProfile or profiling was enabled through NAR.setProfiling.
+ * Otherwise start() returns 0 and all other calls return after a single field check.
+ *
+ * Phases may nest: REASON is part of CONCEPT_FIRE, and PROCESS_TASK is part of NEW_TASKS and NOVEL_TASK.
+ */
+public class CycleProfiler implements Serializable {
+
+    public enum Phase {
+        NEW_TASKS, NOVEL_TASK, CONCEPT_FIRE, REASON, PROCESS_TASK
+    }
+
+    public enum RuleFamily {
+        SYLLOGISTIC, COMPOSITIONAL, STRUCTURAL, TEMPORAL, LOCAL
+    }
+
+    public enum Count {
+        DERIVED, REVISED, REJECTED, SHED, MERGED, DUPLICATE
+    }
+
+    private static final Phase[] phases = Phase.values();
+    private static final RuleFamily[] families = RuleFamily.values();
+    private static final Count[] counts = Count.values();
+
+    /** totals since profiling was enabled or reset */
+    private final AtomicLongArray total = new AtomicLongArray(size());
+    /** values of the current cycle */
+    private final AtomicLongArray cycle = new AtomicLongArray(size());
+    /** firings per entry of RuleDispatch, totals like the ones above */
+    private final AtomicLongArray dispatched = new AtomicLongArray(RuleDispatch.ENTRIES);
+    private long cycles;
+
+    private volatile boolean active;
+    private boolean enabled;
+
+    private static int size() {
+        return phases.length + 2 * families.length + counts.length;
+    }
+
+    /** the time spent in the phases, rule families and the counts of some cycles */
+    public static class Snapshot {
+        public final long cycles;
+        final long[] value;
+
+        Snapshot(long cycles, long[] value) {
+            this.cycles = cycles;
+            this.value = value;
+        }
+
+        public long nanos(Phase p) {
+            return value[p.ordinal()];
+        }
+
+        public long nanos(RuleFamily f) {
+            return value[phases.length + f.ordinal()];
+        }
+
+        /** how often a rule family was applied */
+        public long calls(RuleFamily f) {
+            return value[phases.length + families.length + f.ordinal()];
+        }
+
+        public long count(Count c) {
+            return value[phases.length + 2 * families.length + c.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            s.append("cycles=").append(cycles);
+            for (Phase p : phases) {
+                s.append(' ').append(p).append('=').append(nanos(p) / 1000).append("us");
+            }
+            for (RuleFamily f : families) {
+                s.append(' ').append(f).append('=').append(nanos(f) / 1000).append("us/").append(calls(f));
+            }
+            for (Count c : counts) {
+                s.append(' ').append(c).append('=').append(count(c));
+            }
+            return s.toString();
+        }
+    }
+
+    /** whether to profile even if no one listens to Events.CycleProfile */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** called at the start of a cycle, with whether someone listens to the profile */
+    public void cycleStart(boolean listening) {
+        active = enabled || listening;
+    }
+
+    /** called at the end of a cycle, returns the values of the cycle or null if it was not profiled */
+    public synchronized Snapshot cycleEnd() {
+        if (!active)
+            return null;
+        final long[] v = new long[cycle.length()];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = cycle.getAndSet(i, 0);
+            total.addAndGet(i, v[i]);
+        }
+        cycles++;
+        return new Snapshot(1, v);
+    }
+
+    /** the totals since profiling began or since the last reset */
+    public synchronized Snapshot snapshot() {
+        final long[] v = new long[total.length()];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = total.get(i);
+        }
+        return new Snapshot(cycles, v);
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < total.length(); i++) {
+            total.set(i, 0);
+            cycle.set(i, 0);
+        }
+        for (int i = 0; i < dispatched.length(); i++) {
+            dispatched.set(i, 0);
+        }
+        cycles = 0;
+    }
+
+    /** start time of a measurement, 0 if not profiling */
+    public long start() {
+        return active ? System.nanoTime() : 0;
+    }
+
+    public void end(final Phase p, final long start) {
+        if (start != 0) {
+            cycle.addAndGet(p.ordinal(), System.nanoTime() - start);
+        }
+    }
+
+    public void end(final RuleFamily f, final long start) {
+        if (start != 0) {
+            cycle.addAndGet(phases.length + f.ordinal(), System.nanoTime() - start);
+            cycle.incrementAndGet(phases.length + families.length + f.ordinal());
+        }
+    }
+
+    /** counts a firing of an entry of RuleDispatch, called while active */
+    public void dispatch(final int entry) {
+        dispatched.incrementAndGet(entry);
+    }
+
+    /** firings of an entry of RuleDispatch while active, see RuleDispatch.firings */
+    public long dispatched(final int entry) {
+        return dispatched.get(entry);
+    }
+
+    public void count(final Count c) {
+        if (active) {
+            cycle.incrementAndGet(phases.length + 2 * families.length + c.ordinal());
+        }
+    }
+}
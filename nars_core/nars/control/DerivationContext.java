@@ -52,6 +52,18 @@ public class DerivationContext {
         memory.emit(c, o);
     }
 
+    public void emit(final Class c, final Object a) {
+        memory.emit(c, a);
+    }
+
+    public void emit(final Class c, final Object a, final Object b) {
+        memory.emit(c, a, b);
+    }
+
+    public void emit(final Class c, final Object a, final Object b, final Object d, final Object e) {
+        memory.emit(c, a, b, d, e);
+    }
+
     /**
      * Derived task comes from the inference rules.
      *
@@ -92,17 +104,10 @@ public class DerivationContext {
         
         //its revision, of course its cyclic, apply evidental base policy
         if(!overlapAllowed) { //todo reconsider
-            final int stampLength = stamp.baseLength;
-            for (int i = 0; i < stampLength; i++) {
-                final long baseI = stamp.evidentialBase[i];
-                for (int j = 0; j < stampLength; j++) {
-                    //!single since the derivation shouldn't depend on whether there is a current belief or not!!
-                    if ((!single && this.evidentalOverlap) || ((i != j) && (baseI == stamp.evidentialBase[j]))) {
-                        memory.removeTask(task, "Overlapping Evidenctal Base");
-                        //"(i=" + i + ",j=" + j +')' /* + " in " + stamp.toString()*/
-                        return false;
-                    }
-                }
+            //!single since the derivation shouldn't depend on whether there is a current belief or not!!
+            if ((!single && this.evidentalOverlap) || stamp.evidenceIsCyclic()) {
+                memory.removeTask(task, "Overlapping Evidenctal Base");
+                return false;
             }
         }
         
@@ -116,14 +121,15 @@ public class DerivationContext {
         
         task.setElemOfSequenceBuffer(false);
         if(!revised) {
-            task.getBudget().setDurability(task.getBudget().getDurability()*Parameters.DERIVATION_DURABILITY_LEAK);
-            task.getBudget().setPriority(task.getBudget().getPriority()*Parameters.DERIVATION_PRIORITY_LEAK);
+            task.getBudget().setDurability(task.getBudget().getDurability()*memory.param.derivationDurabilityLeak.floatValue());
+            task.getBudget().setPriority(task.getBudget().getPriority()*memory.param.derivationPriorityLeak.floatValue());
         }
-        memory.event.emit(Events.TaskDerive.class, task, revised, single);
+        memory.profiler.count(revised ? CycleProfiler.Count.REVISED : CycleProfiler.Count.DERIVED);
+        memory.emit(Events.TaskDerive.class, task, revised, single);
         //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
-        if(addToMemory) {
-            addTask(task, "Derived");
+        if(addToMemory && task.sentence.term!=null) {
+            memory.addDerivedTask(task, "Derived");
         }
         return true;
     }
@@ -21,14 +21,7 @@ public class GeneralInferenceControl {
         if (currentConcept==null)
             return;
         
-        if(currentConcept.taskLinks.size() == 0) { //remove concepts without tasklinks and without termlinks
-            mem.concepts.take(currentConcept.getTerm());
-            mem.conceptRemoved(currentConcept);
-            return;
-        }
-        if(currentConcept.termLinks.size() == 0) {  //remove concepts without tasklinks and without termlinks
-            mem.concepts.take(currentConcept.getTerm());
-            mem.conceptRemoved(currentConcept);
+        if(removeIfUnlinked(mem, currentConcept)) {
             return;
         }
         
@@ -37,15 +30,33 @@ public class GeneralInferenceControl {
         fireConcept(cont, 1);
     }
     
+    /** removes concepts without tasklinks or without termlinks, returns true if the concept was removed */
+    public static boolean removeIfUnlinked(Memory mem, Concept currentConcept) {
+        if(currentConcept.taskLinks.size() == 0 || currentConcept.termLinks.size() == 0) {
+            mem.concepts.take(currentConcept.getTerm());
+            mem.conceptRemoved(currentConcept);
+            return true;
+        }
+        return false;
+    }
+    
     public static void fireConcept(DerivationContext nal, int numTaskLinks) {     
+        if (fireTaskLinks(nal, numTaskLinks)) {
+            returnConcept(nal);
+        }
+    }
+    
+    /** fires the tasklinks of the current concept, returns false if the concept ran out of tasklinks and should not be put back */
+    public static boolean fireTaskLinks(DerivationContext nal, int numTaskLinks) {
+        nal.currentConcept.changed = true;
         for (int i = 0; i < numTaskLinks; i++) {
 
             if (nal.currentConcept.taskLinks.size() == 0) 
-                return;
+                return false;
 
             nal.currentTaskLink = nal.currentConcept.taskLinks.takeNext();                    
             if (nal.currentTaskLink == null)
-                return;
+                return false;
 
             if (nal.currentTaskLink.budget.aboveThreshold()) {
                 fireTaskLink(nal, Parameters.TERMLINK_MAX_REASONED);                    
@@ -53,9 +64,17 @@ public class GeneralInferenceControl {
 
             nal.currentConcept.taskLinks.putBack(nal.currentTaskLink, nal.memory.cycles(nal.memory.param.taskLinkForgetDurations), nal.memory);
         }
+        return true;
+    }
+    
+    /** puts the fired concept back into the concept bag */
+    public static void returnConcept(DerivationContext nal) {
         float forgetCycles = nal.memory.cycles(nal.memory.param.conceptForgetDurations);
         nal.currentConcept.setQuality(BudgetFunctions.or(nal.currentConcept.getQuality(),nal.memory.emotion.happy()));
-        nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
+        Concept displaced = nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
+        if (displaced != null) {
+            nal.memory.conceptRemoved(displaced);
+        }
     }
     
     protected static void fireTaskLink(DerivationContext nal, int termLinks) {
@@ -71,7 +90,9 @@ public class GeneralInferenceControl {
             nal.setCurrentBelief(null);
             //TermLink tasklink_as_termlink = new TermLink(nal.currentTaskLink.getTerm(), TermLink.TRANSFORM, nal.getCurrentTaskLink().index);
             //if(nal.currentTaskLink.novel(tasklink_as_termlink, nal.memory.time(), true)) { //then record yourself, but also here novelty counts
+                final long start = nal.memory.profiler.start();
                 RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                nal.memory.profiler.end(CycleProfiler.RuleFamily.STRUCTURAL, start);
             //}
             
         } else {            
@@ -92,6 +113,7 @@ public class GeneralInferenceControl {
 
     public static boolean fireTermlink(final TermLink termLink, DerivationContext nal) {
         nal.setCurrentBeliefLink(termLink);
+        final long start = nal.memory.profiler.start();
         try {
             RuleTables.reason(nal.currentTaskLink, termLink, nal);
         } catch(Exception ex) {
@@ -99,6 +121,7 @@ public class GeneralInferenceControl {
                 System.out.println("issue in inference");
             }
         }
+        nal.memory.profiler.end(CycleProfiler.Phase.REASON, start);
         nal.memory.emit(Events.TermLinkSelect.class, termLink, nal.currentConcept, nal);
         //memory.logic.REASON.commit(termLink.getPriority());                    
         return true;
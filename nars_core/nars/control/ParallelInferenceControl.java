@@ -0,0 +1,141 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nars.entity.Concept;
+import nars.storage.Memory;
+
+/**
+ * Fires several concepts per cycle on a worker pool.
+ *
+ * Ownership: the selected concepts are taken out of the concept bag before they are fired,
+ * so every concept (and with it its taskLinks and termLinks bags) belongs to exactly one worker.
+ *
+ * Merge: workers do not touch Memory.newTasks or the event observers, instead new tasks and
+ * emitted events are recorded per concept and replayed on the calling thread in the order
+ * the concepts were selected, followed by putting the concept back into the concept bag.
+ * Each worker uses its own random generator, seeded from the generator of the memory
+ * (Memory.getRandom) in selection order, so seeded runs stay reproducible.
+ */
+public class ParallelInferenceControl {
+
+    /** what a worker recorded while firing its concept */
+    private static class Firing {
+        final DerivationContext nal;
+        final Random random;
+        final List<Runnable> deferred = new ArrayList<>();
+        boolean putBack;
+
+        Firing(DerivationContext nal, long seed) {
+            this.nal = nal;
+            this.random = new Random(seed);
+        }
+    }
+
+    private static final ThreadLocal<Firing> current = new ThreadLocal<>();
+
+    private final Memory mem;
+    private ExecutorService pool;
+    private int poolSize;
+
+    public ParallelInferenceControl(Memory mem) {
+        this.mem = mem;
+    }
+
+    /** the random generator of the concept fired by the current thread, or null if not called from a worker */
+    public static Random workerRandom() {
+        final Firing f = current.get();
+        return f != null ? f.random : null;
+    }
+
+    /**
+     * records an action of a worker to be replayed in the merge phase,
+     * returns false if the current thread is not firing a concept
+     */
+    public static boolean defer(final Runnable action) {
+        final Firing f = current.get();
+        if (f == null)
+            return false;
+        f.deferred.add(action);
+        return true;
+    }
+
+    public void selectConceptsForInference(final int threads) {
+        final List<Firing> firings = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Concept c = mem.concepts.takeNext();
+            if (c == null)
+                break;
+            if (GeneralInferenceControl.removeIfUnlinked(mem, c))
+                continue;
+            DerivationContext cont = new DerivationContext(mem);
+            cont.setCurrentConcept(c);
+            firings.add(new Firing(cont, mem.getRandom().nextLong()));
+        }
+        if (firings.isEmpty())
+            return;
+
+        final List<Future<?>> running = new ArrayList<>(firings.size());
+        mem.firing = this;
+        try {
+            ExecutorService p = getPool(threads);
+            for (final Firing f : firings) {
+                running.add(p.submit(() -> {
+                    current.set(f);
+                    final Memory previous = mem.enter();
+                    try {
+                        f.putBack = GeneralInferenceControl.fireTaskLinks(f.nal, 1);
+                    } finally {
+                        Memory.leave(previous);
+                        current.remove();
+                    }
+                }));
+            }
+            for (Future<?> r : running) {
+                r.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException("concept firing failed", ex);
+        } finally {
+            mem.firing = null;
+        }
+
+        for (final Firing f : firings) {
+            for (Runnable r : f.deferred) {
+                r.run();
+            }
+            if (f.putBack) {
+                GeneralInferenceControl.returnConcept(f.nal);
+            }
+        }
+    }
+
+    private ExecutorService getPool(final int threads) {
+        if (pool == null || poolSize != threads) {
+            stop();
+            pool = Executors.newFixedThreadPool(threads, (r) -> {
+                Thread t = new Thread(r, "Concept Firing");
+                t.setDaemon(true);
+                return t;
+            });
+            poolSize = threads;
+        }
+        return pool;
+    }
+
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+}
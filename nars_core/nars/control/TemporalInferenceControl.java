@@ -4,7 +4,6 @@
  */
 package nars.control;
 
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import nars.main.Parameters;
@@ -16,10 +15,11 @@ import nars.entity.Task;
 import nars.inference.BudgetFunctions;
 import nars.inference.TemporalRules;
 import nars.io.Symbols;
-import nars.language.CompoundTerm;
 import nars.operator.Operation;
+import nars.storage.EventBag;
 import nars.storage.LevelBag;
 import nars.storage.Memory;
+import nars.storage.SampleSet;
 import nars.io.events.Events;
 
 /**
@@ -27,6 +27,11 @@ import nars.io.events.Events;
  * @author patrick.hammer
  */
 public class TemporalInferenceControl {
+
+    /** the events and the operations tried by eventInference, reused by the calls of a thread */
+    private static final ThreadLocal<SampleSet<Task>> attempted = ThreadLocal.withInitial(SampleSet::new);
+    private static final ThreadLocal<SampleSet<Task>> attemptedOps = ThreadLocal.withInitial(SampleSet::new);
+
     public static List<Task> proceedWithTemporalInduction(final Sentence newEvent, final Sentence stmLast, Task controllerTask, DerivationContext nal, boolean SucceedingEventsInduction, boolean addToMemory, boolean allowSequence) {
         
         if(SucceedingEventsInduction && !controllerTask.isElemOfSequenceBuffer()) { //todo refine, add directbool in task
@@ -66,8 +71,9 @@ public class TemporalInferenceControl {
             return false;
        }
 
-        HashSet<Task> already_attempted = new HashSet<Task>();
-        HashSet<Task> already_attempted_ops = new HashSet<Task>();
+        final SampleSet<Task> already_attempted = attempted.get();
+        final SampleSet<Task> already_attempted_ops = attemptedOps.get();
+        already_attempted.clear();
         //Sequence formation:
         for(int i =0; i<Parameters.SEQUENCE_BAG_ATTEMPTS; i++) {
             Task takeout = nal.memory.seq_current.takeNext();
@@ -76,8 +82,8 @@ public class TemporalInferenceControl {
             }
 
             if(already_attempted.contains(takeout) || 
-                    Stamp.baseOverlap(newEvent.sentence.stamp.evidentialBase,
-                            takeout.sentence.stamp.evidentialBase)) {
+                    Stamp.baseOverlap(newEvent.sentence.stamp,
+                            takeout.sentence.stamp)) {
                 nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.param.eventForgetDurations), nal.memory);
                 continue;
             }
@@ -161,31 +167,10 @@ public class TemporalInferenceControl {
     
     public static void addToSequenceTasks(DerivationContext nal, final Task newEvent) {
         //multiple versions are necessary, but we do not allow duplicates
-        List<Task> removals = new LinkedList<Task>();
-        for(Task s : nal.memory.seq_current) {
-            if(CompoundTerm.replaceIntervals(s.getTerm()).equals(
-                    CompoundTerm.replaceIntervals(newEvent.getTerm()))) {
-                    // && //-- new outcommented
-                    //s.sentence.stamp.equals(newEvent.sentence.stamp,false,true,true,false) ) {
-                //&& newEvent.sentence.getOccurenceTime()>s.sentence.getOccurenceTime() ) { 
-                //check term indices
-                if(s.getTerm().term_indices != null && newEvent.getTerm().term_indices != null) {
-                    boolean differentTermIndices = false;
-                    for(int i=0;i<s.getTerm().term_indices.length;i++) {
-                       if(s.getTerm().term_indices[i] != newEvent.getTerm().term_indices[i]) {
-                           differentTermIndices = true;
-                       }
-                    }
-                    if(differentTermIndices) {
-                        continue;
-                    }
-                }
-                removals.add(s);
-                break;
-            }
-        }
-        for(Task removal : removals) {
-            nal.memory.seq_current.take(removal);
+        final EventBag events = nal.memory.seq_current;
+        final Task duplicate = events.duplicateOf(newEvent);
+        if(duplicate != null) {
+            events.take(duplicate);
         }
         //ok now add the new one:
         //making sure we do not mess with budget of the task:
@@ -0,0 +1,176 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import static nars.inference.TemporalRules.matchingOrder;
+import nars.storage.Memory;
+
+/**
+ * The beliefs, desires or executable preconditions of a concept, ordered by
+ * BudgetFunctions.rankBelief as Concept.addToTable keeps them.
+ *
+ * Besides the ranked list, the table indexes its eternal entries and its temporal
+ * entries by occurrence time, and caches the confidence of entries projected to the
+ * occurrence time of a query for the current cycle. The index is rebuilt when the
+ * list was modified, so the table can still be changed like a list.
+ */
+public class BeliefTable extends ArrayList<Task> {
+
+    /** whether the entries are ranked by truth expectation instead of confidence */
+    public final boolean rankTruthExpectation;
+
+    /** modification count the index was built for, -1 if none */
+    private transient int indexed = -1;
+    /** positions of the eternal entries, in rank order */
+    private transient int[] eternal = new int[0];
+    private transient int eternalSize;
+    /** positions and occurrence times of the temporal entries, by time and then rank */
+    private transient int[] temporal = new int[0];
+    private transient long[] occurrence = new long[0];
+    private transient int temporalSize;
+
+    /** projected confidence of the entries, valid for the target and cycle when projected is the index */
+    private transient float[] projectedConfidence = new float[0];
+    private transient long projectedTarget, projectedCycle;
+    private transient int projected = -1;
+
+    public BeliefTable(final boolean rankTruthExpectation) {
+        this.rankTruthExpectation = rankTruthExpectation;
+    }
+
+    private void index() {
+        if (indexed == modCount) {
+            return;
+        }
+        final int n = size();
+        if (eternal.length < n) {
+            final int capacity = Math.max(n, 2 * eternal.length);
+            eternal = new int[capacity];
+            temporal = new int[capacity];
+            occurrence = new long[capacity];
+            projectedConfidence = new float[capacity];
+        }
+        eternalSize = temporalSize = 0;
+        for (int i = 0; i < n; i++) {
+            final Sentence s = get(i).sentence;
+            if (s.isEternal()) {
+                eternal[eternalSize++] = i;
+                continue;
+            }
+            //insertion by occurrence time, equal times stay in rank order
+            final long time = s.getOccurenceTime();
+            int j = temporalSize++;
+            while (j > 0 && occurrence[j - 1] > time) {
+                occurrence[j] = occurrence[j - 1];
+                temporal[j] = temporal[j - 1];
+                j--;
+            }
+            occurrence[j] = time;
+            temporal[j] = i;
+        }
+        indexed = modCount;
+        projected = -1;
+    }
+
+    /** the highest ranked eternal entry, or null */
+    public synchronized Task firstEternal() {
+        index();
+        return eternalSize > 0 ? get(eternal[0]) : null;
+    }
+
+    public synchronized int eternalSize() {
+        index();
+        return eternalSize;
+    }
+
+    public synchronized int temporalSize() {
+        index();
+        return temporalSize;
+    }
+
+    /** position of the highest ranked temporal entry occurring at the time, or -1 */
+    private int temporalAt(final long time) {
+        int low = 0, high = temporalSize;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (occurrence[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (low < temporalSize && occurrence[low] == time) ? temporal[low] : -1;
+    }
+
+    /** confidence of the entry projected to the time, cached for the cycle */
+    private float projectedConfidence(final int i, final Sentence s, final long target, final long now) {
+        if (projected != modCount || projectedTarget != target || projectedCycle != now) {
+            Arrays.fill(projectedConfidence, 0, size(), Float.NaN);
+            projected = modCount;
+            projectedTarget = target;
+            projectedCycle = now;
+        }
+        float c = projectedConfidence[i];
+        if (c != c) {
+            c = projectedConfidence[i] = s.projectionTruth(target, now).getConfidence();
+        }
+        return c;
+    }
+
+    /** LocalRules.solutionQuality rated by confidence, with the projection cached */
+    private float quality(final Sentence problem, final int i, final Sentence solution, final long now) {
+        if ((problem.punctuation != solution.punctuation && solution.term.hasVarQuery()) || !matchingOrder(problem.getTemporalOrder(), solution.getTemporalOrder())) {
+            return 0.0F;
+        }
+        if (problem.getOccurenceTime() != solution.getOccurenceTime()) {
+            return projectedConfidence(i, solution, problem.getOccurenceTime(), now);
+        }
+        return solution.truth.getConfidence();
+    }
+
+    /**
+     * The entry with the highest LocalRules.solutionQuality rated by confidence,
+     * the highest ranked one of equal quality, as a scan over the list would select it.
+     *
+     * Projection never increases confidence, so in a table ranked by confidence the
+     * scan stops at the first entry which cannot beat the best one, and an entry
+     * occurring at the time of a temporal query is a candidate from the start.
+     */
+    public synchronized Task select(final Task query, final Memory memory) {
+        index();
+        final Sentence problem = query.sentence;
+        final long now = memory.time();
+        float best = 0;
+        int bestIndex = -1;
+        if (!rankTruthExpectation && !problem.isEternal()) {
+            final int i = temporalAt(problem.getOccurenceTime());
+            if (i != -1) {
+                best = quality(problem, i, get(i).sentence, now);
+                bestIndex = best > 0 ? i : -1;
+            }
+        }
+        final int n = size();
+        for (int i = 0; i < n; i++) {
+            final Sentence s = get(i).sentence;
+            if (!rankTruthExpectation && bestIndex != -1) {
+                final float confidence = s.truth.getConfidence();
+                if (confidence < best || (confidence == best && i >= bestIndex)) {
+                    break;
+                }
+            }
+            if (i == bestIndex) {
+                continue;
+            }
+            final float quality = quality(problem, i, s, now);
+            if (quality > best || (quality == best && quality > 0 && i < bestIndex)) {
+                best = quality;
+                bestIndex = i;
+            }
+        }
+        return bestIndex != -1 ? get(bestIndex) : null;
+    }
+}
@@ -37,11 +37,11 @@ import nars.main.Parameters;
 import nars.control.DerivationContext;
 import static nars.inference.BudgetFunctions.distributeAmongLinks;
 import static nars.inference.BudgetFunctions.rankBelief;
-import nars.inference.LocalRules;
 import nars.io.Symbols.NativeOperator;
 import nars.language.CompoundTerm;
 import nars.language.Term;
 import nars.storage.Bag;
+import nars.storage.ArrayBag;
 import nars.storage.LevelBag;
 import static nars.inference.UtilityFunctions.or;
 
@@ -88,16 +88,17 @@ public class Concept extends Item<Term> implements Serializable {
     public final List<Task> quests;
 
     /**
-     * Judgments directly made about the term Use ArrayList because of access
-     * and insertion in the middle
+     * Judgments directly made about the term, ranked by confidence and
+     * indexed by occurrence time
      */
-    public final ArrayList<Task> beliefs;
-    public final ArrayList<Task> executable_preconditions;
+    public final BeliefTable beliefs;
+    /** ranked by truth expectation */
+    public final BeliefTable executable_preconditions;
 
     /**
      * Desire values on the term, similar to the above one
      */
-    public final ArrayList<Task> desires;
+    public final BeliefTable desires;
 
     /**
      * Reference to the memory to which the Concept belongs
@@ -111,6 +112,12 @@ public class Concept extends Item<Term> implements Serializable {
     public ArrayList<Float> recent_intervals = new ArrayList<Float>();
 
     public boolean observable = false;
+    
+    /**
+     * Whether the concept changed since the last checkpoint of a SnapshotWriter,
+     * set when the concept is activated, fired or its tables change
+     */
+    public transient boolean changed = true;
 
     /**
      * Constructor, called in Memory.getConcept only
@@ -125,13 +132,18 @@ public class Concept extends Item<Term> implements Serializable {
         this.memory = memory;
 
         this.questions = new ArrayList<>();
-        this.beliefs = new ArrayList<>();
-        this.executable_preconditions = new ArrayList<>();
+        this.beliefs = new BeliefTable(false);
+        this.executable_preconditions = new BeliefTable(true);
         this.quests = new ArrayList<>();
-        this.desires = new ArrayList<>();
+        this.desires = new BeliefTable(false);
 
-        this.taskLinks = new LevelBag<>(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
-        this.termLinks = new LevelBag<>(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
+        if (Parameters.ARRAY_LINK_BAGS) {
+            this.taskLinks = new ArrayBag<>(Parameters.TASK_LINK_BAG_SIZE);
+            this.termLinks = new ArrayBag<>(Parameters.TERM_LINK_BAG_SIZE);
+        } else {
+            this.taskLinks = new LevelBag<>(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
+            this.termLinks = new LevelBag<>(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
+        }
                 
         if (tm instanceof CompoundTerm) {
             this.termLinkTemplates = ((CompoundTerm) tm).prepareComponentLinks();
@@ -159,6 +171,7 @@ public class Concept extends Item<Term> implements Serializable {
 
     public void addToTable(final Task task, final boolean rankTruthExpectation, final ArrayList<Task> table, final int max, final Class eventAdd, final Class eventRemove, final Object... extraEventArguments) {
         
+        changed = true;
         int preSize = table.size();
         Task removedT;
         Sentence removed = null;
@@ -223,6 +236,8 @@ public class Concept extends Item<Term> implements Serializable {
     /**
      * Add a new belief (or goal) into the table Sort the beliefs/desires by
      * rank, and remove redundant or low rank one
+     * <p>
+     * The table has to be ordered by rank already, the position is found by binary search
      *
      * @param newSentence The judgment to be processed
      * @param table The table to be revised
@@ -232,19 +247,24 @@ public class Concept extends Item<Term> implements Serializable {
     public static Task addToTable(final Task newTask, final List<Task> table, final int capacity, boolean rankTruthExpectation) {
         Sentence newSentence = newTask.sentence;
         final float rank1 = rankBelief(newSentence, rankTruthExpectation);    // for the new isBelief
-        float rank2;        
-        int i;
-        for (i = 0; i < table.size(); i++) {
+        //first position ranked not above the new one
+        int i = 0;
+        int high = table.size();
+        while (i < high) {
+            final int mid = (i + high) >>> 1;
+            if (rank1 >= rankBelief(table.get(mid).sentence, rankTruthExpectation)) {
+                high = mid;
+            } else {
+                i = mid + 1;
+            }
+        }
+        if (i < table.size()) {
             Sentence judgment2 = table.get(i).sentence;
-            rank2 = rankBelief(judgment2, rankTruthExpectation);
-            if (rank1 >= rank2) {
-                if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp,false,true,true)) {
-                    //System.out.println(" ---------- Equivalent Belief: " + newSentence + " == " + judgment2);
-                    return null;
-                }
-                table.add(i, newTask);
-                break;
-            }            
+            if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp,false,true,true)) {
+                //System.out.println(" ---------- Equivalent Belief: " + newSentence + " == " + judgment2);
+                return null;
+            }
+            table.add(i, newTask);
         }
         
         if (table.size() == capacity) {
@@ -266,28 +286,10 @@ public class Concept extends Item<Term> implements Serializable {
      *
      * @param query The query to be processed
      * @param list The list of beliefs or desires to be used
-     * @return The best candidate selected
+     * @return The best candidate selected, by LocalRules.solutionQuality rated by confidence
      */
-    public Task selectCandidate(final Task query, final List<Task> list) {
- //        if (list == null) {
-        //            return null;
-        //        }
-        float currentBest = 0;
-        float beliefQuality;
-        Task candidate = null;
-        boolean rateByConfidence = true; //table vote, yes/no question / local processing
-        synchronized (list) {            
-            for (int i = 0; i < list.size(); i++) {
-                Task judgT = list.get(i);
-                Sentence judg = judgT.sentence;
-                beliefQuality = LocalRules.solutionQuality(rateByConfidence, query, judg, memory); //makes revision explicitly search for 
-                if (beliefQuality > currentBest /*&& (!forRevision || judgT.sentence.equalsContent(query)) */ /*&& (!forRevision || !Stamp.baseOverlap(query.stamp.evidentialBase, judg.stamp.evidentialBase)) */) {
-                    currentBest = beliefQuality;
-                    candidate = judgT;
-                }
-            }
-        }
-        return candidate;
+    public Task selectCandidate(final Task query, final BeliefTable list) {
+        return list.select(query, memory); //table vote, yes/no question / local processing
     }
 
     public float negConfirmationPriority = 0.0f;
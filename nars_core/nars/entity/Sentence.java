@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Objects;
 import nars.main.NAR;
 import nars.main.Parameters;
+import nars.storage.Memory;
 import nars.inference.TemporalRules;
 import nars.inference.TruthFunctions;
 import nars.inference.TruthFunctions.EternalizedTruthValue;
@@ -499,16 +500,34 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      * @return The String
      */
     public CharSequence toString(NAR nar, boolean showStamp) {
+        return toString(nar.memory.time(), nar.memory.param.duration.get(), showStamp);
+    }
+    
+    /**
+     * Get a String representation of the sentence for display purpose,
+     * with the tense relative to the given time
+     *
+     * @return The String
+     */
+    public CharSequence toString(final long time, boolean showStamp) {
+        return toString(time, Memory.duration(), showStamp);
+    }
+
+    /**
+     * Get a String representation of the sentence for display purpose,
+     * with the tense relative to the given time and duration of the NAR
+     *
+     * @return The String
+     */
+    public CharSequence toString(final long time, final int duration, boolean showStamp) {
     
         CharSequence contentName = term.name();
-        
-        final long t = nar.memory.time();
 
-        long diff=stamp.getOccurrenceTime()-nar.memory.time();
+        long diff=stamp.getOccurrenceTime()-time;
         long diffabs = Math.abs(diff);
         
         String timediff = "";
-        if(diffabs < Parameters.DURATION) {
+        if(diffabs < duration) {
             timediff = "|";
         }
         else {
@@ -22,7 +22,6 @@ package nars.entity;
 
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.HashSet;
 import nars.storage.Memory;
 import nars.main.Parameters;
 import nars.inference.TemporalRules;
@@ -47,8 +46,8 @@ public class Stamp implements Cloneable, Serializable {
     private long occurrenceTime;
     /*default for atemporal events means "always" in Judgment/Question, but "current" in Goal/Quest*/
     public static final long ETERNAL = Integer.MIN_VALUE;
-    /** caches evidentialBase as a set for comparisons and hashcode, stores the unique Long's in-order for efficiency*/    
-    private long[] evidentialSet = null;
+    /** caches of the evidential base, computed when first needed */
+    private transient volatile Evidence evidence = null;
     /*Tense of the item*/
     private Tense tense;
     /*True when its a neg confirmation task that was already checked:*/
@@ -64,8 +63,31 @@ public class Stamp implements Cloneable, Serializable {
      * TODO use thread-safety for this
      */
     
-    /** cache of hashcode of evidential base */
-    private int evidentialHash;
+    /**
+     * The caches of an evidential base, immutable so that concept firing workers either see
+     * none or all of them complete.
+     */
+    private static final class Evidence {
+        /** the evidential base they were computed from */
+        final long[] base;
+        /** the unique serials of the base in order, for comparisons and hashcode */
+        final long[] set;
+        /** hashcode of the set */
+        final int hash;
+        /** a 64 bit signature of the set, one bit set per serial; two bases can only overlap if their signatures share a bit */
+        final long signature;
+
+        Evidence(final long[] base) {
+            this.base = base;
+            this.set = toSetArray(base);
+            long s = 0;
+            for (final long serial : set) {
+                s |= signatureBit(serial);
+            }
+            this.hash = Arrays.hashCode(set);
+            this.signature = s;
+        }
+    }
 
     
     public boolean before(Stamp s, int duration) {
@@ -128,6 +150,9 @@ public class Stamp implements Cloneable, Serializable {
         this.evidentialBase = useEvidentialBase.evidentialBase;
         this.baseLength = useEvidentialBase.baseLength;
         this.creationTime = creationTime;
+        
+        //the same base, so the caches derived from it can be shared
+        this.evidence = useEvidentialBase.evidence;
 
         this.occurrenceTime = old.getOccurrenceTime();
     }
@@ -166,8 +191,23 @@ public class Stamp implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * Restore a stamp with its evidential base and times
+     *
+     * @param evidentialBase The serials, not copied
+     * @param creationTime The creation time
+     * @param occurrenceTime The occurrence time, or ETERNAL
+     */
+    public Stamp(final long[] evidentialBase, final long creationTime, final long occurrenceTime) {
+        this.evidentialBase = evidentialBase;
+        this.baseLength = evidentialBase.length;
+        this.creationTime = creationTime;
+        this.occurrenceTime = occurrenceTime;
+        this.tense = (occurrenceTime == ETERNAL) ? Tense.Eternal : null;
+    }
+
     public Stamp(final Memory memory, final Tense tense) {
-        this(memory.time(), tense, memory.newStampSerial(), Parameters.DURATION);
+        this(memory.time(), tense, memory.newStampSerial(), memory.param.duration.get());
     }
 
     /** creates a stamp with default Present tense */
@@ -175,34 +215,64 @@ public class Stamp implements Cloneable, Serializable {
         this(memory, Tense.Present);
     }
     
-    /** Detects evidental base overlaps **/
-    public static boolean baseOverlap(long[] base1, long[] base2) {
-        HashSet<Long> task_base = new HashSet<>(base1.length + base2.length);
-        for(int i=0; i < base1.length; i++) {
-            if(task_base.contains(base1[i])) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(base1[i]);
+    /** Detects evidental base overlaps, including repeated serials within one of the bases **/
+    public static boolean baseOverlap(final Stamp a, final Stamp b) {
+        if (a.evidenceIsCyclic() || b.evidenceIsCyclic()) {
+            return true;
         }
-        for(int i=0; i < base2.length; i++) {
-            if(task_base.contains(base2[i])) {
-                return true;
-            }
-            task_base.add(base2[i]); //also add to detect collision with itself
+        if ((a.evidentialSignature() & b.evidentialSignature()) == 0) {
+            return false;
         }
-        return false;
-     }
+        return intersects(a.toSet(), b.toSet());
+    }
     
-    public boolean evidenceIsCyclic() {
-        HashSet<Long> task_base = new HashSet<Long>(this.evidentialBase.length);
-        for(int i=0; i < this.evidentialBase.length; i++) {
-            if(task_base.contains(Long.valueOf(this.evidentialBase[i]))) { //can have an overlap in itself already
+    /** Detects evidental base overlaps of plain bases, including repeated serials within one of them **/
+    public static boolean baseOverlap(final long[] base1, final long[] base2) {
+        final long[] set1 = toSetArray(base1);
+        if (set1.length < base1.length) { //can have an overlap in itself already
+            return true;
+        }
+        final long[] set2 = toSetArray(base2);
+        if (set2.length < base2.length) {
+            return true;
+        }
+        return intersects(set1, set2);
+    }
+    
+    /** whether two sorted arrays share an element, by merging them */
+    static boolean intersects(final long[] a, final long[] b) {
+        if (a.length == 0 || b.length == 0 || a[a.length - 1] < b[0] || b[b.length - 1] < a[0]) {
+            return false;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            final long x = a[i], y = b[j];
+            if (x == y) {
                 return true;
             }
-            task_base.add(this.evidentialBase[i]);
+            if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
         }
         return false;
     }
+    
+    /** whether a serial appears more than once in the evidential base */
+    public boolean evidenceIsCyclic() {
+        return toSet().length < evidentialBase.length;
+    }
+    
+    /** the signature of the evidential base, a Bloom filter with a single hash function over 64 bits */
+    public final long evidentialSignature() {
+        return evidence().signature;
+    }
+    
+    static long signatureBit(final long serial) {
+        //serials are consecutive, so mix them before taking the top 6 bits
+        return 1L << ((serial * 0x9E3779B97F4A7C15L) >>> 58);
+    }
 
     public boolean isEternal() {
         boolean eternalOccurrence = occurrenceTime == ETERNAL;
@@ -291,12 +361,17 @@ public class Stamp implements Cloneable, Serializable {
      * @return The TreeSet representation of the evidential base
      */
     private long[] toSet() {        
-        if (evidentialSet == null) {        
-            evidentialSet = toSetArray(evidentialBase);
-            evidentialHash = Arrays.hashCode(evidentialSet);
+        return evidence().set;
+    }
+
+    /** the caches of the current evidential base, computed again if the base was replaced */
+    private Evidence evidence() {
+        Evidence e = evidence;
+        if (e == null || e.base != evidentialBase) {
+            e = new Evidence(evidentialBase);
+            evidence = e;
         }
-        
-        return evidentialSet;
+        return e;
     }
 
     
@@ -331,9 +406,7 @@ public class Stamp implements Cloneable, Serializable {
      * @return The hash code
      */
     public final int evidentialHash() {
-        if (evidentialSet==null)
-            toSet();       
-        return evidentialHash;
+        return evidence().hash;
     }
     
     public Stamp cloneWithNewOccurrenceTime(final long newOcurrenceTime) {
@@ -89,6 +89,20 @@ public class Task<T extends Term> extends Item<Sentence<T>> implements Serializa
         this(s, b, parentBelief, solution);
     }
     
+    /**
+     * Constructor for a restored task
+     *
+     * @param s The sentence
+     * @param b The budget
+     * @param parentBelief The belief from which this task was derived
+     * @param solution The best solution found so far
+     * @param isInput Whether the task was input
+     */
+    public Task(final Sentence<T> s, final BudgetValue b, final Sentence parentBelief, final Sentence solution, final boolean isInput) {
+        this(s, b, parentBelief, solution);
+        this.isInput = isInput;
+    }
+    
     @Override public Sentence name() {
         return sentence;
     }
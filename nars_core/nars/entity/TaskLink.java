@@ -21,9 +21,6 @@
 package nars.entity;
 
 import java.io.Serializable;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
 import nars.main.Parameters;
 import nars.language.Term;
 
@@ -41,32 +38,9 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
      * The Task linked. The "target" field in TermLink is not used here.
      */
     public final Task targetTask;
-    private final int recordLength;
-    
     
     /* Remember the TermLinks, and when they has been used recently with this TaskLink */
-    public final static class Recording implements Serializable {
-    
-        public final TermLink link;
-        long time;
-
-        public Recording(TermLink link, long time) {
-            this.link = link;
-            this.time = time;
-        }
-
-        public long getTime() {
-            return time;
-        }
-
-        
-        public void setTime(long t) {
-            this.time = t;
-        }
-        
-    }
-    
-    public final Deque<Recording> records;
+    public final TermLinkRecords records;
     
 
     
@@ -87,23 +61,25 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
      * @param v The budget
      */
     public TaskLink(final Task t, final TermLink template, final BudgetValue v, int recordLength) {
-        super(v);
-        this.type =
+        this(t,
                 template == null ? 
                         TermLink.SELF : 
-                        template.type;
-        this.index =
-                
+                        template.type,
                 template == null ?
                         null : 
-                        template.index
-        ;
-        
+                        template.index,
+                v, recordLength);
+    }
+    
+    /**
+     * Constructor with the type and index of the link, used when restoring a TaskLink
+     */
+    public TaskLink(final Task t, final short type, final short[] index, final BudgetValue v, int recordLength) {
+        super(v);
+        this.type = type;
+        this.index = index;
         this.targetTask = t;
-        
-        this.recordLength = recordLength;
-        this.records = new ArrayDeque(recordLength);
-        
+        this.records = new TermLinkRecords(recordLength);
     }
 
 
@@ -160,35 +136,7 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
         if (!transformTask && bTerm.equals(targetTask.sentence.term)) {            
             return false;
         }
-        TermLink linkKey = termLink.name();
-        int next, i;
-                
-        //iterating the FIFO deque from oldest (first) to newest (last)
-        Iterator<Recording> ir = records.iterator();
-        while (ir.hasNext()) {
-            Recording r = ir.next();
-            if (linkKey.equals(r.link)) {
-                if (currentTime < r.getTime() + Parameters.NOVELTY_HORIZON) {
-                    //too recent, not novel
-                    return false;
-                } else {
-                    //happened long enough ago that we have forgotten it somewhat, making it seem more novel
-                    r.setTime(currentTime);
-                    ir.remove();
-                    records.addLast(r);
-                    return true;
-                }
-            }
-        }
-        
-        
-        //keep recordedLinks queue a maximum finite size
-        while (records.size() + 1 >= recordLength) records.removeFirst();
-        
-        // add knowledge reference to recordedLinks
-        records.addLast(new Recording(linkKey, currentTime));
-        
-        return true;
+        return records.novel(termLink.name(), currentTime, Parameters.NOVELTY_HORIZON);
     }
 
     @Override
@@ -121,6 +121,21 @@ public class TermLink extends Item<TermLink> implements TLink<Term>, Serializabl
         hash = init();
     }
 
+    /**
+     * Constructor to restore a TermLink with its type and index
+     * @param target Target Term
+     * @param type Link type
+     * @param index Component indices in compound
+     * @param v Budget value of the link
+     */
+    public TermLink(final Term target, final short type, final short[] index, final BudgetValue v) {
+        super(v);
+        this.target = target;
+        this.type = type;
+        this.index = index;
+        hash = init();
+    }
+
     @Override public TermLink name() { return this; }
     
 //    @Override
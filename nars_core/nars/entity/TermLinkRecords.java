@@ -0,0 +1,180 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.entity;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import nars.main.Parameters;
+
+/**
+ * Remembers the TermLinks a TaskLink was used with recently, and when.
+ *
+ * The records are kept in fixed slots of primitive arrays, holding the hash, the time
+ * and the TermLink of each record, so checking and recording a TermLink does not allocate.
+ * The slots are ordered by their last use in a doubly linked list, the least recently
+ * used record is replaced when all slots are in use.
+ *
+ * Records are found by scanning the hashes of the slots, or with a hash index when the
+ * record length reaches Parameters.TERM_LINK_RECORD_INDEX_LENGTH.
+ */
+public class TermLinkRecords implements Serializable {
+
+    private final TermLink[] link;
+    private final int[] hash;
+    private final long[] time;
+
+    /** the slots ordered by their last use, from the least recently used (oldest) to the newest */
+    private final int[] older, newer;
+    private int oldest = -1, newest = -1;
+    private int size;
+
+    /** open addressing hash index with linear probing, contains slot+1 or 0 when free; null if the slots are scanned */
+    private final int[] index;
+    private final int mask;
+
+    public TermLinkRecords(final int recordLength) {
+        this(recordLength, recordLength >= Parameters.TERM_LINK_RECORD_INDEX_LENGTH);
+    }
+
+    /**
+     * @param recordLength at most recordLength-1 records are kept, but at least one
+     * @param hashed whether to find records with a hash index instead of scanning them
+     */
+    public TermLinkRecords(final int recordLength, final boolean hashed) {
+        final int capacity = Math.max(1, recordLength - 1);
+        link = new TermLink[capacity];
+        hash = new int[capacity];
+        time = new long[capacity];
+        older = new int[capacity];
+        newer = new int[capacity];
+        if (hashed) {
+            index = new int[Integer.highestOneBit(capacity) << 2];
+            mask = index.length - 1;
+        } else {
+            index = null;
+            mask = 0;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return link.length;
+    }
+
+    /**
+     * Whether the TermLink was not used within the horizon before currentTime.
+     * If so, the TermLink is recorded as used at currentTime.
+     */
+    public boolean novel(final TermLink key, final long currentTime, final long horizon) {
+        final int h = key.hashCode();
+        int s = find(key, h);
+        if (s != -1) {
+            if (currentTime < time[s] + horizon) {
+                //too recent, not novel
+                return false;
+            }
+            //happened long enough ago that we have forgotten it somewhat, making it seem more novel
+            time[s] = currentTime;
+            if (s != newest) {
+                unlink(s);
+                linkNewest(s);
+            }
+            return true;
+        }
+
+        if (size == link.length) {
+            //keep the records a maximum finite size
+            s = oldest;
+            unlink(s);
+            if (index != null) {
+                unindex(s);
+            }
+        } else {
+            s = size++;
+        }
+        link[s] = key;
+        hash[s] = h;
+        time[s] = currentTime;
+        linkNewest(s);
+        if (index != null) {
+            index(s);
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(link, null);
+        size = 0;
+        oldest = newest = -1;
+        if (index != null) {
+            Arrays.fill(index, 0);
+        }
+    }
+
+    /** the slot recording the TermLink, or -1 */
+    private int find(final TermLink key, final int h) {
+        if (index == null) {
+            for (int s = 0; s < size; s++) {
+                if (hash[s] == h && key.equals(link[s])) {
+                    return s;
+                }
+            }
+            return -1;
+        }
+        for (int i = home(h); index[i] != 0; i = (i + 1) & mask) {
+            final int s = index[i] - 1;
+            if (hash[s] == h && key.equals(link[s])) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    private int home(final int h) {
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void index(final int s) {
+        int i = home(hash[s]);
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = s + 1;
+    }
+
+    /** removes a slot from the index, moving the following entries of its probe sequence back */
+    private void unindex(final int s) {
+        int i = home(hash[s]);
+        while (index[i] != s + 1) {
+            i = (i + 1) & mask;
+        }
+        index[i] = 0;
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            final int h = home(hash[index[j] - 1]);
+            //move the entry unless its home lies cyclically in (i, j]
+            if ((i <= j) ? (h <= i || h > j) : (h <= i && h > j)) {
+                index[i] = index[j];
+                index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    private void unlink(final int s) {
+        final int o = older[s], n = newer[s];
+        if (o != -1) newer[o] = n; else oldest = n;
+        if (n != -1) older[n] = o; else newest = o;
+    }
+
+    private void linkNewest(final int s) {
+        older[s] = newest;
+        newer[s] = -1;
+        if (newest != -1) newer[newest] = s; else oldest = s;
+        newest = s;
+    }
+}
@@ -56,8 +56,8 @@ import nars.language.Similarity;
 import nars.language.Statement;
 import nars.language.Term;
 import static nars.language.Terms.reduceComponents;
+import nars.language.Unifier;
 import nars.language.Variable;
-import nars.language.Variables;
 import static nars.inference.TruthFunctions.abduction;
 import nars.language.Interval;
 
@@ -718,20 +718,16 @@ OUT: <lock1 --> lock>.
         Term P1 = T2.getPredicate();
         Term P2 = T1.getPredicate();
 
-        HashMap<Term, Term> res1 = new HashMap<>();
-        HashMap<Term, Term> res2 = new HashMap<>();
-        HashMap<Term, Term> res3 = new HashMap<>();
-        HashMap<Term, Term> res4 = new HashMap<>();
+        final Unifier u = new Unifier();
 
         if (figure == 21) {
-            res1.clear();
-            res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, S2, res1, res2); //this part is 
-            T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
+            u.clear();
+            u.unify(Symbols.VAR_INDEPENDENT, P1, S2); //this part is 
+            T1 = (Statement) u.apply(T1, 1); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
             }
-            T2 = (Statement) T2.applySubstitute(res1);
+            T2 = (Statement) u.apply(T2, 0);
             if(T2==null) {
                 return;
             }
@@ -743,14 +739,13 @@ OUT: <lock1 --> lock>.
             if (S1 instanceof Conjunction) {
                 //try to unify P2 with a component
                 for (final Term s1 : ((CompoundTerm) S1).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, P2)) {
                         for (Term s2 : ((CompoundTerm) S1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -766,14 +761,13 @@ OUT: <lock1 --> lock>.
             if (P2 instanceof Conjunction) {
                 //try to unify S1 with a component
                 for (final Term s1 : ((CompoundTerm) P2).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, S1)) {
                         for (Term s2 : ((CompoundTerm) P2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -789,14 +783,13 @@ OUT: <lock1 --> lock>.
         }
 
         if (figure == 12) {
-            res1.clear();
-            res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, P2, res1, res2); //this part is 
-            T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
+            u.clear();
+            u.unify(Symbols.VAR_INDEPENDENT, S1, P2); //this part is 
+            T1 = (Statement) u.apply(T1, 1); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
             }
-            T2 = (Statement) T2.applySubstitute(res1);
+            T2 = (Statement) u.apply(T2, 0);
             if(T2==null) {
                 return;
             }
@@ -808,14 +801,13 @@ OUT: <lock1 --> lock>.
             if (S2 instanceof Conjunction) {
                 //try to unify P1 with a component
                 for (final Term s1 : ((CompoundTerm) S2).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, P1)) {
                         for (Term s2 : ((CompoundTerm) S2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -831,14 +823,13 @@ OUT: <lock1 --> lock>.
             if (P1 instanceof Conjunction) {
                 //try to unify S2 with a component
                 for (final Term s1 : ((CompoundTerm) P1).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, S2)) {
                         for (Term s2 : ((CompoundTerm) P1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -854,14 +845,13 @@ OUT: <lock1 --> lock>.
         }
 
         if (figure == 11) {
-            res1.clear();
-            res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, S1, S2, res1, res2); //this part is 
-            T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
+            u.clear();
+            u.unify(Symbols.VAR_INDEPENDENT, S1, S2); //this part is 
+            T1 = (Statement) u.apply(T1, 1); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
             }
-            T2 = (Statement) T2.applySubstitute(res1);
+            T2 = (Statement) u.apply(T2, 0);
             if(T2==null) {
                 return;
             }
@@ -873,14 +863,13 @@ OUT: <lock1 --> lock>.
             if (P1 instanceof Conjunction) {
                 //try to unify P2 with a component
                 for (final Term s1 : ((CompoundTerm) P1).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P2, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, P2)) {
                         for (Term s2 : ((CompoundTerm) P1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -896,14 +885,13 @@ OUT: <lock1 --> lock>.
             if (P2 instanceof Conjunction) {
                 //try to unify P1 with a component
                 for (final Term s1 : ((CompoundTerm) P2).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, P1, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, P1)) {
                         for (Term s2 : ((CompoundTerm) P2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -919,14 +907,13 @@ OUT: <lock1 --> lock>.
         }
 
         if (figure == 22) {
-            res1.clear();
-            res2.clear();
-            Variables.findSubstitute(Symbols.VAR_INDEPENDENT, P1, P2, res1, res2); //this part is 
-            T1 = (Statement) T1.applySubstitute(res2); //independent, the rule works if it unifies
+            u.clear();
+            u.unify(Symbols.VAR_INDEPENDENT, P1, P2); //this part is 
+            T1 = (Statement) u.apply(T1, 1); //independent, the rule works if it unifies
             if(T1==null) {
                 return;
             }
-            T2 = (Statement) T2.applySubstitute(res1);
+            T2 = (Statement) u.apply(T2, 0);
             if(T2==null) {
                 return;
             }
@@ -938,14 +925,13 @@ OUT: <lock1 --> lock>.
             if (S1 instanceof Conjunction) {
                 //try to unify S2 with a component
                 for (final Term s1 : ((CompoundTerm) S1).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S2, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, S2)) {
                         for (Term s2 : ((CompoundTerm) S1).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -961,15 +947,14 @@ OUT: <lock1 --> lock>.
             if (S2 instanceof Conjunction) {
                 //try to unify S1 with a component
                 for (final Term s1 : ((CompoundTerm) S2).term) {
-                    res3.clear();
-                    res4.clear(); //here the dependent part matters, see example of Issue40
-                    if (Variables.findSubstitute(Symbols.VAR_DEPENDENT, s1, S1, res3, res4)) {
+                    u.clear(); //here the dependent part matters, see example of Issue40
+                    if (u.unify(Symbols.VAR_DEPENDENT, s1, S1)) {
                         for (Term s2 : ((CompoundTerm) S2).term) {
                             if (!(s2 instanceof CompoundTerm)) {
                                 continue;
                             }
 
-                            s2 = ((CompoundTerm) s2).applySubstitute(res3);
+                            s2 = u.apply((CompoundTerm) s2, 0);
                             if(s2==null || s2.hasVarIndep()) {
                                 continue;
                             }
@@ -0,0 +1,237 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.inference;
+
+import nars.control.CycleProfiler;
+import nars.entity.TermLink;
+import nars.language.CompoundTerm;
+import nars.language.Conjunction;
+import nars.language.Disjunction;
+import nars.language.Equivalence;
+import nars.language.Implication;
+import nars.language.Inheritance;
+import nars.language.Negation;
+import nars.language.Similarity;
+import nars.language.Term;
+
+/**
+ * Precomputed dispatch table of RuleTables.reason.
+ *
+ * The rule to apply to a task link and a term link is decided by the two link types, the
+ * operators of the task and belief terms, and whether there is a belief. These are few enough
+ * to tabulate all combinations once, so reason does a single lookup instead of the nested
+ * switch and instanceof chains, and returns at once for the combinations which have no rule.
+ * The conditions which depend on more than this, like the indices or the components of
+ * the terms, are still checked by the rules.
+ */
+public final class RuleDispatch {
+
+    /** the rules reason dispatches to, named after the link types of task and belief */
+    public enum Rule {
+        NONE,
+        SELF_COMPONENT,
+        SELF_COMPOUND,
+        SELF_COMPONENT_STATEMENT,
+        SELF_COMPOUND_STATEMENT,
+        SELF_COMPONENT_CONDITION,
+        SELF_COMPOUND_CONDITION,
+        COMPOUND_COMPOUND,
+        COMPOUND_COMPOUND_STATEMENT,
+        COMPOUND_IMPLICATION_CONDITION,
+        COMPOUND_EQUIVALENCE_CONDITION,
+        STATEMENT_COMPONENT,
+        STATEMENT_COMPOUND,
+        STATEMENT_COMPOUND_CONDITION,
+        CONDITION_COMPOUND,
+        CONDITION_COMPOUND_STATEMENT,
+        /* syllogisms between two statements sharing a term, the figure is where the term is */
+        ASYMMETRIC_ASYMMETRIC,
+        /** asymmetric task, symmetric belief */
+        ASYMMETRIC_SYMMETRIC,
+        /** symmetric task, asymmetric belief */
+        SYMMETRIC_ASYMMETRIC,
+        SYMMETRIC_SYMMETRIC,
+        /** Similarity task and Implication belief, or Similarity and Equivalence, to higher order */
+        BRIDGE_ASYMMETRIC,
+        BRIDGE_SYMMETRIC,
+        /** Inheritance task and a belief which is neither Inheritance nor Similarity */
+        DETACHMENT_OF_BELIEF,
+        /** higher order task and Inheritance belief */
+        DETACHMENT_OF_TASK;
+
+        /** whether the rule is a syllogism whose firings are counted per figure */
+        public boolean hasFigure() {
+            return compareTo(ASYMMETRIC_ASYMMETRIC) >= 0 && compareTo(BRIDGE_SYMMETRIC) <= 0;
+        }
+    }
+
+    static final Rule[] rules = Rule.values();
+
+    /* operators the rules distinguish */
+    static final int ATOM = 0, INHERITANCE = 1, SIMILARITY = 2, IMPLICATION = 3, EQUIVALENCE = 4,
+            CONJUNCTION = 5, DISJUNCTION = 6, NEGATION = 7, COMPOUND = 8;
+    static final int OPERATORS = 9;
+    /** link types are below TermLink.TEMPORAL + 1 */
+    static final int LINK_TYPES = TermLink.TEMPORAL + 1;
+
+    /** number of firing counters, 4 per rule for the figures of syllogisms */
+    public static final int ENTRIES = rules.length * 4;
+
+    private static final ClassValue<Integer> operator = new ClassValue<Integer>() {
+        @Override protected Integer computeValue(Class<?> c) {
+            if (Inheritance.class.isAssignableFrom(c)) return INHERITANCE;
+            if (Similarity.class.isAssignableFrom(c)) return SIMILARITY;
+            if (Implication.class.isAssignableFrom(c)) return IMPLICATION;
+            if (Equivalence.class.isAssignableFrom(c)) return EQUIVALENCE;
+            if (Conjunction.class.isAssignableFrom(c)) return CONJUNCTION;
+            if (Disjunction.class.isAssignableFrom(c)) return DISJUNCTION;
+            if (Negation.class.isAssignableFrom(c)) return NEGATION;
+            if (CompoundTerm.class.isAssignableFrom(c)) return COMPOUND;
+            return ATOM;
+        }
+    };
+
+    /** rule ordinals by index(taskLinkType, beliefLinkType, taskOperator, beliefOperator, hasBelief) */
+    private static final byte[] table = new byte[LINK_TYPES * LINK_TYPES * OPERATORS * OPERATORS * 2];
+
+    static {
+        for (short t = 0; t < LINK_TYPES; t++)
+            for (short b = 0; b < LINK_TYPES; b++)
+                for (int to = 0; to < OPERATORS; to++)
+                    for (int bo = 0; bo < OPERATORS; bo++)
+                        for (int belief = 0; belief < 2; belief++)
+                            table[index(t, b, to, bo, belief == 1)] = (byte) rule(t, b, to, bo, belief == 1).ordinal();
+    }
+
+    private RuleDispatch() {
+    }
+
+    static int operator(final Term t) {
+        return operator.get(t.getClass());
+    }
+
+    private static int index(final short taskLinkType, final short beliefLinkType, final int taskOperator, final int beliefOperator, final boolean belief) {
+        return ((((taskLinkType * LINK_TYPES) + beliefLinkType) * OPERATORS + taskOperator) * OPERATORS + beliefOperator) * 2 + (belief ? 1 : 0);
+    }
+
+    /** the rule to apply, NONE if no rule can fire */
+    public static Rule lookup(final short taskLinkType, final short beliefLinkType, final Term taskTerm, final Term beliefTerm, final boolean belief) {
+        if (taskLinkType < 0 || taskLinkType >= LINK_TYPES || beliefLinkType < 0 || beliefLinkType >= LINK_TYPES) {
+            return Rule.NONE;
+        }
+        return rules[table[index(taskLinkType, beliefLinkType, operator(taskTerm), operator(beliefTerm), belief)]];
+    }
+
+    private static boolean statement(final int op) {
+        return op >= INHERITANCE && op <= EQUIVALENCE;
+    }
+
+    /** the cases of reason, computed once for the table */
+    static Rule rule(final short taskLinkType, final short beliefLinkType, final int taskOp, final int beliefOp, final boolean belief) {
+        switch (taskLinkType) {
+            case TermLink.SELF:
+                switch (beliefLinkType) {
+                    case TermLink.COMPONENT:
+                        return Rule.SELF_COMPONENT;
+                    case TermLink.COMPOUND:
+                        return Rule.SELF_COMPOUND;
+                    case TermLink.COMPONENT_STATEMENT:
+                        return Rule.SELF_COMPONENT_STATEMENT;
+                    case TermLink.COMPOUND_STATEMENT:
+                        return belief ? Rule.SELF_COMPOUND_STATEMENT : Rule.NONE;
+                    case TermLink.COMPONENT_CONDITION:
+                        return (belief && taskOp == IMPLICATION) ? Rule.SELF_COMPONENT_CONDITION : Rule.NONE;
+                    case TermLink.COMPOUND_CONDITION:
+                        return (belief && taskOp == IMPLICATION && beliefOp == IMPLICATION) ? Rule.SELF_COMPOUND_CONDITION : Rule.NONE;
+                }
+                return Rule.NONE;
+            case TermLink.COMPOUND:
+                switch (beliefLinkType) {
+                    case TermLink.COMPOUND:
+                        //terms of different operators are of different classes
+                        return (taskOp == beliefOp) ? Rule.COMPOUND_COMPOUND : Rule.NONE;
+                    case TermLink.COMPOUND_STATEMENT:
+                        return Rule.COMPOUND_COMPOUND_STATEMENT;
+                    case TermLink.COMPOUND_CONDITION:
+                        if (belief && beliefOp == IMPLICATION)
+                            return Rule.COMPOUND_IMPLICATION_CONDITION;
+                        if (belief && beliefOp == EQUIVALENCE)
+                            return Rule.COMPOUND_EQUIVALENCE_CONDITION;
+                        return Rule.NONE;
+                }
+                return Rule.NONE;
+            case TermLink.COMPOUND_STATEMENT:
+                switch (beliefLinkType) {
+                    case TermLink.COMPONENT:
+                        return statement(taskOp) ? Rule.STATEMENT_COMPONENT : Rule.NONE;
+                    case TermLink.COMPOUND:
+                        return statement(taskOp) ? Rule.STATEMENT_COMPOUND : Rule.NONE;
+                    case TermLink.COMPOUND_STATEMENT:
+                        return belief ? syllogism(taskOp, beliefOp) : Rule.NONE;
+                    case TermLink.COMPOUND_CONDITION:
+                        return (belief && statement(taskOp) && beliefOp == IMPLICATION) ? Rule.STATEMENT_COMPOUND_CONDITION : Rule.NONE;
+                }
+                return Rule.NONE;
+            case TermLink.COMPOUND_CONDITION:
+                switch (beliefLinkType) {
+                    case TermLink.COMPOUND:
+                        return belief ? Rule.CONDITION_COMPOUND : Rule.NONE;
+                    case TermLink.COMPOUND_STATEMENT:
+                        return (belief && taskOp == IMPLICATION) ? Rule.CONDITION_COMPOUND_STATEMENT : Rule.NONE;
+                }
+                return Rule.NONE;
+        }
+        return Rule.NONE;
+    }
+
+    static Rule syllogism(final int taskOp, final int beliefOp) {
+        switch (taskOp) {
+            case INHERITANCE:
+                if (beliefOp == INHERITANCE) return Rule.ASYMMETRIC_ASYMMETRIC;
+                if (beliefOp == SIMILARITY) return Rule.ASYMMETRIC_SYMMETRIC;
+                return Rule.DETACHMENT_OF_BELIEF;
+            case SIMILARITY:
+                if (beliefOp == INHERITANCE) return Rule.SYMMETRIC_ASYMMETRIC;
+                if (beliefOp == SIMILARITY) return Rule.SYMMETRIC_SYMMETRIC;
+                if (beliefOp == IMPLICATION) return Rule.BRIDGE_ASYMMETRIC;
+                if (beliefOp == EQUIVALENCE) return Rule.BRIDGE_SYMMETRIC;
+                return Rule.NONE;
+            case IMPLICATION:
+                if (beliefOp == IMPLICATION) return Rule.ASYMMETRIC_ASYMMETRIC;
+                if (beliefOp == EQUIVALENCE || beliefOp == SIMILARITY) return Rule.ASYMMETRIC_SYMMETRIC;
+                if (beliefOp == INHERITANCE) return Rule.DETACHMENT_OF_TASK;
+                return Rule.NONE;
+            case EQUIVALENCE:
+                if (beliefOp == IMPLICATION) return Rule.SYMMETRIC_ASYMMETRIC;
+                if (beliefOp == EQUIVALENCE) return Rule.SYMMETRIC_SYMMETRIC;
+                if (beliefOp == INHERITANCE) return Rule.DETACHMENT_OF_TASK;
+                if (beliefOp == SIMILARITY) return Rule.BRIDGE_SYMMETRIC;
+                return Rule.NONE;
+        }
+        return Rule.NONE;
+    }
+
+    /** the firing counter of a rule, figure is 11, 12, 21 or 22 for syllogisms and ignored otherwise */
+    public static int entry(final Rule rule, final int figure) {
+        if (!rule.hasFigure()) {
+            return rule.ordinal() * 4;
+        }
+        return rule.ordinal() * 4 + Math.min(figure / 10 - 1, 1) * 2 + Math.min(figure % 10 - 1, 1);
+    }
+
+    /** how often a rule fired while the profiler was active */
+    public static long firings(final CycleProfiler profiler, final Rule rule, final int figure) {
+        return profiler.dispatched(entry(rule, figure));
+    }
+
+    /** how often a rule fired while the profiler was active, in all figures */
+    public static long firings(final CycleProfiler profiler, final Rule rule) {
+        long n = 0;
+        for (int i = 0; i < 4; i++) {
+            n += profiler.dispatched(rule.ordinal() * 4 + i);
+        }
+        return n;
+    }
+}
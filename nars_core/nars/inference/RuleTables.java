@@ -23,7 +23,10 @@ package nars.inference;
 import nars.io.events.Events;
 import nars.storage.Memory;
 import nars.main.Parameters;
+import nars.control.CycleProfiler;
+import nars.control.CycleProfiler.RuleFamily;
 import nars.control.DerivationContext;
+import nars.inference.RuleDispatch.Rule;
 import nars.entity.BudgetValue;
 import nars.entity.Concept;
 import nars.entity.Sentence;
@@ -57,7 +60,7 @@ import nars.operator.Operation;
 /**
  * Table of inference rules, indexed by the TermLinks for the task and the
  * belief. Used in indirective processing of a task, to dispatch inference cases
- * to the relevant inference rules.
+ * to the relevant inference rules. The cases are looked up in RuleDispatch.
  */
 public class RuleTables {
     
@@ -105,14 +108,17 @@ public class RuleTables {
             }*/
             
             //too restrictive, its checked for non-deductive inference rules in derivedTask (also for single prem)
-            nal.evidentalOverlap = Stamp.baseOverlap(task.sentence.stamp.evidentialBase, belief.stamp.evidentialBase);
+            nal.evidentalOverlap = Stamp.baseOverlap(task.sentence.stamp, belief.stamp);
             if(nal.evidentalOverlap && (!task.sentence.isEternal() || !belief.isEternal())) {
                 return; //only allow for eternal reasoning for now to prevent derived event floods
             }
             
             nal.emit(Events.BeliefReason.class, belief, beliefTerm, taskTerm, nal);
             
-            if (LocalRules.match(task, belief, nal)) { //new tasks resulted from the match, so return
+            final long start = memory.profiler.start();
+            final boolean matched = LocalRules.match(task, belief, nal);
+            memory.profiler.end(RuleFamily.LOCAL, start);
+            if (matched) { //new tasks resulted from the match, so return
                 return;
             }
         }
@@ -121,6 +127,11 @@ public class RuleTables {
         nal.setCurrentBelief(belief);
         nal.setCurrentTask(task);
         
+        final Rule rule = RuleDispatch.lookup(tLink.type, bLink.type, taskTerm, beliefTerm, belief != null);
+        if (rule == Rule.NONE) {
+            return;
+        }
+        
         //put here since LocalRules match should be possible even if the belief is foreign
         if(equalSubTermsInRespectToImageAndProduct(taskTerm,beliefTerm))
            return;
@@ -131,134 +142,148 @@ public class RuleTables {
         
         final short tIndex = tLink.getIndex(0);
         short bIndex = bLink.getIndex(0);
-        switch (tLink.type) {          // dispatch first by TaskLink type
-            case TermLink.SELF:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
-                        break;
-                    case TermLink.COMPOUND:
-                        compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
-                        break;
-                    case TermLink.COMPONENT_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Statement) {
-                                SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
-                            }
-                        } //else {
-                        if(taskSentence.term instanceof Inheritance || taskSentence.term instanceof Similarity) {
-                            StructuralRules.transformNegation((CompoundTerm) Negation.make(taskSentence.term), nal);
-                        }
-                        try {
-                            goalFromQuestion(task, taskTerm, nal); 
-                        }catch(Exception ex) {
-                            if(Parameters.DEBUG) {
-                                System.out.print("Error in goalFromQuestion");
-                            }
-                        } //todo fix
-                        //}
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPONENT_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication) && (beliefTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
-                        }
-                        break;
-                }
+        final CycleProfiler profiler = memory.profiler;
+        final long start = profiler.start();
+        int figure = 0;
+        switch (rule) {
+            case SELF_COMPONENT:
+                compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
                 break;
-            case TermLink.COMPOUND:
-                switch (bLink.type) {
-                    case TermLink.COMPOUND:
-                        compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            if (beliefTerm instanceof Implication) {
-                                Term[] u = new Term[] { beliefTerm, taskTerm };
-                                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
-                                    Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
-                                    Sentence newTaskSentence = taskSentence.clone(u[1]);
-                                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
-                                } else {
-                                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
-                                }                                
-                                
-                            } else if (beliefTerm instanceof Equivalence) {
-                                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
-                            }
-                        }
-                        break;
+            case SELF_COMPOUND:
+                compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
+                break;
+            case SELF_COMPONENT_STATEMENT:
+                if (belief != null) {
+                    if (taskTerm instanceof Statement) {
+                        SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
+                    }
+                } //else {
+                if(taskSentence.term instanceof Inheritance || taskSentence.term instanceof Similarity) {
+                    StructuralRules.transformNegation((CompoundTerm) Negation.make(taskSentence.term), nal);
                 }
+                try {
+                    goalFromQuestion(task, taskTerm, nal); 
+                }catch(Exception ex) {
+                    if(Parameters.DEBUG) {
+                        System.out.print("Error in goalFromQuestion");
+                    }
+                } //todo fix
+                //}
                 break;
-            case TermLink.COMPOUND_STATEMENT:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        if (taskTerm instanceof Statement) {
-                            goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
-                            componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND:
-                        if (taskTerm instanceof Statement) {
-                            compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            bIndex = bLink.getIndex(1);
-                            if ((taskTerm instanceof Statement) && (beliefTerm instanceof Implication)) {
-                                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bIndex, (Statement) taskTerm, tIndex, nal);
-                            }
-                        }
-                        break;
+            case SELF_COMPOUND_STATEMENT:
+                SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
+                break;
+            case SELF_COMPONENT_CONDITION:
+                bIndex = bLink.getIndex(1);
+                SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
+                break;
+            case SELF_COMPOUND_CONDITION:
+                bIndex = bLink.getIndex(1);
+                SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
+                break;
+            case COMPOUND_COMPOUND:
+                compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
+                break;
+            case COMPOUND_COMPOUND_STATEMENT:
+                compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
+                break;
+            case COMPOUND_IMPLICATION_CONDITION: {
+                Term[] u = new Term[] { beliefTerm, taskTerm };
+                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
+                    Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
+                    Sentence newTaskSentence = taskSentence.clone(u[1]);
+                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
+                } else {
+                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
                 }
                 break;
-            case TermLink.COMPOUND_CONDITION:
-                switch (bLink.type) {
-                      case TermLink.COMPOUND:
-                        if (belief != null) {
-                            detachmentWithVar(taskSentence, belief, tIndex, nal);
-                        }
-                        break;
-                    
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Implication) // TODO maybe put instanceof test within conditionalDedIndWithVar()
-                            {
-                                Term subj = ((Statement) taskTerm).getSubject();
-                                if (subj instanceof Negation) {
-                                    if (taskSentence.isJudgment()) {
-                                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
-                                    } else {
-                                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                    }
-                                } else {
-                                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                }
-                            }
-                            break;
-                        }
-                        break;
+            }
+            case COMPOUND_EQUIVALENCE_CONDITION:
+                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
+                break;
+            case STATEMENT_COMPONENT:
+                goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
+                componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
+                break;
+            case STATEMENT_COMPOUND:
+                compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
+                break;
+            case STATEMENT_COMPOUND_CONDITION:
+                bIndex = bLink.getIndex(1);
+                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bIndex, (Statement) taskTerm, tIndex, nal);
+                break;
+            case CONDITION_COMPOUND:
+                detachmentWithVar(taskSentence, belief, tIndex, nal);
+                break;
+            case CONDITION_COMPOUND_STATEMENT: {
+                Term subj = ((Statement) taskTerm).getSubject();
+                if (subj instanceof Negation) {
+                    if (taskSentence.isJudgment()) {
+                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
+                    } else {
+                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
+                    }
+                } else {
+                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
                 }
+                break;
+            }
+            case ASYMMETRIC_ASYMMETRIC:
+                figure = indexToFigure(tLink, bLink);
+                asymmetricAsymmetric(taskSentence, belief, figure, nal);
+                break;
+            case ASYMMETRIC_SYMMETRIC:
+                figure = indexToFigure(tLink, bLink);
+                asymmetricSymmetric(taskSentence, belief, figure, nal);
+                break;
+            case SYMMETRIC_ASYMMETRIC:
+                figure = indexToFigure(bLink, tLink);
+                asymmetricSymmetric(belief, taskSentence, figure, nal);
+                break;
+            case SYMMETRIC_SYMMETRIC:
+                figure = indexToFigure(bLink, tLink);
+                symmetricSymmetric(belief, taskSentence, figure, nal);
+                break;
+            case BRIDGE_ASYMMETRIC:
+                //Bridge to higher order statements:
+                figure = indexToFigure(tLink, bLink);
+                asymmetricSymmetric(belief, taskSentence, figure, nal);
+                break;
+            case BRIDGE_SYMMETRIC:
+                //Bridge to higher order statements:
+                figure = indexToFigure(tLink, bLink);
+                symmetricSymmetric(belief, taskSentence, figure, nal);
+                break;
+            case DETACHMENT_OF_BELIEF:
+                detachmentWithVar(belief, taskSentence, bLink.getIndex(0), nal);
+                break;
+            case DETACHMENT_OF_TASK:
+                detachmentWithVar(taskSentence, belief, tLink.getIndex(0), nal);
+                break;
+        }
+        if (start != 0) {
+            profiler.dispatch(RuleDispatch.entry(rule, figure));
+            profiler.end(ruleFamily(tLink.type, bLink.type), start);
+        }
+    }
+    
+    /** the family of the rules mainly applied for a pair of link types in reason */
+    public static RuleFamily ruleFamily(final short taskLinkType, final short beliefLinkType) {
+        switch (taskLinkType) {
+            case TermLink.SELF:
+                if (beliefLinkType == TermLink.COMPONENT || beliefLinkType == TermLink.COMPOUND)
+                    return RuleFamily.STRUCTURAL;
+                return RuleFamily.SYLLOGISTIC;
+            case TermLink.COMPOUND:
+                if (beliefLinkType == TermLink.COMPOUND_CONDITION)
+                    return RuleFamily.SYLLOGISTIC;
+                return RuleFamily.COMPOSITIONAL;
+            case TermLink.COMPOUND_STATEMENT:
+                if (beliefLinkType == TermLink.COMPONENT || beliefLinkType == TermLink.COMPOUND)
+                    return RuleFamily.COMPOSITIONAL;
+                return RuleFamily.SYLLOGISTIC;
+            default:
+                return RuleFamily.SYLLOGISTIC;
         }
     }
 
@@ -333,77 +358,6 @@ public class RuleTables {
     }
 
     /* ----- syllogistic inferences ----- */
-    /**
-     * Meta-table of syllogistic rules, indexed by the content classes of the
-     * taskSentence and the belief
-     *
-     * @param tLink The link to task
-     * @param bLink The link to belief
-     * @param taskTerm The content of task
-     * @param beliefTerm The content of belief
-     * @param nal Reference to the memory
-     */
-    private static void syllogisms(TaskLink tLink, TermLink bLink, Term taskTerm, Term beliefTerm, DerivationContext nal) {
-        Sentence taskSentence = nal.getCurrentTask().sentence;
-        Sentence belief = nal.getCurrentBelief();
-        int figure;
-        if (taskTerm instanceof Inheritance) {
-            if (beliefTerm instanceof Inheritance) {
-                figure = indexToFigure(tLink, bLink);
-                asymmetricAsymmetric(taskSentence, belief, figure, nal);
-            } else if (beliefTerm instanceof Similarity) {
-                figure = indexToFigure(tLink, bLink);
-                asymmetricSymmetric(taskSentence, belief, figure, nal);
-            } else {
-                detachmentWithVar(belief, taskSentence, bLink.getIndex(0), nal);
-            }
-        } else if (taskTerm instanceof Similarity) {
-            if (beliefTerm instanceof Inheritance) {
-                figure = indexToFigure(bLink, tLink);
-                asymmetricSymmetric(belief, taskSentence, figure, nal);
-            } else if (beliefTerm instanceof Similarity) {
-                figure = indexToFigure(bLink, tLink);
-                symmetricSymmetric(belief, taskSentence, figure, nal);
-            } else if (beliefTerm instanceof Implication) {
-                //Bridge to higher order statements:
-                figure = indexToFigure(tLink, bLink);
-                asymmetricSymmetric(belief, taskSentence, figure, nal);
-            } else if (beliefTerm instanceof Equivalence) {
-                //Bridge to higher order statements:
-                figure = indexToFigure(tLink, bLink);
-                symmetricSymmetric(belief, taskSentence, figure, nal);
-            }
-        } else if (taskTerm instanceof Implication) {
-            if (beliefTerm instanceof Implication) {
-                figure = indexToFigure(tLink, bLink);
-                asymmetricAsymmetric(taskSentence, belief, figure, nal);
-            } else if (beliefTerm instanceof Equivalence) {
-                figure = indexToFigure(tLink, bLink);
-                asymmetricSymmetric(taskSentence, belief, figure, nal);
-            } else if (beliefTerm instanceof Inheritance) {
-                detachmentWithVar(taskSentence, belief, tLink.getIndex(0), nal);
-            } else if (beliefTerm instanceof Similarity) {
-                //Bridge to higher order statements:
-                figure = indexToFigure(tLink, bLink);
-                asymmetricSymmetric(taskSentence, belief, figure, nal);
-            }
-        } else if (taskTerm instanceof Equivalence) {
-            if (beliefTerm instanceof Implication) {
-                figure = indexToFigure(bLink, tLink);
-                asymmetricSymmetric(belief, taskSentence, figure, nal);
-            } else if (beliefTerm instanceof Equivalence) {
-                figure = indexToFigure(bLink, tLink);
-                symmetricSymmetric(belief, taskSentence, figure, nal);
-            } else if (beliefTerm instanceof Inheritance) {
-                detachmentWithVar(taskSentence, belief, tLink.getIndex(0), nal);
-            } else if (beliefTerm instanceof Similarity) {
-                //Bridge to higher order statements:
-                figure = indexToFigure(tLink, bLink);
-                symmetricSymmetric(belief, taskSentence, figure, nal);
-            }
-        }
-    }
-
     /**
      * Decide the figure of syllogism according to the locations of the common
      * term in the premises
@@ -688,7 +688,7 @@ public final class StructuralRules {
                 boolean hasLeft = index > 1;
                 boolean hasRight = index < compound.size() - 2;
                 if(hasLeft) {
-                    int minIndex = Memory.randomNumber.nextInt(index-1); //if index-1 it would have length 1, no group
+                    int minIndex = Memory.random().nextInt(index-1); //if index-1 it would have length 1, no group
                     Term[] newTermLeft = new Term[(index-minIndex)];
                     System.arraycopy(conjCompound.term, minIndex, newTermLeft, minIndex - minIndex, index - minIndex);
                     Term contLeft  = Conjunction.make(newTermLeft,  conjCompound.getTemporalOrder(), conjCompound.getIsSpatial());
@@ -713,7 +713,7 @@ public final class StructuralRules {
                     }
                 }
                 if(hasRight) {
-                    int maxIndex = compound.term.length - 1 - (Memory.randomNumber.nextInt(1 + (compound.term.length - 1) - (index + 2)));
+                    int maxIndex = compound.term.length - 1 - (Memory.random().nextInt(1 + (compound.term.length - 1) - (index + 2)));
                     Term[] newTermRight = new Term[maxIndex -index];
                     System.arraycopy(conjCompound.term, index + 1, newTermRight, index + 1 - (index + 1), maxIndex + 1 - (index + 1));
                     Term contRight = Conjunction.make(newTermRight, conjCompound.getTemporalOrder(), conjCompound.getIsSpatial());
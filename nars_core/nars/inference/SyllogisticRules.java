@@ -435,7 +435,7 @@ public final class SyllogisticRules {
         if ((order != ORDER_NONE) && (order!=ORDER_INVALID)) {
             long baseTime = subSentence.getOccurenceTime(); 
             if (baseTime != Stamp.ETERNAL) {
-                long inc = order * Parameters.DURATION;
+                long inc = order * nal.memory.param.duration.get();
                 occurrence_time = (side == 0) ? baseTime+inc : baseTime-inc;
             }
         }
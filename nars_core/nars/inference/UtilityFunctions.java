@@ -22,7 +22,7 @@ package nars.inference;
 
 import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
-import nars.main.Parameters;
+import nars.storage.Memory;
 
 /**
  * Common functions on real numbers, mostly in [0,1].
@@ -111,7 +111,7 @@ public class UtilityFunctions {
      * @return The corresponding confidence, in [0, 1)
      */
     public final static float w2c(final float w) {
-        return w / (w + Parameters.HORIZON);
+        return w / (w + Memory.horizon());
     }
 
     /**
@@ -120,7 +120,7 @@ public class UtilityFunctions {
      * @return The corresponding weight of evidence, a non-negative real number
      */
     public final static float c2w(final float c) {
-        return Parameters.HORIZON * c / (1 - c);
+        return Memory.horizon() * c / (1 - c);
     }
 }
 
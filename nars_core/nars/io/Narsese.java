@@ -66,12 +66,20 @@ public class Narsese implements Serializable {
      */
     public static class InvalidInputException extends Exception {
 
+        /** index of the character where parsing failed, -1 if unknown */
+        public final int position;
+
         /**
          * An invalid addInput line.
          * @param s type of error
          */
         InvalidInputException(String s) {
+            this(s, -1);
+        }
+
+        InvalidInputException(String s, int position) {
             super(s);
+            this.position = position;
         }
     }    
     
@@ -134,6 +142,11 @@ public class Narsese implements Serializable {
      * @return An experienced task
      */    
     public Task parseTask(String s) throws InvalidInputException {
+        return NarseseParser.parseTask(memory, s);
+    }
+    
+    /** parseTask with the previous substring based parser, kept for comparing with NarseseParser */
+    public Task parseTaskSubstrings(String s) throws InvalidInputException {
         StringBuilder buffer = new StringBuilder(Texts.escape(s));
         
         String budgetString = getBudgetString(buffer);
@@ -144,10 +157,10 @@ public class Narsese implements Serializable {
         char punc = str.charAt(last);
         
         Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */, 
-                tense, memory.newStampSerial(), Parameters.DURATION);
+                tense, memory.newStampSerial(), memory.param.duration.get());
 
         TruthValue truth = parseTruth(truthString, punc);
-        Term content = parseTerm(str.substring(0, last));
+        Term content = parseTermSubstrings(str.substring(0, last));
         if (content == null) throw new InvalidInputException("Content term missing");
             
         Sentence sentence = new Sentence(
@@ -223,7 +236,7 @@ public class Narsese implements Serializable {
      * @param type Task type
      * @return the addInput TruthValue
      */
-    private static TruthValue parseTruth(String s, char type) {
+    static TruthValue parseTruth(String s, char type) {
         if ((type == QUESTION_MARK) || (type == QUEST_MARK)) {
             return null;
         }
@@ -254,7 +267,7 @@ public class Narsese implements Serializable {
      * @throws nars.io.StringParser.InvalidInputException If the String cannot
      * be parsed into a BudgetValue
      */
-    private static BudgetValue parseBudget(String s, char punctuation, TruthValue truth) throws InvalidInputException {
+    static BudgetValue parseBudget(String s, char punctuation, TruthValue truth) throws InvalidInputException {
         float priority, durability;
         switch (punctuation) {
             case JUDGMENT_MARK:
@@ -324,6 +337,11 @@ public class Narsese implements Serializable {
      * @return the Term generated from the String
      */
     public Term parseTerm(String s) throws InvalidInputException {
+        return NarseseParser.parseTerm(memory, s);
+    }
+    
+    /** parseTerm with the previous substring based parser, kept for comparing with NarseseParser */
+    public Term parseTermSubstrings(String s) throws InvalidInputException {
         s = s.trim();
         
         if (s.length() == 0) return null;
@@ -461,8 +479,8 @@ public class Narsese implements Serializable {
             throw new InvalidInputException("invalid statement: topRelation(s) < 0");
         }
         String relation = s.substring(i, i + 3);
-        Term subject = parseTerm(s.substring(0, i));
-        Term predicate = parseTerm(s.substring(i + 3));
+        Term subject = parseTermSubstrings(s.substring(0, i));
+        Term predicate = parseTermSubstrings(s.substring(i + 3));
         Statement t = make(getRelation(relation), subject, predicate, false, 0);
         if (t == null) {
             throw new InvalidInputException("invalid statement: statement unable to create: " + getOperator(relation) + " " + subject + " " + predicate);
@@ -534,7 +552,7 @@ public class Narsese implements Serializable {
             end = nextSeparator(s, start);
             if (end == start)
                 break;
-            t = parseTerm(s.substring(start, end));     // recursive call
+            t = parseTermSubstrings(s.substring(start, end));     // recursive call
             list.add(t);
             start = end + 1;
         }
@@ -0,0 +1,377 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.io;
+
+import java.util.ArrayList;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.Symbols.NativeOperator;
+import static nars.io.Symbols.ARGUMENT_SEPARATOR;
+import static nars.io.Symbols.BUDGET_VALUE_MARK;
+import static nars.io.Symbols.QUOTE;
+import static nars.io.Symbols.TRUTH_VALUE_MARK;
+import nars.language.Interval;
+import nars.language.SetExt;
+import nars.language.SetInt;
+import nars.language.Statement;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.language.Terms;
+import nars.language.Variable;
+import static nars.language.Variables.containVar;
+import nars.main.Parameters;
+import nars.operator.Operation;
+import nars.operator.Operator;
+import nars.storage.Memory;
+
+/**
+ * Single pass Narsese parser.
+ *
+ * A cursor moves once over the characters of the input and the Term tree is built
+ * while descending into compounds, sets and statements, instead of locating the
+ * top-level separators and relations of every substring first.
+ * Errors are reported with the position of the character where parsing failed.
+ *
+ * Accepts the same grammar as the substring parser of Narsese. An instance parses one input.
+ */
+public class NarseseParser {
+
+    private final Memory memory;
+    private final String s;
+    private int pos;
+    private int end;
+
+    private NarseseParser(final Memory memory, final String s) {
+        this.memory = memory;
+        this.s = s;
+        this.end = s.length();
+    }
+
+    /** parses a task, including its budget, truth and tense */
+    public static Task parseTask(final Memory memory, final String input) throws InvalidInputException {
+        return new NarseseParser(memory, escape(input)).task();
+    }
+
+    /** parses a term, returns null for an empty input */
+    public static Term parseTerm(final Memory memory, final String input) throws InvalidInputException {
+        NarseseParser p = new NarseseParser(memory, escape(input));
+        return p.content();
+    }
+
+    /** quoted ranges are escaped, which keeps the positions of all characters */
+    private static String escape(final String input) {
+        return (input.indexOf(QUOTE) == -1) ? input : Texts.escape(input).toString();
+    }
+
+    private InvalidInputException error(final int at, final String message) {
+        return new InvalidInputException(message + " at " + at, at);
+    }
+
+    private Task task() throws InvalidInputException {
+        //budget prefix
+        String budgetString = null;
+        if (end > 0 && s.charAt(0) == BUDGET_VALUE_MARK) {
+            final int close = s.indexOf(BUDGET_VALUE_MARK, 1);
+            if (close < 0) {
+                throw error(0, "missing budget closer");
+            }
+            budgetString = s.substring(1, close).trim();
+            if (budgetString.isEmpty()) {
+                throw error(1, "empty budget");
+            }
+            pos = close + 1;
+        }
+
+        //truth postfix
+        String truthString = null;
+        if (end > pos && s.charAt(end - 1) == TRUTH_VALUE_MARK) {
+            final int open = s.indexOf(TRUTH_VALUE_MARK, pos);
+            if (open == end - 1) {
+                throw error(open, "missing truth mark");
+            }
+            truthString = s.substring(open + 1, end - 1).trim();
+            if (truthString.isEmpty()) {
+                throw error(open + 1, "empty truth");
+            }
+            end = open;
+        }
+
+        //tense postfix, starting at the first tense mark
+        Tense tense = null;
+        final int tenseStart = s.indexOf(Symbols.TENSE_MARK, pos);
+        if (tenseStart > pos && tenseStart < end) {
+            tense = Tense.tense(s.substring(tenseStart, end).trim());
+            end = tenseStart;
+        }
+
+        while (end > pos && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end <= pos) {
+            throw error(pos, "missing punctuation");
+        }
+        final char punc = s.charAt(--end);
+
+        Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */,
+                tense, memory.newStampSerial(), memory.param.duration.get());
+
+        final TruthValue truth;
+        try {
+            truth = Narsese.parseTruth(truthString, punc);
+        } catch (NumberFormatException e) {
+            throw error(end, "invalid truth: " + truthString);
+        }
+
+        Term content = content();
+        if (content == null) {
+            throw error(pos, "Content term missing");
+        }
+
+        Sentence sentence = new Sentence(content, punc, truth, stamp);
+
+        final BudgetValue budget;
+        try {
+            budget = Narsese.parseBudget(budgetString, punc, truth);
+        } catch (NumberFormatException e) {
+            throw error(1, "invalid budget: " + budgetString);
+        }
+        return new Task(sentence, budget, true);
+    }
+
+    /** the term filling the remaining input, null if there is none */
+    private Term content() throws InvalidInputException {
+        skipSpace();
+        if (pos == end) {
+            return null;
+        }
+        final Term t = term();
+        skipSpace();
+        if (pos != end) {
+            throw error(pos, "unexpected '" + s.charAt(pos) + "'");
+        }
+        return t;
+    }
+
+    private void skipSpace() {
+        while (pos < end && s.charAt(pos) <= ' ') {
+            pos++;
+        }
+    }
+
+    /** the relation starting at i, or null */
+    private NativeOperator relationAt(final int i) {
+        if (i + 3 > end) {
+            return null;
+        }
+        final char c = s.charAt(i);
+        if (c != '-' && c != '<' && c != '=' && c != '{') {
+            return null;
+        }
+        return Symbols.getRelation(s.substring(i, i + 3));
+    }
+
+    private static boolean isBracket(final char c) {
+        switch (c) {
+            case '(': case ')':
+            case '[': case ']':
+            case '{': case '}':
+            case '<': case '>':
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isOpener(final char c) {
+        return c == '(' || c == '[' || c == '{' || c == '<';
+    }
+
+    /** moves the cursor behind the bracket group starting at the cursor */
+    private void skipGroup() throws InvalidInputException {
+        final int opener = pos;
+        int level = 0;
+        do {
+            if (pos >= end) {
+                throw error(opener, "missing closer of '" + s.charAt(opener) + "'");
+            }
+            if (relationAt(pos) != null) {
+                pos += 3;
+                continue;
+            }
+            final char c = s.charAt(pos++);
+            if (isOpener(c)) {
+                level++;
+            } else if (isBracket(c)) {
+                level--;
+            }
+        } while (level > 0);
+    }
+
+    private Term term() throws InvalidInputException {
+        skipSpace();
+        if (pos >= end) {
+            throw error(pos, "missing term");
+        }
+        final int start = pos;
+        switch (s.charAt(pos)) {
+            case '(':
+                pos++;
+                return compound(start);
+            case '{':
+                pos++;
+                return SetExt.make(arguments('}', start));
+            case '[':
+                pos++;
+                return SetInt.make(arguments(']', start));
+            case '<':
+                pos++;
+                return statement(start);
+            default:
+                return atom();
+        }
+    }
+
+    /** arguments up to the closer, a separator before the closer is allowed */
+    private ArrayList<Term> arguments(final char closer, final int opener) throws InvalidInputException {
+        final ArrayList<Term> list = new ArrayList<>();
+        while (true) {
+            skipSpace();
+            if (pos < end && s.charAt(pos) == closer && !list.isEmpty()) {
+                pos++;
+                return list;
+            }
+            list.add(term());
+            skipSpace();
+            if (pos >= end) {
+                throw error(opener, "missing closer '" + closer + "'");
+            }
+            final char c = s.charAt(pos++);
+            if (c == closer) {
+                return list;
+            }
+            if (c != ARGUMENT_SEPARATOR) {
+                throw error(pos - 1, "expected '" + ARGUMENT_SEPARATOR + "' or '" + closer + "'");
+            }
+        }
+    }
+
+    private Term compound(final int opener) throws InvalidInputException {
+        final int opStart = pos;
+        while (pos < end && s.charAt(pos) != ARGUMENT_SEPARATOR) {
+            if (s.charAt(pos) == ')') {
+                throw error(pos, "Invalid compound term (missing ARGUMENT_SEPARATOR)");
+            }
+            pos++;
+        }
+        if (pos >= end) {
+            throw error(opener, "missing CompoundTerm closer");
+        }
+        final String op = s.substring(opStart, pos).trim();
+        pos++;
+
+        final NativeOperator oNative = Symbols.getOperator(op);
+        final Operator oRegistered = memory.getOperator(op);
+        if ((oRegistered == null) && (oNative == null)) {
+            throw error(opStart, "Unknown operator: " + op);
+        }
+
+        final ArrayList<Term> arg = arguments(')', opener);
+        final Term[] argA = arg.toArray(new Term[arg.size()]);
+        if (oNative != null) {
+            return Terms.term(oNative, argA);
+        }
+        return Operation.make(oRegistered, argA, true);
+    }
+
+    private Statement statement(final int opener) throws InvalidInputException {
+        final Term subject = term();
+        skipSpace();
+        final NativeOperator relation = relationAt(pos);
+        if (relation == null) {
+            throw error(pos, "invalid statement: missing relation");
+        }
+        pos += 3;
+        final Term predicate = term();
+        skipSpace();
+        if (pos >= end || s.charAt(pos) != '>') {
+            throw error(pos < end ? pos : opener, "missing Statement closer");
+        }
+        pos++;
+        final Statement t = Statement.make(relation, subject, predicate, false, 0);
+        if (t == null) {
+            throw error(opener, "invalid statement: statement unable to create: " + relation + " " + subject + " " + predicate);
+        }
+        return t;
+    }
+
+    /**
+     * an atomic term, or an operation in functional format like op(a,b).
+     * Bracket groups after the first character belong to the name, like in M[0.5,-0.5]
+     */
+    private Term atom() throws InvalidInputException {
+        final int start = pos;
+        while (pos < end) {
+            final char c = s.charAt(pos);
+            if (c <= ' ' || c == ARGUMENT_SEPARATOR || relationAt(pos) != null) {
+                break;
+            }
+            if (isBracket(c)) {
+                if (pos == start || !isOpener(c) || (c == '(' && Parameters.FUNCTIONAL_OPERATIONAL_FORMAT)) {
+                    break;
+                }
+                skipGroup();
+                continue;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw error(pos, "missing term");
+        }
+        final String name = s.substring(start, pos);
+        if (name.indexOf(' ') != -1) { // invalid characters in a name
+            throw error(start, "invalid term");
+        }
+
+        if (Parameters.FUNCTIONAL_OPERATIONAL_FORMAT && pos < end && s.charAt(pos) == '(') {
+            final String operatorString = Operator.addPrefixIfMissing(name);
+            final Operator operator = memory.getOperator(operatorString);
+            if (operator == null) {
+                throw error(start, "Unknown operator: " + operatorString);
+            }
+            final int opener = pos++;
+            skipSpace();
+            final Term[] a;
+            if (pos < end && s.charAt(pos) == ')') {
+                //void "()" arguments, default to (SELF)
+                pos++;
+                a = Operation.SELF_TERM_ARRAY;
+            }
+            else {
+                final ArrayList<Term> args = arguments(')', opener);
+                a = args.toArray(new Term[args.size()]);
+            }
+            return Operation.make(operator, a, true);
+        }
+
+        final Operator op = memory.getOperator(name);
+        if (op != null) {
+            return op;
+        }
+        if (name.charAt(0) == Symbols.INTERVAL_PREFIX) {
+            try {
+                return Interval.interval(name);
+            } catch (NumberFormatException e) {
+                throw error(start, "invalid interval: " + name);
+            }
+        }
+        if (containVar(name) && !name.equals("#")) {
+            return new Variable(name);
+        }
+        return Term.get(name);
+    }
+}
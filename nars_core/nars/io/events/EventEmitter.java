@@ -2,15 +2,15 @@
 package nars.io.events;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Adapted from http://www.recursiverobot.com/post/86215392884/witness-a-simple-android-and-java-event-emitter
- * TODO separate this into a single-thread and multithread implementation
+ * 
+ * Event classes are resolved to an integer id indexing copy-on-write arrays of observers.
+ * The fixed arity emit methods return before building the arguments when nobody observes.
  */
 public class EventEmitter {
 
@@ -20,42 +20,60 @@ public class EventEmitter {
         public void event(Class<? extends C> event, Object[] args);
     }
 
-    private final Map<Class<?>, List<EventObserver>> events;
+    /** ids of the event classes, shared by all emitters */
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override protected Integer computeValue(final Class<?> type) {
+            return nextId.getAndIncrement();
+        }
+    };
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * The observers of each event by its id, null for events which were never observed.
+     * Both levels are copied when changed, so emitting reads them without locking.
+     */
+    private volatile EventObserver[][] observers = new EventObserver[0][];
             
     
     private Deque<Object[]> pendingOps = new ArrayDeque();
     
-    /** EventEmitter that allows unknown events; must use concurrent collection
-     *  for multithreading since new event classes may be added at any time.
-     */
+    /** EventEmitter that allows unknown events */
     public EventEmitter() {
-        /*if (Parameters.THREADS > 1)
-            events = new ConcurrentHashMap<>();
-        else*/
-            //events = new HashMap<>();
-        events = new HashMap<>();
     }
 
-    /** EventEmitter with a fixed set of known events; the 'events' map
-     *  can then be made unmodifiable and non-concurrent for speed.    */
+    /** EventEmitter with a fixed set of known events, which can be turned off before being observed */
     public EventEmitter(Class... knownEventClasses) {
-        events = new HashMap(knownEventClasses.length);
         for (Class c : knownEventClasses) {
-            events.put(c, newObserverList());
+            set(id(c), new EventObserver[0]);
         }
     }
 
-    protected List<EventObserver> newObserverList() {
-        return new ArrayList();
-        /*return Parameters.THREADS == 1 ? 
-                new ArrayList() : Collections.synchronizedList(new ArrayList());*/
+    /** the id of an event class, the same for all emitters */
+    public static int id(final Class<?> event) {
+        return ids.get(event);
     }
-    
+
+    /** the observers of the event, null if there are none */
+    private EventObserver[] observers(final Class<?> event) {
+        final EventObserver[][] all = observers;
+        final int id = id(event);
+        if (id >= all.length) {
+            return null;
+        }
+        final EventObserver[] o = all[id];
+        return (o == null || o.length == 0) ? null : o;
+    }
+
+    private synchronized void set(final int id, final EventObserver[] o) {
+        final EventObserver[][] all = Arrays.copyOf(observers, Math.max(observers.length, id + 1));
+        all[id] = o;
+        observers = all;
+    }
+
     public final boolean isActive(final Class event) {
-        if (events.get(event)!=null)
-            if (!events.get(event).isEmpty())
-                return true;
-        return false;
+        return observers(event) != null;
     }
     
     //apply pending on/off changes when synchronizing, ex: in-between memory cycles
@@ -76,14 +94,16 @@ public class EventEmitter {
             pendingOps.clear();
         }
     }  
-    public void on(final Class<?> event, final EventObserver o) {
-        if (events.containsKey(event))
-            events.get(event).add(o);
-        else {
-            List<EventObserver> a = newObserverList();
-            a.add(o);
-            events.put(event, a);
-        }       
+    public synchronized void on(final Class<?> event, final EventObserver o) {
+        final int id = id(event);
+        final EventObserver[] old = id < observers.length ? observers[id] : null;
+        if (old == null) {
+            set(id, new EventObserver[] { o });
+        } else {
+            final EventObserver[] a = Arrays.copyOf(old, old.length + 1);
+            a[old.length] = o;
+            set(id, a);
+        }
     }
  
     /**
@@ -91,16 +111,24 @@ public class EventEmitter {
      * @param o
      * @return  whether it was removed
      */
-    public void off(final Class<?> event, final EventObserver o) {
+    public synchronized void off(final Class<?> event, final EventObserver o) {
         if (null == event || null == o)
             throw new RuntimeException("Invalid parameter");
  
-        if (!events.containsKey(event))
+        final int id = id(event);
+        final EventObserver[] old = id < observers.length ? observers[id] : null;
+        if (old == null)
             throw new RuntimeException("Unknown event: " + event);
         
-        try {
-        events.get(event).remove(o);
-        } catch(Exception ex) { }
+        for (int i = 0; i < old.length; i++) {
+            if (old[i].equals(o)) {
+                final EventObserver[] a = new EventObserver[old.length - 1];
+                System.arraycopy(old, 0, a, 0, i);
+                System.arraycopy(old, i + 1, a, i, a.length - i);
+                set(id, a);
+                return;
+            }
+        }
         /*if (!removed) {
             throw new RuntimeException("EventObserver " + o + " was not registered for events");
         }*/        
@@ -118,17 +146,54 @@ public class EventEmitter {
     
 
     public void emit(final Class eventClass, final Object... params) {
-        List<EventObserver> observers = events.get(eventClass);
-        
-        if ((observers == null) || (observers.isEmpty())) return;
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, params);
+        }
+    }
+
+    /* Fixed arities, which do not allocate the arguments when the event is not observed */
+    
+    public void emit(final Class eventClass) {
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, NO_ARGS);
+        }
+    }
+
+    public void emit(final Class eventClass, final Object a) {
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, new Object[] { a });
+        }
+    }
+
+    public void emit(final Class eventClass, final Object a, final Object b) {
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, new Object[] { a, b });
+        }
+    }
+
+    public void emit(final Class eventClass, final Object a, final Object b, final Object c) {
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, new Object[] { a, b, c });
+        }
+    }
 
-        int n = observers.size();
-        for (int i = 0; i < n; i++) {
+    public void emit(final Class eventClass, final Object a, final Object b, final Object c, final Object d) {
+        final EventObserver[] o = observers(eventClass);
+        if (o != null) {
+            dispatch(o, eventClass, new Object[] { a, b, c, d });
+        }
+    }
+
+    private static void dispatch(final EventObserver[] observers, final Class eventClass, final Object[] params) {
+        for (final EventObserver m : observers) {
             try{
-            EventObserver m = observers.get(i);
             m.event(eventClass, params);
             }catch(Exception ex){}
         }
-        
     }
-}
\ No newline at end of file
+}
@@ -24,6 +24,9 @@ public class Events {
     
     /** fired at the end of each memory cycle */
     public static class CycleEnd {     }
+    
+    /** fired at the end of each memory cycle with the CycleProfiler.Snapshot of the cycle; profiling is only active while this is observed */
+    public static class CycleProfile {     }
 
     /** fired at the beginning of each individual Memory work cycle */
     public static class WorkCycleStart {
@@ -0,0 +1,229 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.io.events;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves the formatting and writing of output events off the inference thread.
+ *
+ * Events are published with the time they were emitted into a bounded ring buffer;
+ * a daemon thread takes them out in batches and passes them to the Sink, which is
+ * flushed once per batch. When the buffer is full the Overflow policy decides whether
+ * the new event is dropped, the oldest one is dropped, or the publisher waits.
+ */
+public class OutputStage {
+
+    public enum Overflow {
+        /** drop the event being published */
+        DROP_NEWEST,
+        /** drop the oldest event in the buffer to make room */
+        DROP_OLDEST,
+        /** block the publisher until there is room, nothing is dropped */
+        BLOCK
+    }
+
+    /** Formats and writes events on the thread of the stage */
+    public interface Sink {
+        public void write(Class channel, Object signal, long time);
+        /** called after each batch */
+        public void flush();
+    }
+
+    private final Sink sink;
+    private final Overflow overflow;
+    private final int batch;
+
+    private final Class[] channels;
+    private final Object[] signals;
+    private final long[] times;
+    private final int mask;
+    /** sequence numbers of the next event to take and to publish */
+    private long head, tail;
+    /** whether the thread is writing a batch */
+    private boolean writing;
+
+    private long published, dropped;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param batch maximum number of events written between flushes
+     */
+    public OutputStage(final Sink sink, final int capacity, final Overflow overflow, final int batch) {
+        this.sink = sink;
+        this.overflow = overflow;
+        this.batch = Math.max(1, batch);
+        final int n = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.channels = new Class[n];
+        this.signals = new Object[n];
+        this.times = new long[n];
+        this.mask = n - 1;
+        this.thread = new Thread(this::run, "Output");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** queues an event, returns false if it or an older one was dropped */
+    public boolean publish(final Class channel, final Object signal, final long time) {
+        lock.lock();
+        try {
+            if (closed) {
+                dropped++;
+                return false;
+            }
+            boolean complete = true;
+            while (tail - head > mask) {
+                if (overflow == Overflow.DROP_NEWEST) {
+                    dropped++;
+                    return false;
+                } else if (overflow == Overflow.DROP_OLDEST) {
+                    clear((int) head & mask);
+                    head++;
+                    dropped++;
+                    complete = false;
+                } else {
+                    notFull.awaitUninterruptibly();
+                    //closed while waiting, the thread may already have written the last batch
+                    if (closed) {
+                        dropped++;
+                        return false;
+                    }
+                }
+            }
+            final int i = (int) tail & mask;
+            channels[i] = channel;
+            signals[i] = signal;
+            times[i] = time;
+            if (tail++ == head) {
+                notEmpty.signal();
+            }
+            published++;
+            return complete;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void clear(final int i) {
+        channels[i] = null;
+        signals[i] = null;
+    }
+
+    private void run() {
+        final Class[] c = new Class[batch];
+        final Object[] s = new Object[batch];
+        final long[] t = new long[batch];
+        while (true) {
+            int n = 0;
+            lock.lock();
+            try {
+                while (head == tail) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                while (head != tail && n < batch) {
+                    final int i = (int) head & mask;
+                    c[n] = channels[i];
+                    s[n] = signals[i];
+                    t[n] = times[i];
+                    clear(i);
+                    head++;
+                    n++;
+                }
+                writing = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                for (int i = 0; i < n; i++) {
+                    sink.write(c[i], s[i], t[i]);
+                    s[i] = null;
+                }
+                sink.flush();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            lock.lock();
+            try {
+                writing = false;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** waits until the events published so far are written */
+    public void flush() {
+        lock.lock();
+        try {
+            final long target = tail;
+            while ((head < target || writing) && thread.isAlive()) {
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** writes the remaining events and stops the thread */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** number of events published, including the ones dropped later by DROP_OLDEST */
+    public long getPublished() {
+        lock.lock();
+        try {
+            return published;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** number of events dropped because the buffer was full or the stage closed */
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** number of events waiting to be written */
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.io.StringWriter;
 import java.util.Arrays;
 import nars.io.events.Events.Answer;
 import nars.main.NAR;
+import nars.main.Parameters;
 import nars.entity.Sentence;
 import nars.entity.Task;
 import nars.io.events.OutputHandler.ECHO;
@@ -55,6 +56,8 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
     private boolean showStamp = true;
     private boolean showInput = true;
     private float minPriority = 0;
+    /** formats and writes the output on its own thread if set */
+    private OutputStage stage;
 
     public interface LineOutput {
         public void println(String s);
@@ -107,6 +110,9 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
      * Close an output experience file
      */
     public void closeSaveFile() {
+        if (stage != null) {
+            stage.flush();
+        }
         outExp.close();
         setActive(false);
     }
@@ -126,15 +132,26 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
         
         if ((outExp!=null) || (outExp2!=null)) {
             Object o = oo[0];
-            final String s = process(channel, o);
-            if (s!=null) {
-                if (outExp != null) {
-                    outExp.println(prefix + s);
-                    outExp.flush();
-                }
-                if (outExp2 != null) {
-                    outExp2.println(prefix + s);            
-                }
+            if (stage != null) {
+                stage.publish(channel, o, nar.time());
+                return;
+            }
+            print(channel, o, nar.time());
+            if (outExp != null) {
+                outExp.flush();
+            }
+        }
+    }
+    
+    /** formats and writes one output line, without flushing */
+    private void print(final Class channel, final Object o, final long time) {
+        final String s = process(channel, o, time);
+        if (s!=null) {
+            if (outExp != null) {
+                outExp.println(prefix + s);
+            }
+            if (outExp2 != null) {
+                outExp2.println(prefix + s);            
             }
         }
     }
@@ -142,7 +159,51 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
     final StringBuilder result = new StringBuilder(16 /* estimate */);
     
     public String process(final Class c, final Object o) {
-        return getOutputString(c, o, true, showStamp, nar, result, minPriority);
+        return process(c, o, nar.time());
+    }
+    
+    public String process(final Class c, final Object o, final long time) {
+        return getOutputString(c, o, true, showStamp, nar, result, minPriority, time);
+    }
+    
+    /**
+     * Formats and writes the output on a separate thread, so that a slow output does not
+     * stall the reasoner. Tenses are still shown relative to the time of the output.
+     * Tasks are formatted when they are written, a later change of their budget or
+     * best solution may show.
+     *
+     * @param capacity number of buffered outputs
+     * @param overflow what to do when the buffer is full
+     */
+    public synchronized TextOutputHandler setAsync(final int capacity, final OutputStage.Overflow overflow) {
+        if (stage != null) {
+            stage.close();
+        }
+        stage = new OutputStage(new OutputStage.Sink() {
+            @Override public void write(final Class channel, final Object signal, final long time) {
+                print(channel, signal, time);
+            }
+            @Override public void flush() {
+                if (outExp != null) {
+                    outExp.flush();
+                }
+            }
+        }, capacity, overflow, Parameters.OUTPUT_BATCH);
+        return this;
+    }
+    
+    /** writes the buffered output and goes back to writing on the emitting thread */
+    public synchronized TextOutputHandler setSync() {
+        if (stage != null) {
+            stage.close();
+            stage = null;
+        }
+        return this;
+    }
+    
+    /** the asynchronous stage with its counters of published and dropped lines, or null */
+    public OutputStage getStage() {
+        return stage;
     }
 
     public TextOutputHandler setErrors(boolean errors) {
@@ -171,6 +232,11 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
             
     /** generates a human-readable string from an output channel and signal */
     public static String getOutputString(final Class channel, Object signal, final boolean showChannel, final boolean showStamp, final NAR nar, final StringBuilder buffer, float minPriority) {
+        return getOutputString(channel, signal, showChannel, showStamp, nar, buffer, minPriority, nar.time());
+    }
+    
+    /** generates a human-readable string from an output channel and signal, with tenses relative to the time */
+    public static String getOutputString(final Class channel, Object signal, final boolean showChannel, final boolean showStamp, final NAR nar, final StringBuilder buffer, float minPriority, final long time) {
         buffer.setLength(0);
         
         if (showChannel)
@@ -201,21 +267,22 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
                 Task t = (Task)signal;                
                 if (t.getPriority() < minPriority)
                     return null;
+                final int duration = nar.memory.param.duration.get();
                 
                 if((channel == ANTICIPATE.class) || (channel == DISAPPOINT.class)) {
-                    buffer.append(t.sentence.toString(nar, showStamp));  
+                    buffer.append(t.sentence.toString(time, duration, showStamp));  
                 }
                 else
                 if (channel == Answer.class) {
                     Task task = t; //server / NARRun
                     Sentence answer = task.getBestSolution();
                     if(answer!=null)
-                        buffer.append(answer.toString(nar, showStamp));
+                        buffer.append(answer.toString(time, duration, showStamp));
                     else
-                        buffer.append(t.sentence.toString(nar, showStamp));  
+                        buffer.append(t.sentence.toString(time, duration, showStamp));  
                 }
                 else            
-                    buffer.append(t.sentence.toString(nar, showStamp));         
+                    buffer.append(t.sentence.toString(time, duration, showStamp));         
             } else {
                 buffer.append(signal.toString());
             }
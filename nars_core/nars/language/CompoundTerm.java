@@ -168,6 +168,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     public void invalidateName() {        
         this.name = null; //invalidate name so it will be (re-)created lazily        
+        this.hash = 0;
         for (Term t : term) {
             if (t.hasVar())
                 if (t instanceof CompoundTerm)
@@ -181,7 +182,18 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     @Override
     public CompoundTerm cloneDeep() {
-        Term c = clone(cloneTermsDeep());
+        Term c;
+        if (Parameters.TERM_INTERNING) {
+            //the copy may be modified in place, so it must not be shared
+            Terms.suspendInterning();
+            try {
+                c = clone(cloneTermsDeep());
+            } finally {
+                Terms.resumeInterning();
+            }
+        } else {
+            c = clone(cloneTermsDeep());
+        }
         if (c == null)
             throw new UnableToCloneException("Unable to cloneDeep: " + this);
         
@@ -223,7 +235,8 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     }
 
     public static Term replaceIntervals(Term T) {
-        if(T instanceof CompoundTerm) {
+        //with interning, constant terms without intervals stay the same instance, which keeps interned terms canonical
+        if(T instanceof CompoundTerm && (!Parameters.TERM_INTERNING || T.hasInterval() || T.hasVar())) {
             T=T.cloneDeep(); //we will operate on a copy
             ReplaceIntervals((CompoundTerm) T);
         }
@@ -749,39 +762,29 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             return name().hashCode();
         }
         else {
+            if (hash == 0) {
+                hash = structuralHash();
+            }
             return hash;
         }
     }
+    
+    /** hash from the operator and the component hashes, without building the name */
+    protected int structuralHash() {
+        int h = operator().ordinal();
+        h = 31 * h + getTemporalOrder();
+        for (final Term t : term) {
+            //variables hash their scope, which may be this term
+            h = 31 * h + ((t instanceof Variable) ? t.name().hashCode() : t.hashCode());
+        }
+        return (h == 0) ? 1 : h;
+    }
 
+    /** orders by name, since the order of commutative components is part of the name */
     @Override
     public int compareTo(final AbstractTerm that) {
         if (that==this) return 0;
-        
-        if (Parameters.TERM_ELEMENT_EQUIVALENCY) {
-            if (that instanceof CompoundTerm) {
-                CompoundTerm t = (CompoundTerm)that;
-
-                int h = Integer.compare(hashCode(), t.hashCode());
-                if (h != 0) return h;
-
-                int o = operator().compareTo(t.operator());
-                if (o != 0) return o;
-
-                //same operator
-                int c = Integer.compare(getComplexity(), t.getComplexity());
-                if (c!=0) return c;
-
-                //should almost never reach here, the hashcode above will handle > 99% of comparisons
-                if (!equals(that)) {
-                    return Integer.compare(System.identityHashCode(this), System.identityHashCode(that));
-                }
-                return 0;
-            }
-            else
-                return super.compareTo(that);
-        }
-        return
-                super.compareTo(that);
+        return super.compareTo(that);
     }
     
     @Override
@@ -804,6 +807,9 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
 
         if (getComplexity()!= t.getComplexity())
             return false;
+        
+        if (hashCode() != t.hashCode())
+            return false;
 
         if (getTemporalOrder() != t.getTemporalOrder())
             return false;
@@ -818,7 +824,13 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             return false;
 
         for (int i = 0; i < term.length; i++) {            
-            if (!term[i].equals(t.term[i]))
+            final Term a = term[i], b = t.term[i];
+            if ((a instanceof Variable) && (b instanceof Variable)) {
+                //variables of both terms are scoped by the terms being compared
+                if (!a.name().equals(b.name()))
+                    return false;
+            }
+            else if (!a.equals(b))
                 return false;
         }
 
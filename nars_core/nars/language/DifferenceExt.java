@@ -81,7 +81,7 @@ public class DifferenceExt extends CompoundTerm {
             return null;
         }
         
-        return new DifferenceExt(arg);
+        return Terms.intern(new DifferenceExt(arg));
     }
 
     /**
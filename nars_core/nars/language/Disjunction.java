@@ -99,7 +99,7 @@ public class Disjunction extends CompoundTerm {
             return t[0];
         }                         
         
-        return new Disjunction(t);
+        return Terms.intern(new Disjunction(t));
     }
     
     /**
@@ -123,7 +123,7 @@ public class Equivalence extends Statement {
        
         if (t.length != 2)
             return null;        
-        return new Equivalence(t, temporalOrder);
+        return Terms.intern(new Equivalence(t, temporalOrder));
     }
 
     /**
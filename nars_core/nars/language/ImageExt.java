@@ -84,7 +84,7 @@ public class ImageExt extends Image {
             }
             n++;
         }
-        return new ImageExt(argument, (short) index);
+        return Terms.intern(new ImageExt(argument, (short) index));
     }
 
     /**
@@ -108,7 +108,7 @@ public class ImageExt extends Image {
         }
         Term[] argument = product.cloneTerms(); //TODO is this clone needed?
         argument[index] = relation;
-        return new ImageExt(argument, index);
+        return Terms.intern(new ImageExt(argument, index));
     }
 
     /**
@@ -124,7 +124,7 @@ public class ImageExt extends Image {
         Term relation = argList[oldIndex];
         argList[oldIndex] = component;
         argList[index] = relation;
-        return new ImageExt(argList, index);
+        return Terms.intern(new ImageExt(argList, index));
     }
 
 
@@ -138,7 +138,7 @@ public class ImageInt extends Image {
      * @return the Term generated from the arguments
      */
     public static ImageInt make(final Term[] argument, final short index) {        
-        return new ImageInt(argument, index);
+        return Terms.intern(new ImageInt(argument, index));
     }
     
 
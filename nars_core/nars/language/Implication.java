@@ -121,7 +121,7 @@ public class Implication extends Statement {
             final Term newCondition = Conjunction.make(subject, oldCondition, order, spatial);
             return make(newCondition, ((Statement) predicate).getPredicate(), temporalOrder);
         } else {
-            return new Implication(new Term[] { subject, predicate }, temporalOrder);
+            return Terms.intern(new Implication(new Term[] { subject, predicate }, temporalOrder));
         }
     }
 
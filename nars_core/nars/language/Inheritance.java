@@ -94,7 +94,7 @@ public class Inheritance extends Statement {
             //name = Operation.makeName(predicate.name(), ((CompoundTerm) subject).term);
             return Operation.make((Operator)predicate, ((CompoundTerm)subject).term, true);
         } else {            
-            return new Inheritance(subject, predicate);
+            return Terms.intern(new Inheritance(subject, predicate));
         }
          
     }
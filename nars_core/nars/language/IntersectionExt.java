@@ -117,7 +117,7 @@ public class IntersectionExt extends CompoundTerm {
             case 0: return null;
             case 1: return t[0];
             default:
-               return new IntersectionExt(t); 
+               return Terms.intern(new IntersectionExt(t)); 
         }
     }
     
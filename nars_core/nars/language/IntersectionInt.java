@@ -125,7 +125,7 @@ public class IntersectionInt extends CompoundTerm {
             case 0: return null;
             case 1: return t[0];
             default:
-               return new IntersectionInt(t); 
+               return Terms.intern(new IntersectionInt(t)); 
         }
     }
     
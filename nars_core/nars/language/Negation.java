@@ -73,7 +73,7 @@ public class Negation extends CompoundTerm {
             // (--,(--,P)) = P
             return ((Negation) t).term[0];
         }         
-        return new Negation(t);
+        return Terms.intern(new Negation(t));
     }
 
     /**
@@ -45,7 +45,7 @@ public class Product extends CompoundTerm {
     }
     
     public static Product make(final Term... arg) {
-        return new Product(arg);
+        return Terms.intern(new Product(arg));
     }   
     
     /**
@@ -76,7 +76,7 @@ public class Product extends CompoundTerm {
     public static Term make(final CompoundTerm image, final Term component, final int index) {
         Term[] argument = image.cloneTerms();
         argument[index] = component;
-        return new Product(argument);
+        return Terms.intern(new Product(argument));
     }
     
     /**
@@ -58,7 +58,7 @@ public class SetExt extends SetTensional {
     public static SetExt make(Term... t) {
         t = Term.toSortedSetArray(t);
         if (t.length == 0) return null;
-        return new SetExt(t);
+        return Terms.intern(new SetExt(t));
     }
 
     public static SetExt make(Collection<Term> l) {
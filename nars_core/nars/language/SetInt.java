@@ -62,7 +62,7 @@ public class SetInt extends SetTensional {
     public static SetInt make(Term... t) {
         t = Term.toSortedSetArray(t);
         if (t.length == 0) return null;
-        return new SetInt(t);
+        return Terms.intern(new SetInt(t));
     }
 
     /**
@@ -22,6 +22,7 @@ package nars.language;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nars.storage.Memory;
 import nars.main.Parameters;
@@ -43,7 +44,8 @@ import nars.operator.Operator;
  */
 public class Term implements AbstractTerm, Serializable {
     public ImaginationSpace imagination;
-    private static final Map<CharSequence,Term> atoms = new HashMap();
+    /** atomic terms interned for all NARs, concurrent so that NARs on different threads do not contend for a lock */
+    private static final Map<CharSequence,Term> atoms = new ConcurrentHashMap();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -138,9 +140,12 @@ public class Term implements AbstractTerm, Serializable {
         x = new Term(name2);
         x.term_indices = term_indices;
         x.index_variable = before_indices_str;
-        atoms.put(name2, x);
-        
-        return x;
+        if(term_indices != null) {
+            atoms.put(name2, x);
+            return x;
+        }
+        final Term interned = atoms.putIfAbsent(name2, x);
+        return interned != null ? interned : x;
     }
     
     /** gets the atomic term of an integer */
@@ -279,25 +284,12 @@ public class Term implements AbstractTerm, Serializable {
     public int compareTo(final AbstractTerm that) {
         if (that==this) return 0;
         
-        if (Parameters.TERM_ELEMENT_EQUIVALENCY) {
-            if (!getClass().equals(that.getClass())) {
-                //differnt class, use class as ordering
-                return getClass().getSimpleName().compareTo(that.getClass().getSimpleName());
-            }
-            else {
-                //same class, compare by name()
-                return Texts.compareTo(name(), that.name());
-            }
-
-        }
-        else {
-            //previously: Orders among terms: variable < atomic < compound
-            if ((that instanceof Variable) && (getClass()!=Variable.class))
-                return 1;
-            else if ((this instanceof Variable) && (that.getClass()!=Variable.class))
-                return -1;
-            return Texts.compareTo(name(), that.name());            
-        }
+        //Orders among terms: variable < atomic < compound
+        if ((that instanceof Variable) && (getClass()!=Variable.class))
+            return 1;
+        else if ((this instanceof Variable) && (that.getClass()!=Variable.class))
+            return -1;
+        return Texts.compareTo(name(), that.name());            
     }
 
     
@@ -11,12 +11,42 @@ import nars.entity.Sentence;
 import nars.entity.TermLink;
 import nars.inference.TemporalRules;
 import nars.io.Symbols;
+import nars.main.Parameters;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * Static utility class for static methods related to Terms
  * @author me
  */
 public class Terms {
+    
+    /** canonical instances of compound terms, weakly referenced so unused ones can be collected */
+    private static final Interner<Term> canonical = Interners.newWeakInterner();
+    
+    /** per thread nesting depth of suspendInterning calls */
+    private static final ThreadLocal<int[]> suspended = ThreadLocal.withInitial(() -> new int[1]);
+    
+    /**
+     * Returns the canonical instance of a compound term if Parameters.TERM_INTERNING is enabled.
+     * Terms with variables are not interned since Sentence renames their variables in place.
+     */
+    public static <T extends Term> T intern(final T t) {
+        if (!Parameters.TERM_INTERNING || !(t instanceof CompoundTerm) || t.hasVar() || suspended.get()[0] > 0) {
+            return t;
+        }
+        final Term c = canonical.intern(t);
+        return (c.getClass() == t.getClass()) ? (T)c : t;
+    }
+    
+    /** terms made until resumeInterning are private copies, for callers which modify them in place */
+    public static void suspendInterning() {
+        suspended.get()[0]++;
+    }
+    
+    public static void resumeInterning() {
+        suspended.get()[0]--;
+    }
 
     public static boolean equalSubTermsInRespectToImageAndProduct(final Term a, final Term b) {
         if (a == null || b == null) {
@@ -106,7 +136,7 @@ public class Terms {
      */
     public static Term term(final CompoundTerm compound, final Term[] components) {
         if (compound instanceof ImageExt) {
-            return new ImageExt(components, ((Image) compound).relationIndex);
+            return Terms.intern(new ImageExt(components, ((Image) compound).relationIndex));
         } else if (compound instanceof ImageInt) {
             return ImageInt.make(components, ((Image) compound).relationIndex);
         } else {
@@ -148,7 +178,7 @@ public class Terms {
             case INHERITANCE:
                 return Inheritance.make(a[0], a[1]);
             case PRODUCT:
-                return new Product(a);
+                return Terms.intern(new Product(a));
             case IMAGE_EXT:
                 return ImageExt.make(a);
             case IMAGE_INT:
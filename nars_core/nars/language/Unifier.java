@@ -0,0 +1,362 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.language;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import nars.inference.TemporalRules;
+import nars.io.Symbols;
+import nars.storage.Memory;
+
+/**
+ * Unification of two terms with the bindings kept on a trail.
+ *
+ * A binding of a variable of one of the two terms (side 0 for the first, 1 for the second)
+ * is pushed on the trail, and a later binding of the same variable shadows the earlier one.
+ * Backtracking after a failed attempt pops the trail back to a mark, instead of unifying
+ * on copies of the substitution maps. The substitution of a side is then applied by
+ * rebuilding only the components which contain a bound variable.
+ *
+ * An instance is reused for many unifications but is not thread-safe.
+ */
+public final class Unifier {
+
+    private Term[] keys = new Term[16];
+    private Term[] values = new Term[16];
+    private byte[] sides = new byte[16];
+    private int size;
+    private final int[] bound = new int[2];
+
+    /** bindings in [hiddenFrom, hiddenTo) are not visible to get */
+    private int hiddenFrom, hiddenTo;
+
+    /** removes all bindings */
+    public Unifier clear() {
+        undo(0);
+        hiddenFrom = hiddenTo = 0;
+        return this;
+    }
+
+    /** the current position of the trail, to undo the bindings made after it */
+    public int mark() {
+        return size;
+    }
+
+    /** removes the bindings made after the mark */
+    public void undo(final int mark) {
+        for (int i = mark; i < size; i++) {
+            bound[sides[i]]--;
+        }
+        Arrays.fill(keys, mark, size, null);
+        Arrays.fill(values, mark, size, null);
+        size = mark;
+    }
+
+    public void bind(final int side, final Term variable, final Term value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            sides = Arrays.copyOf(sides, size * 2);
+        }
+        keys[size] = variable;
+        values[size] = value;
+        sides[size] = (byte) side;
+        bound[side]++;
+        size++;
+    }
+
+    /** the latest binding of a variable, null if it is not bound */
+    public Term get(final int side, final Term variable) {
+        if (!(variable instanceof Variable)) {
+            return null;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (i < hiddenTo && i >= hiddenFrom) {
+                i = hiddenFrom;
+                continue;
+            }
+            if (sides[i] == side && variable.equals(keys[i])) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /** whether a variable of this side is bound */
+    public boolean isEmpty(final int side) {
+        return bound[side] == 0;
+    }
+
+    /** adds the entries of the maps as bindings, the maps may be null */
+    public void load(final Map<Term, Term>[] map) {
+        for (int side = 0; side < 2; side++) {
+            if (map[side] != null) {
+                for (final Map.Entry<Term, Term> e : map[side].entrySet()) {
+                    bind(side, e.getKey(), e.getValue());
+                }
+            }
+        }
+    }
+
+    /** puts the bindings into the maps, which are created if needed */
+    public void save(final Map<Term, Term>[] map) {
+        for (int i = 0; i < size; i++) {
+            if (map[sides[i]] == null) {
+                map[sides[i]] = new HashMap<>();
+            }
+            map[sides[i]].put(keys[i], values[i]);
+        }
+    }
+
+    /** the substitution of a side as a map */
+    public Map<Term, Term> toMap(final int side) {
+        final Map<Term, Term> m = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (sides[i] == side) {
+                m.put(keys[i], values[i]);
+            }
+        }
+        return m;
+    }
+
+    public boolean unify(final char type, final Term term1, final Term term2) {
+        return unify(type, term1, term2, false);
+    }
+
+    /**
+     * Finds a substitution which makes the two terms equal and adds it to the bindings.
+     * When it fails, the bindings made so far are kept, to be undone by the caller.
+     *
+     * @param type The type of variable that can be substituted
+     * @param allowPartial Whether a forward conjunction may match a part of a longer one
+     */
+    public boolean unify(final char type, final Term term1, final Term term2, final boolean allowPartial) {
+
+        boolean term1HasVar = term1.hasVar(type);
+        if(type == Symbols.VAR_INDEPENDENT) {
+            term1HasVar |= term1.hasVarDep();
+            term1HasVar |= term1.hasVarQuery();
+        }
+        if(type == Symbols.VAR_DEPENDENT) {
+            term1HasVar |= term1.hasVarQuery();
+        }
+        final boolean term2HasVar = term2.hasVar(type);
+
+        final boolean term1Var = term1 instanceof Variable;
+        final boolean term2Var = term2 instanceof Variable;
+
+        if(allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction) {
+            final Conjunction c1 = (Conjunction) term1;
+            final Conjunction c2 = (Conjunction) term2;
+            //more effective matching for NLP
+            if(c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD &&
+                    c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD && c1.size() < c2.size()) {
+                if (unifyPartial(type, c1, c2)) {
+                    return true;
+                }
+            }
+        }
+
+        final boolean termsEqual = term1.equals(term2);
+        if (!term1Var && !term2Var && termsEqual)  {
+            return true;
+        }
+
+        //variable "renaming" to variable of same type is always valid
+        if(term1Var && term2Var) {
+            final Variable v1 = (Variable) term1;
+            final Variable v2 = (Variable) term2;
+            if(v1.getType() == v2.getType()) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                bind(0, v1, commonVar);
+                bind(1, v2, commonVar);
+                return true;
+            }
+        }
+        if (term1Var && Variables.allowUnification(((Variable) term1).getType(), type)) {
+            final Variable var1 = (Variable) term1;
+            final Term t = get(0, var1);
+
+            if (t != null) {
+                return unify(type, t, term2);
+            }
+            if ((term2Var) && Variables.allowUnification(((Variable) term2).getType(), type)) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                bind(0, var1, commonVar);
+                bind(1, term2, commonVar);
+            } else {
+                if(term2Var && ((((Variable)term2).getType()==Symbols.VAR_QUERY && var1.getType()!=Symbols.VAR_QUERY) ||
+                                (((Variable)term2).getType()!=Symbols.VAR_QUERY && var1.getType()==Symbols.VAR_QUERY))) {
+                    return false;
+                }
+                bind(0, var1, term2);
+                if (var1.isCommon()) {
+                    bind(1, var1, term2);
+                }
+            }
+            return true;
+        } else if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+            final Variable var2 = (Variable) term2;
+            final Term t = get(1, var2);
+
+            if (t != null) {
+                return unify(type, term1, t);
+            }
+            bind(1, var2, term1);
+            if (var2.isCommon()) {
+                bind(0, var2, term1);
+            }
+            return true;
+        } else if ((term1HasVar || term2HasVar) && (term1 instanceof CompoundTerm) && term1.getClass().equals(term2.getClass())) {
+            final CompoundTerm cTerm1 = (CompoundTerm) term1;
+            final CompoundTerm cTerm2 = (CompoundTerm) term2;
+
+            //consider temporal order on term matching
+            if(term1 instanceof Conjunction) {
+                if(((Conjunction)term1).getTemporalOrder() != ((Conjunction)term2).getTemporalOrder() ||
+                   ((Conjunction)term1).getIsSpatial() != ((Conjunction)term2).getIsSpatial())
+                    return false;
+            }
+            if(term1 instanceof Implication) {
+                if(((Implication)term1).getTemporalOrder() != ((Implication)term2).getTemporalOrder())
+                    return false;
+            }
+            if(term1 instanceof Equivalence) {
+                if(((Equivalence)term1).getTemporalOrder() != ((Equivalence)term2).getTemporalOrder())
+                    return false;
+            }
+
+            if (cTerm1.size() != cTerm2.size()) {
+                return false;
+            }
+            if ((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex) || (cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex)) {
+                return false;
+            }
+            if (cTerm1.isCommutative()) {
+                return unifyCommutative(type, cTerm1, cTerm2);
+            }
+            for (int i = 0; i < cTerm1.size(); i++) {
+                if (!unify(type, cTerm1.term[i], cTerm2.term[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return termsEqual;
+    }
+
+    private boolean unifyCommutative(final char type, final CompoundTerm cTerm1, final CompoundTerm cTerm2) {
+        final Term[] list = cTerm1.cloneTerms();
+        CompoundTerm.shuffle(list, Memory.random());
+        //ok attempt unification
+        if(cTerm2.term == null || list == null || list.length != cTerm2.term.length) {
+            return false;
+        }
+        final boolean[] matchedJ = new boolean[list.length];
+        for(int i = 0; i < list.length; i++) {
+            boolean succeeded = false;
+            for(int j = 0; j < list.length; j++) {
+                if(matchedJ[j]) { //this one already was used to match one of the i's
+                    continue;
+                }
+                final int mark = mark();
+                //attempt unification, keeping the bindings only if it succeeds
+                if(unify(type, list[i], cTerm2.term[i])) {
+                    succeeded = true;
+                    matchedJ[j] = true;
+                    break;
+                }
+                undo(mark);
+            }
+            if(!succeeded) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** finds an offset at which the shorter conjunction matches a part of the longer one */
+    private boolean unifyPartial(final char type, final Conjunction c1, final Conjunction c2) {
+        final int base = mark();
+        final int hf = hiddenFrom, ht = hiddenTo;
+        //find an offset that works
+        for(int k=0;k<(c2.term.length - c1.term.length);k++) {
+            boolean succeeded = true;
+            for(int j=k;j<k+c1.size();j++) {
+                //each component is matched against the bindings from before the offset,
+                //those of the components before it are hidden until all of them match
+                hiddenFrom = base;
+                hiddenTo = mark();
+                if(!unify(type, c1.term[j-k], c2.term[j])) {
+                    succeeded = false;
+                    break;
+                }
+            }
+            hiddenFrom = hf;
+            hiddenTo = ht;
+            if(succeeded) {
+                return true;
+            }
+            //another shift k is needed
+            undo(base);
+        }
+        return false;
+    }
+
+    /**
+     * Applies the substitution of a side, the same as CompoundTerm.applySubstitute
+     * with the bindings of that side as the map.
+     *
+     * @return the term itself if nothing was substituted, null if the new term is invalid
+     */
+    public Term apply(final CompoundTerm compound, final int side) {
+        if (isEmpty(side)) {
+            return compound;
+        }
+        final Term[] term = compound.term;
+        Term[] tt = null;
+        boolean modified = false;
+
+        for (int i = 0; i < term.length; i++) {
+            final Term t1 = term[i];
+            Term r = null;
+            if (t1 instanceof Variable) {
+                Term t2 = get(side, t1);
+                if (t2 != null) {
+                    Term next;
+                    while ((next = get(side, t2)) != null) {
+                        t2 = next;
+                    }
+                    //prevents infinite recursion
+                    if (!t2.containsTerm(t1)) {
+                        r = t2;
+                        modified = true;
+                    }
+                }
+            } else if (t1 instanceof CompoundTerm && t1.hasVar()) {
+                r = apply((CompoundTerm) t1, side);
+                if (r != null && !r.equals(t1)) {
+                    modified = true;
+                }
+            }
+            if (r != null && r != t1) {
+                if (tt == null) {
+                    tt = term.clone();
+                }
+                tt[i] = r;
+            }
+        }
+        if (!modified)
+            return compound;
+
+        if (compound.isCommutative()) {
+            Arrays.sort(tt);
+        }
+
+        return compound.clone(tt);
+    }
+}
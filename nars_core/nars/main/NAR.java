@@ -3,6 +3,7 @@ package nars.main;
 import java.io.BufferedReader;
 import nars.plugin.Plugin;
 import nars.storage.Memory;
+import nars.control.CycleProfiler;
 import nars.io.events.Events;
 import nars.io.events.EventEmitter;
 import java.io.FileInputStream;
@@ -12,6 +13,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Reader;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -36,7 +38,9 @@ import nars.language.Tense;
 import nars.operator.Operator;
 import nars.plugin.perception.SensoryChannel;
 import nars.language.Term;
+import nars.storage.EventBag;
 import nars.storage.LevelBag;
+import nars.storage.StripedLevelBag;
 import nars.io.events.Events.CyclesEnd;
 import nars.io.events.Events.CyclesStart;
 import nars.io.events.OutputHandler;
@@ -72,9 +76,10 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
 
 
     Map<Term,SensoryChannel> sensoryChannels = new HashMap<Term,SensoryChannel>();
+    private transient Narsese narsese;
     public void addSensoryChannel(String term, SensoryChannel channel) {
         try {
-            sensoryChannels.put(new Narsese(this).parseTerm(term), channel);
+            sensoryChannels.put(narsese().parseTerm(term), channel);
         } catch (InvalidInputException ex) {
             Logger.getLogger(NAR.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -101,6 +106,8 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
 
     private Thread thread = null;
     long minCyclePeriodMS;
+    /** runs the cycles instead of an own thread if set */
+    private transient NARScheduler scheduler;
 
     /**
      * The name of the reasoner
@@ -146,6 +153,12 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
        public final PortableDouble taskLinkForgetDurations = new PortableDouble(Parameters.TASKLINK_FORGET_DURATIONS);
        public final PortableDouble eventForgetDurations = new PortableDouble(Parameters.EVENT_FORGET_DURATIONS);
        public final PortableDouble decisionThreshold = new PortableDouble(Parameters.DECISION_THRESHOLD);
+       /* Parameters of the reasoner which used to be global, initialized from their defaults in Parameters */
+       public final PortableInteger duration = new PortableInteger(Parameters.DURATION);
+       public final PortableDouble horizon = new PortableDouble(Parameters.HORIZON);
+       public final PortableDouble projectionDecay = new PortableDouble(Parameters.projectionDecay.get());
+       public final PortableDouble derivationPriorityLeak = new PortableDouble(Parameters.DERIVATION_PRIORITY_LEAK);
+       public final PortableDouble derivationDurabilityLeak = new PortableDouble(Parameters.DERIVATION_DURABILITY_LEAK);
    }
     public RuntimeParameters param;
 
@@ -186,9 +199,11 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     public NAR() {
         Plugins b = new Plugins();
         Memory m = new Memory(new RuntimeParameters(),
-                new LevelBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
+                Parameters.CONCEPT_BAG_STRIPES > 0 ?
+                    new StripedLevelBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE, Parameters.CONCEPT_BAG_STRIPES) :
+                    new LevelBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
                 new LevelBag<>(Parameters.NOVEL_TASK_BAG_LEVELS, Parameters.NOVEL_TASK_BAG_SIZE),
-                new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE),
+                new EventBag(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE),
                 new LevelBag<>(Parameters.OPERATION_BAG_LEVELS, Parameters.OPERATION_BAG_SIZE));
         this.memory = m;
         this.param = m.param;
@@ -255,7 +270,6 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     }
     
     public void addInput(final String text) {
-        Narsese narsese = new Narsese(this);
         if(addMultiLineInput(text)) {
             return;
         }
@@ -263,40 +277,130 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
             if(addCommand(text)) {
                 return;
             }
-            Task task = narsese.parseTask(text.trim());
-            //check if it should go to a sensory channel instead:
-            Term t = ((Task) task).getTerm();
-            if(t != null && t instanceof Inheritance) {
-                Term predicate = ((Inheritance) t).getPredicate();
-                if(this.sensoryChannels.containsKey(predicate)) {
-                    Inheritance inh = (Inheritance) task.sentence.term;
-                    SetExt subj = (SetExt) inh.getSubject();
-                    //map to pei's -1 to 1 indexing schema
-                    if(subj.term[0].term_indices == null) {
-                        String variable = subj.toString().split("\\[")[0];
-                        String[] vals = subj.toString().split("\\[")[1].split("\\]")[0].split(",");
-                        double height = Double.parseDouble(vals[0]);
-                        double width = Double.parseDouble(vals[1]);
-                        int wval = (int) Math.round((width+1.0f)/2.0f*(this.sensoryChannels.get(predicate).width-1));
-                        int hval = (int) Math.round(((height+1.0f)/2.0f*(this.sensoryChannels.get(predicate).height-1)));
-                        String ev = task.sentence.isEternal() ? " " : " :|: ";
-                        String newInput = "<"+variable+"["+hval+","+wval+"]} --> " + predicate + ">" + 
-                                          task.sentence.punctuation + ev + task.sentence.truth.toString();
-                        this.emit(OutputHandler.IN.class, task);
-                        this.addInput(newInput);
-                        return;
-                    }
-                    this.sensoryChannels.get(predicate).addInput((Task) task);
+            addParsedInput(narsese().parseTask(text.trim()));
+        } catch (Exception ex) {
+            //Logger.getLogger(NAR.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+    
+    /** the parser shared by the input methods, it keeps no state between calls */
+    public Narsese narsese() {
+        if (narsese == null) {
+            narsese = new Narsese(this);
+        }
+        return narsese;
+    }
+    
+    /** routes a parsed task to its sensory channel, or into memory */
+    private void addParsedInput(final Task task) {
+        //check if it should go to a sensory channel instead:
+        Term t = ((Task) task).getTerm();
+        if(t != null && t instanceof Inheritance) {
+            Term predicate = ((Inheritance) t).getPredicate();
+            if(this.sensoryChannels.containsKey(predicate)) {
+                Inheritance inh = (Inheritance) task.sentence.term;
+                SetExt subj = (SetExt) inh.getSubject();
+                //map to pei's -1 to 1 indexing schema
+                if(subj.term[0].term_indices == null) {
+                    String variable = subj.toString().split("\\[")[0];
+                    String[] vals = subj.toString().split("\\[")[1].split("\\]")[0].split(",");
+                    double height = Double.parseDouble(vals[0]);
+                    double width = Double.parseDouble(vals[1]);
+                    int wval = (int) Math.round((width+1.0f)/2.0f*(this.sensoryChannels.get(predicate).width-1));
+                    int hval = (int) Math.round(((height+1.0f)/2.0f*(this.sensoryChannels.get(predicate).height-1)));
+                    String ev = task.sentence.isEternal() ? " " : " :|: ";
+                    String newInput = "<"+variable+"["+hval+","+wval+"]} --> " + predicate + ">" + 
+                                      task.sentence.punctuation + ev + task.sentence.truth.toString();
+                    this.emit(OutputHandler.IN.class, task);
+                    this.addInput(newInput);
                     return;
                 }
+                this.sensoryChannels.get(predicate).addInput((Task) task);
+                return;
+            }
+        }
+        //else input into NARS directly:
+        this.memory.inputTask(task);
+    }
+    
+    /** a line of batched input which could not be used */
+    public static class InputError {
+        /** line number, starting at 1 */
+        public final int line;
+        public final String input;
+        public final Exception error;
+
+        public InputError(int line, String input, Exception error) {
+            this.line = line;
+            this.input = input;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + error + ": " + input;
+        }
+    }
+    
+    /**
+     * Parses all lines with one parser and adds the tasks to Memory.newTasks in one pass,
+     * without running cycles in between. Empty lines and comments are skipped,
+     * cycle counts are ignored and the other commands are applied.
+     * @return the lines which could not be parsed
+     */
+    public List<InputError> addInputs(final Iterable<String> lines) {
+        final List<InputError> errors = new ArrayList<>();
+        int n = 0;
+        for (final String line : lines) {
+            addInputLine(line, ++n, errors);
+        }
+        return errors;
+    }
+    
+    /** like addInputs(Iterable), reading the lines from a Reader */
+    public List<InputError> addInputs(final Reader reader) throws IOException {
+        final List<InputError> errors = new ArrayList<>();
+        final BufferedReader br = (reader instanceof BufferedReader) ? (BufferedReader)reader : new BufferedReader(reader);
+        int n = 0;
+        String line;
+        while ((line = br.readLine()) != null) {
+            addInputLine(line, ++n, errors);
+        }
+        return errors;
+    }
+    
+    /** adds already built tasks to Memory.newTasks in one pass, routing them to sensory channels like addInput */
+    public void addInputTasks(final Iterable<Task> tasks) {
+        for (final Task t : tasks) {
+            addParsedInput(t);
+        }
+    }
+    
+    private void addInputLine(final String line, final int n, final List<InputError> errors) {
+        final String text = line.trim();
+        if (text.isEmpty() || text.charAt(0) == '\'' || text.startsWith("//")) {
+            return;
+        }
+        if (isCycleCount(text)) {
+            return;
+        }
+        try {
+            if (!addCommand(text)) {
+                addParsedInput(narsese().parseTask(text));
             }
-            //else input into NARS directly:
-            this.memory.inputTask(task);
         } catch (Exception ex) {
-            //Logger.getLogger(NAR.class.getName()).log(Level.SEVERE, null, ex);
+            errors.add(new InputError(n, line, ex));
         }
     }
     
+    private static boolean isCycleCount(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+    
     public void addInputFile(String s) {
         try (BufferedReader br = new BufferedReader(new FileReader(s))) {
             String line;
@@ -313,7 +417,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
 
     /** gets a concept if it exists, or returns null if it does not */
     public Concept concept(String concept) throws InvalidInputException {
-        return memory.concept(new Narsese(this).parseTerm(concept));
+        return memory.concept(narsese().parseTerm(concept));
     }
 
     public NAR ask(String termString, AnswerHandler answered) throws InvalidInputException {
@@ -322,7 +426,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         addInput(
                 t = new Task(
                         new Sentence(
-                                new Narsese(this).parseTerm(termString),
+                                narsese().parseTerm(termString),
                                 Symbols.QUESTION_MARK,
                                 null,
                                 new Stamp(memory, Tense.Eternal)),
@@ -346,7 +450,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         addInput(
                 t = new Task(
                         new Sentence(
-                                new Narsese(this).parseTerm(termString),
+                                narsese().parseTerm(termString),
                                 Symbols.QUESTION_MARK,
                                 null,
                                 new Stamp(memory, Tense.Present)),
@@ -383,6 +487,16 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
     public void event(EventObserver e, boolean enabled, Class... events) {
         memory.event.set(e, enabled, events);
     }
+    
+    /** profile the cycles even if no one observes Events.CycleProfile */
+    public void setProfiling(boolean enabled) {
+        memory.profiler.setEnabled(enabled);
+    }
+    
+    /** the time spent in the cycle phases and rule families, and the task counts, of all profiled cycles */
+    public CycleProfiler.Snapshot profile() {
+        return memory.profiler.snapshot();
+    }
 
     public void addPlugin(Plugin p) {
         if(p instanceof SensoryChannel) {
@@ -418,6 +532,12 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
 
     public void start(final long minCyclePeriodMS) {
         this.minCyclePeriodMS = minCyclePeriodMS;
+        if (scheduler != null) {
+            stopped = false;
+            running = true;
+            scheduler.start(this, minCyclePeriodMS);
+            return;
+        }
         if (thread == null) {
             thread = new Thread(this, "Inference");
             thread.start();
@@ -435,6 +555,21 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         }
         stopped = true;
         running = false;
+        if (scheduler != null) {
+            scheduler.stop(this);
+        }
+    }
+    
+    /**
+     * Runs the cycles of start on the scheduler instead of an own thread,
+     * null to use an own thread again. Call while the NAR is stopped.
+     */
+    public void setScheduler(final NARScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+    
+    public NARScheduler getScheduler() {
+        return scheduler;
     }
 
     /** Execute a fixed number of cycles.*/
@@ -456,9 +591,7 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         stopped = false;
 
         while (running && !stopped) {
-            emit(CyclesStart.class);
-            cycle();
-            emit(CyclesEnd.class);
+            frame();
 
             if (minCyclePeriodMS > 0) {
                 try {
@@ -471,6 +604,13 @@ public class NAR extends SensoryChannel implements Serializable,Runnable {
         }
     }
 
+    /** one cycle of the running loop */
+    void frame() {
+        emit(CyclesStart.class);
+        cycle();
+        emit(CyclesEnd.class);
+    }
+
     public void emit(final Class c, final Object... o) {
         memory.event.emit(c, o);
     }
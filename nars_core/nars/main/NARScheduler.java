@@ -0,0 +1,185 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.main;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the cycles of many NARs on a fixed pool of workers instead of one thread per NAR.
+ *
+ * A NAR with a scheduler set registers as a Tenant when started. A tenant runs cycles for
+ * a time slice of Parameters.SCHEDULER_SLICE_MS times its priority and then queues again
+ * behind the other tenants: all workers take the tenants from one FIFO run queue, also
+ * those requeued by a worker or by the timer, so a NAR is never run by two workers at
+ * once and every queued tenant gets its slice before one gets another. A tenant with a
+ * minimum cycle period runs one cycle per period, like the thread of NAR.start, and a tenant
+ * with a cycle budget stops its NAR when the budget is used up.
+ */
+public class NARScheduler {
+
+    public class Tenant implements Runnable {
+        public final NAR nar;
+        private volatile int priority = 1;
+        /** remaining cycles, -1 for no limit */
+        private volatile long budget = -1;
+        private volatile long minCyclePeriodMS;
+        private volatile boolean active;
+        /** whether the tenant is queued, waiting for its period or running */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long cycles;
+
+        Tenant(final NAR nar) {
+            this.nar = nar;
+        }
+
+        /** slices are this many times as long as the ones of priority 1 */
+        public Tenant setPriority(final int priority) {
+            this.priority = Math.max(1, priority);
+            return this;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        /** number of cycles to run before the NAR is stopped, -1 for no limit */
+        public Tenant setCycleBudget(final long cycles) {
+            this.budget = cycles;
+            return this;
+        }
+
+        public long getCycleBudget() {
+            return budget;
+        }
+
+        /** number of cycles run by the scheduler */
+        public long getCycles() {
+            return cycles;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        private void wake() {
+            if (active && scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override public void run() {
+            try {
+                slice();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            if (active) {
+                if (minCyclePeriodMS > 0) {
+                    timer.schedule(() -> pool.execute(this), minCyclePeriodMS, TimeUnit.MILLISECONDS);
+                } else {
+                    pool.execute(this);
+                }
+                return;
+            }
+            scheduled.set(false);
+            //started again while finishing the slice
+            wake();
+        }
+
+        private void slice() {
+            final long end = System.nanoTime() + priority * sliceNanos;
+            do {
+                if (!active) {
+                    return;
+                }
+                if (!nar.isRunning() || budget == 0) {
+                    nar.stop();
+                    return;
+                }
+                nar.frame();
+                cycles++;
+                if (budget > 0 && --budget == 0) {
+                    nar.stop();
+                }
+            } while (minCyclePeriodMS == 0 && System.nanoTime() < end);
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService timer;
+    private final long sliceNanos;
+    private final Map<NAR, Tenant> tenants = new ConcurrentHashMap<>();
+
+    /** a scheduler with Parameters.SCHEDULER_THREADS workers, or one per processor if 0 */
+    public NARScheduler() {
+        this(Parameters.SCHEDULER_THREADS > 0 ? Parameters.SCHEDULER_THREADS : Runtime.getRuntime().availableProcessors(),
+                Parameters.SCHEDULER_SLICE_MS);
+    }
+
+    public NARScheduler(final int threads, final long sliceMS) {
+        //one shared FIFO run queue, so that requeued tenants take turns
+        final AtomicInteger workers = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), (r) -> {
+            Thread t = new Thread(r, "NAR Scheduler " + workers.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread t = new Thread(r, "NAR Scheduler Timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sliceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sliceMS));
+    }
+
+    /** the tenant of the NAR, registered if it is not yet */
+    public Tenant tenant(final NAR nar) {
+        return tenants.computeIfAbsent(nar, Tenant::new);
+    }
+
+    /** starts running the cycles of the NAR, called by NAR.start */
+    Tenant start(final NAR nar, final long minCyclePeriodMS) {
+        final Tenant t = tenant(nar);
+        t.minCyclePeriodMS = minCyclePeriodMS;
+        t.active = true;
+        t.wake();
+        return t;
+    }
+
+    /** stops running the cycles of the NAR after the current one, called by NAR.stop */
+    void stop(final NAR nar) {
+        final Tenant t = tenants.get(nar);
+        if (t != null) {
+            t.active = false;
+        }
+    }
+
+    /** stops and forgets the NAR with its settings */
+    public void remove(final NAR nar) {
+        stop(nar);
+        tenants.remove(nar);
+    }
+
+    public int size() {
+        return tenants.size();
+    }
+
+    /** stops the workers, tenants stop after their current slice */
+    public void shutdown() {
+        for (final Tenant t : tenants.values()) {
+            t.active = false;
+        }
+        timer.shutdownNow();
+        pool.shutdown();
+    }
+}
@@ -36,7 +36,8 @@ public class Parameters {
        Cycles per duration.
        Past/future tense usage convention;
        How far away "past" and "future" is from "now", in cycles.         
-       The range of "now" is [-DURATION/2, +DURATION/2];      */
+       The range of "now" is [-DURATION/2, +DURATION/2];
+       Default of RuntimeParameters.duration of a NAR created afterwards.      */
     public static int DURATION = 5;
     
     /** use this for advanced error checking, at the expense of lower performance.
@@ -61,6 +62,7 @@ public class Parameters {
     /* ---------- logical parameters ---------- */
     /** Evidential Horizon, the amount of future evidence to be considered. 
      * Must be >=1.0, usually 1 .. 2
+     * Default of RuntimeParameters.horizon of a NAR created afterwards.
      */
     public static float HORIZON = 1;
     
@@ -127,12 +129,16 @@ public class Parameters {
     /** Size of ConceptBag and level amount */
     public static final int CONCEPT_BAG_SIZE = 10000;
     public static final int CONCEPT_BAG_LEVELS = 1000;
+    /** Number of independently locked stripes of the ConceptBag, 0 uses a single LevelBag which is not thread-safe */
+    public static int CONCEPT_BAG_STRIPES = 0;
     /** Size of TaskLinkBag */
     public static final int TASK_LINK_BAG_SIZE = 100;  //was 200 in new experiment
     public static final int TASK_LINK_BAG_LEVELS = 10;
     /** Size of TermLinkBag */
     public static final int TERM_LINK_BAG_SIZE = 100;  //was 1000 in new experiment
     public static final int TERM_LINK_BAG_LEVELS = 10;
+    /** Use the compact ArrayBag instead of LevelBag for the TaskLink and TermLink bags of each Concept */
+    public static boolean ARRAY_LINK_BAGS = false;
     /** Maximum TermLinks checked for novelty for each TaskLink in TermLinkBag */
     public static final int TERM_LINK_MAX_MATCHED = 10;
     /** Size of Novel Task Buffer */
@@ -145,8 +151,14 @@ public class Parameters {
     public static int OPERATION_BAG_SIZE = 10;
     public static final int OPERATION_BAG_LEVELS = 10;
     public static int OPERATION_SAMPLES = 6; //should be at least 2 to not only consider last decision
-    
-    /** How fast events decay in confidence **/
+    /** Maximum number of new tasks waiting for the next cycle, 0 for no limit, see TaskBuffer */
+    public static int NEW_TASKS_CAPACITY = 0;
+    /** Maximum number of new tasks processed in one cycle, 0 for all which were waiting when it started */
+    public static int NEW_TASKS_PER_CYCLE = 0;
+    /** Number of cycles in which a derivation equal to an earlier one is merged into it instead of added, 0 to add all, see DerivationFilter */
+    public static int DERIVATION_FILTER_CYCLES = 0;
+    
+    /** How fast events decay in confidence, default of RuntimeParameters.projectionDecay **/
     public static final PortableDouble projectionDecay = new PortableDouble(0.1);
     
     /* ---------- avoiding repeated reasoning ---------- */
@@ -163,6 +175,9 @@ public class Parameters {
     /** Record-length for newly created TermLink's */
     public static final int TERM_LINK_RECORD_LENGTH =10;
     
+    /** Record-length from which on the TermLink records of a TaskLink are found with a hash index instead of scanning them */
+    public static final int TERM_LINK_RECORD_INDEX_LENGTH = 32;
+    
     /** Maximum number of beliefs kept in a Concept */
     public static final int CONCEPT_BELIEFS_MAX = 28; //was 7
     
@@ -224,11 +239,33 @@ public class Parameters {
     /** max number of interval to combine in sequence to approximate a time period (cycles) */
     public static int TEMPORAL_INTERVAL_PRECISION = 1;
     
+    /** 
+     * Number of concepts fired concurrently on a worker pool in each cycle.
+     * 1 keeps the classic single threaded cycle which fires one concept per cycle,
+     * see ParallelInferenceControl for the ownership and merge rules of the parallel mode.
+     */
+    public static int CONCEPT_FIRING_THREADS = 1;
+    
+    /** Number of worker threads of a NARScheduler, 0 for one per processor */
+    public static int SCHEDULER_THREADS = 0;
+    
+    /** Milliseconds of cycles a NARScheduler runs for a NAR of priority 1 before the next one gets its turn */
+    public static long SCHEDULER_SLICE_MS = 5;
+    
+    /** Maximum number of output lines a TextOutputHandler in asynchronous mode writes between flushes */
+    public static int OUTPUT_BATCH = 256;
+    
+    /** Number of output lines buffered for each web connection before the oldest ones are dropped */
+    public static int WEB_OUTPUT_BUFFER = 4096;
+    
 
     
-    /** equivalency based on Term contents; experimental mode - not ready yet, leave FALSE */
+    /** hash and compare compound terms by their operator and components instead of their name, names are then only built when needed */
     public static boolean TERM_ELEMENT_EQUIVALENCY = false;
     
+    /** share one canonical instance among equal variable-free compound terms created by the make factories, see Terms.intern */
+    public static boolean TERM_INTERNING = false;
+    
     //temporary parameter for setting #threads to use, globally
     public static boolean IMMEDIATE_ETERNALIZATION=true;
     
@@ -237,6 +274,7 @@ public class Parameters {
     public static int SEQUENCE_BAG_ATTEMPTS = 10; //5 //20
     public static int CONDITION_BAG_ATTEMPTS = 10; //5 //20
 
+    /* defaults of RuntimeParameters.derivationPriorityLeak and derivationDurabilityLeak */
     public static float DERIVATION_PRIORITY_LEAK = 0.4f; //https://groups.google.com/forum/#!topic/open-nars/y0XDrs2dTVs
     
     public static float DERIVATION_DURABILITY_LEAK = 0.4f; //https://groups.google.com/forum/#!topic/open-nars/y0XDrs2dTVs
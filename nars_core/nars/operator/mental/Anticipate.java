@@ -22,11 +22,13 @@
 
 package nars.operator.mental;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import nars.io.events.EventEmitter.EventObserver;
 import nars.io.events.Events;
@@ -57,7 +59,15 @@ import nars.plugin.mental.InternalExperience;
  //*
 public class Anticipate extends Operator implements EventObserver {
 
-    public final Map<Vector2Int,LinkedHashSet<Term>> anticipations = new LinkedHashMap();
+    /** the pending anticipations in the order of the time after which they did not happen */
+    final PriorityQueue<Anticipation> expiring = new PriorityQueue();
+    /** the pending anticipations of each term, in the order they were made */
+    final Map<Term,ArrayDeque<Anticipation>> anticipations = new HashMap();
+    /** anticipations made, and pending ones including those which are never handled */
+    long made, pending;
+    /** set by a prediction about the past, which stops the handling of all anticipations made after it */
+    boolean blocked;
+    final ArrayList<Anticipation> handled = new ArrayList();
             
     final Set<Term> newTasks = new LinkedHashSet();
     DerivationContext nal;
@@ -75,36 +85,17 @@ public class Anticipate extends Operator implements EventObserver {
         return true;
     }
     
-    class Vector2Int {
-        public long predictionCreationTime; //2014 and this is still the best way to define a data structure that simple?
-        public long predictedOccurenceTime; 
-        public Vector2Int(long predictionCreationTime, long predictedOccurenceTime) { //rest of the crap:
-            this.predictionCreationTime=predictionCreationTime; //when the prediction happened
-            this.predictedOccurenceTime=predictedOccurenceTime; //when the event is expected
-        }
-    }
-    
-    public void updateAnticipations() {
-
-        if (anticipations.isEmpty()) return;
+    static class Anticipation implements Comparable<Anticipation> {
+        final long order;
+        final Term term;
+        final long predictedOccurenceTime; //when the event is expected
+        final double expiredate;
+        boolean confirmed, done;
 
-        long now=nal.memory.time();
-                
-        //share stamps created by tasks in this cycle
-        
-        boolean hasNewTasks = !newTasks.isEmpty();
-        
-        Iterator<Map.Entry<Vector2Int, LinkedHashSet<Term>>> aei = anticipations.entrySet().iterator();
-        while (aei.hasNext()) {
-            
-            Map.Entry<Vector2Int, LinkedHashSet<Term>> ae = aei.next();
-            
-            long aTime = ae.getKey().predictedOccurenceTime;
-            long predictionstarted=ae.getKey().predictionCreationTime;
-            if(aTime < predictionstarted) { //its about the past..
-                return;
-            }
-            
+        Anticipation(long order, Term term, long predictionCreationTime, long predictedOccurenceTime) {
+            this.order = order;
+            this.term = term;
+            this.predictedOccurenceTime = predictedOccurenceTime;
             //lets say  a and <(&/,a,+4) =/> b> leaded to prediction of b with specific occurence time
             //this indicates that this interval can be reconstructed by looking by when the prediction
             //happened and for what time it predicted, Only when the happening would already lead to <(&/,a,+5) =/> b>
@@ -112,54 +103,84 @@ public class Anticipate extends Operator implements EventObserver {
             //since there is no way anymore that the observation would support <(&/,a,+4) =/> b> at this time,
             //also this way it is not applied to early, it seems to be the perfect time to me,
             //making hopeExpirationWindow parameter entirely osbolete
-            Interval Int=new Interval(aTime-predictionstarted);
+            Interval Int=new Interval(predictedOccurenceTime-predictionCreationTime);
             //ok we know the magnitude now, let's now construct a interval with magnitude one higher
             //(this we can skip because magnitudeToTime allows it without being explicitly constructed)
             //ok, and what predicted occurence time would that be? because only if now is bigger or equal, didnt happen is true
-            double expiredate=predictionstarted+Int.time*Parameters.ANTICIPATION_TOLERANCE;
-            //
-            
-            boolean didntHappen = (now>=expiredate);
-            boolean maybeHappened = hasNewTasks && !didntHappen;
-                
-            if ((!didntHappen) && (!maybeHappened))
-                continue;
-            
-            LinkedHashSet<Term> terms = ae.getValue();
-            
-            Iterator<Term> ii = terms.iterator();
-            while (ii.hasNext()) {
-                Term aTerm = ii.next();
-                
-                boolean remove = false;
-                
-                if (didntHappen) {
-                    deriveDidntHappen(aTerm,aTime);                                
-                    remove = true;
-                }
+            this.expiredate=predictionCreationTime+Int.time*Parameters.ANTICIPATION_TOLERANCE;
+        }
+
+        @Override
+        public int compareTo(Anticipation a) {
+            int c = Double.compare(expiredate, a.expiredate);
+            return c != 0 ? c : Long.compare(order, a.order);
+        }
+    }
+    
+    /**
+     * Handles the anticipations which did not happen by now, and those confirmed by the
+     * events of this cycle, in the order they were made. Only these are touched: the
+     * expired ones are at the head of the expiry queue, and the confirmed ones are found
+     * by the terms of the new events.
+     */
+    public void updateAnticipations() {
+
+        if (pending == 0) return;
 
-                if (maybeHappened) {
-                    if (newTasks.remove(aTerm)) {
-                        //in case it happened, temporal induction will do the rest, else deriveDidntHappen occurred
-                        if(!remove) {
-                            nal.memory.emit(CONFIRM.class, aTerm);
+        long now=nal.memory.time();
+
+        handled.clear();
+        while (!expiring.isEmpty() && now >= expiring.peek().expiredate) {
+            final Anticipation a = expiring.poll();
+            if (!a.done) {
+                handled.add(a);
+            }
+        }
+        if (!newTasks.isEmpty()) {
+            //an event confirms the first anticipation of its term which is not expired
+            for (final Term t : newTasks) {
+                final ArrayDeque<Anticipation> ae = anticipations.get(t);
+                if (ae != null) {
+                    for (final Anticipation a : ae) {
+                        if (!a.done && now < a.expiredate) {
+                            a.confirmed = true;
+                            handled.add(a);
+                            break;
                         }
-                        remove = true; 
-                        hasNewTasks = !newTasks.isEmpty();
                     }
                 }
-                
-                if (remove)
-                    ii.remove();
             }
-            
-            if (terms.isEmpty()) {
-                //remove this time entry because its terms have been emptied
-                aei.remove();
+        }
+        Collections.sort(handled, (x, y) -> Long.compare(x.order, y.order));
+
+        for (final Anticipation a : handled) {
+            if (a.confirmed) {
+                //in case it happened, temporal induction will do the rest, else deriveDidntHappen occurred
+                newTasks.remove(a.term);
+                nal.memory.emit(CONFIRM.class, a.term);
+            } else {
+                deriveDidntHappen(a.term,a.predictedOccurenceTime);
             }
-        }       
-    
-        newTasks.clear();        
+            remove(a);
+        }
+        handled.clear();
+
+        //an anticipation about the past stops the handling, the new events are kept until then
+        if (!blocked) {
+            newTasks.clear();
+        }
+    }
+
+    private void remove(final Anticipation a) {
+        a.done = true;
+        pending--;
+        final ArrayDeque<Anticipation> ae = anticipations.get(a.term);
+        while (!ae.isEmpty() && ae.peekFirst().done) {
+            ae.pollFirst();
+        }
+        if (ae.isEmpty()) {
+            anticipations.remove(a.term);
+        }
     }
     
     @Override
@@ -191,7 +212,7 @@ public class Anticipate extends Operator implements EventObserver {
             return null; //not as mental operator but as fundamental principle
         }
         
-        anticipate(args[1],memory,memory.time()+Parameters.DURATION, null);
+        anticipate(args[1],memory,memory.time()+memory.param.duration.get(), null);
         
         return null;
     }
@@ -230,10 +251,19 @@ public class Anticipate extends Operator implements EventObserver {
           memory.emit(ANTICIPATE.class, content);
        }
         
-        LinkedHashSet<Term> ae = new LinkedHashSet();
-        anticipations.put(new Vector2Int(memory.time(),occurenceTime), ae);
-
-        ae.add(content);
+        pending++;
+        if (occurenceTime < memory.time()) { //its about the past..
+            blocked = true;
+        }
+        if (!blocked) {
+            Anticipation a = new Anticipation(made++, content, memory.time(), occurenceTime);
+            expiring.add(a);
+            ArrayDeque<Anticipation> ae = anticipations.get(content);
+            if (ae == null) {
+                anticipations.put(content, ae = new ArrayDeque());
+            }
+            ae.add(a);
+        }
         anticipationFeedback(content, t, memory);
     }
 
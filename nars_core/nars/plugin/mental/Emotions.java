@@ -53,7 +53,7 @@ public class Emotions implements Plugin {
     public long last_happy_time = 0;
     public long last_busy_time = 0;
     public long change_steps_demanded = 1000;
-    public void adjustSatisfaction(float newValue, float weight, DerivationContext nal) {
+    public synchronized void adjustSatisfaction(float newValue, float weight, DerivationContext nal) {
         
         //        float oldV = happyValue;
         happy += newValue * weight;
@@ -122,7 +122,7 @@ public class Emotions implements Plugin {
     
     public double lastbusy=0.5;
     public double CHANGE_THRESHOLD = 0.25f;
-    public void adjustBusy(float newValue, float weight, DerivationContext nal) {
+    public synchronized void adjustBusy(float newValue, float weight, DerivationContext nal) {
 
         busy += newValue * weight;
         busy /= (1.0f + weight);
@@ -243,11 +243,11 @@ public class InternalExperience implements Plugin, EventObserver {
         
         Memory memory = nal.memory;
     
-        if (Memory.randomNumber.nextDouble() < INTERNAL_EXPERIENCE_RARE_PROBABILITY ) {
+        if (Memory.random().nextDouble() < INTERNAL_EXPERIENCE_RARE_PROBABILITY ) {
             
             //the operators which dont have a innate belief
             //also get a chance to reveal its effects to the system this way
-            Operator op=memory.getOperator(nonInnateBeliefOperators[Memory.randomNumber.nextInt(nonInnateBeliefOperators.length)]);
+            Operator op=memory.getOperator(nonInnateBeliefOperators[Memory.random().nextInt(nonInnateBeliefOperators.length)]);
             
             Product prod=new Product(new Term[]{belief.term});
             
@@ -271,7 +271,7 @@ public class InternalExperience implements Plugin, EventObserver {
             }
         }
 
-        if (beliefTerm instanceof Implication && Memory.randomNumber.nextDouble()<=INTERNAL_EXPERIENCE_PROBABILITY) {
+        if (beliefTerm instanceof Implication && Memory.random().nextDouble()<=INTERNAL_EXPERIENCE_PROBABILITY) {
             Implication imp=(Implication) beliefTerm;
             if(imp.getTemporalOrder()==TemporalRules.ORDER_FORWARD) {
                 //1. check if its (&/,term,+i1,...,+in) =/> anticipateTerm form:
@@ -30,25 +30,25 @@ public class RuntimeNARSettings implements Plugin {
     }
     
     public double getDerivationPriorityLeak() {
-        return Parameters.DERIVATION_PRIORITY_LEAK;
+        return n.param.derivationPriorityLeak.get();
     }
     public void setDerivationPriorityLeak(double val) {
-        Parameters.DERIVATION_PRIORITY_LEAK=(float) val;
+        n.param.derivationPriorityLeak.set((float) val);
     }
     
     public double getDerivationDurabilityLeak() {
-        return Parameters.DERIVATION_DURABILITY_LEAK;
+        return n.param.derivationDurabilityLeak.get();
     }
     public void setDerivationDurabilityLeak(double val) {
-        Parameters.DERIVATION_DURABILITY_LEAK=(float) val;
+        n.param.derivationDurabilityLeak.set((float) val);
     }
 
     
     public double getEvidentalHorizon() {
-        return Parameters.HORIZON;
+        return n.param.horizon.get();
     }
     public void setEvidentalHorizon(double val) {
-        Parameters.HORIZON=(float) val;
+        n.param.horizon.set((float) val);
     }
     
     public double getCuriosityDesireConfidenceMul() {
@@ -0,0 +1,236 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import nars.entity.Item;
+
+/**
+ * Compact Bag for small capacities such as the TaskLink and TermLink bags of a Concept.
+ *
+ * Items and their priorities are kept in parallel arrays, keys are found through an
+ * open addressing table of item indices, and takeNext samples by roulette over the
+ * priorities, so takeNext / putIn / putBack do not allocate.
+ *
+ * The priority of an item is recorded when it is inserted, like the level of a LevelBag.
+ */
+public class ArrayBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    final int capacity;
+    final Object[] items;
+    final float[] priority;
+    /** open addressing table containing item index + 1, 0 for free slots */
+    final int[] slot;
+    final int slotMask;
+    int size;
+    float mass;
+
+    public ArrayBag(int capacity) {
+        this.capacity = capacity;
+        items = new Object[capacity];
+        priority = new float[capacity];
+        int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+        slot = new int[slots];
+        slotMask = slots - 1;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private E item(final int i) {
+        return (E) items[i];
+    }
+
+    /** slot of the key, or of the free slot where it would be inserted */
+    private int findSlot(final K key) {
+        int s = spread(key.hashCode()) & slotMask;
+        while (slot[s] != 0) {
+            if (item(slot[s] - 1).name().equals(key))
+                return s;
+            s = (s + 1) & slotMask;
+        }
+        return s;
+    }
+
+    /** removes a slot, moving following entries of the probe sequence back */
+    private void clearSlot(int s) {
+        int next = (s + 1) & slotMask;
+        while (slot[next] != 0) {
+            final int home = spread(item(slot[next] - 1).name().hashCode()) & slotMask;
+            //move the entry if its home is not within (s, next]
+            if (((next - home) & slotMask) >= ((next - s) & slotMask)) {
+                slot[s] = slot[next];
+                s = next;
+            }
+            next = (next + 1) & slotMask;
+        }
+        slot[s] = 0;
+    }
+
+    /** removes the item at index i, the last item takes its place */
+    private E removeIndex(final int i) {
+        final E x = item(i);
+        clearSlot(findSlot(x.name()));
+        mass -= priority[i];
+        final int last = --size;
+        if (i != last) {
+            items[i] = items[last];
+            priority[i] = priority[last];
+            slot[findSlot(item(i).name())] = i + 1;
+        }
+        items[last] = null;
+        return x;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(items, null);
+        Arrays.fill(slot, 0);
+        size = 0;
+        mass = 0;
+    }
+
+    @Override
+    public E get(final K key) {
+        final int s = slot[findSlot(key)];
+        return s == 0 ? null : item(s - 1);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++)
+            keys.add(item(i).name());
+        return keys;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public float getMass() {
+        return mass;
+    }
+
+    @Override
+    public E takeNext() {
+        if (size == 0)
+            return null;
+        int i = size - 1;
+        if (mass > 0) {
+            float r = Memory.random().nextFloat() * mass;
+            for (int j = 0; j < size; j++) {
+                r -= priority[j];
+                if (r < 0) {
+                    i = j;
+                    break;
+                }
+            }
+        }
+        else {
+            i = Memory.random().nextInt(size);
+        }
+        return removeIndex(i);
+    }
+
+    @Override
+    public E peekNext() {
+        E e = takeNext();
+        if (e != null)
+            putIn(e);
+        return e;
+    }
+
+    @Override
+    protected E addItem(final E newItem) {
+        final float p = newItem.getPriority();
+        E overflow = null;
+        if (size >= capacity) {
+            int min = 0;
+            for (int j = 1; j < size; j++) {
+                if (priority[j] < priority[min])
+                    min = j;
+            }
+            if (priority[min] > p) {
+                return newItem;
+            }
+            overflow = removeIndex(min);
+        }
+        final int i = size++;
+        items[i] = newItem;
+        priority[i] = p;
+        slot[findSlot(newItem.name())] = i + 1;
+        mass += p;
+        return overflow;
+    }
+
+    @Override
+    public E take(final K key) {
+        final int s = slot[findSlot(key)];
+        return s == 0 ? null : removeIndex(s - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<E> values() {
+        List<E> l = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            l.add(item(i));
+        return l;
+    }
+
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.01f;
+        }
+        float f = mass / size;
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    /** iterates a snapshot in descending priority */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> l = values();
+        l.sort((a, b) -> Float.compare(b.getPriority(), a.getPriority()));
+        return l.iterator();
+    }
+
+    @Override
+    public float getMinPriority() {
+        float min = 1.0f;
+        for (int i = 0; i < size; i++) {
+            if (priority[i] < min)
+                min = priority[i];
+        }
+        return min;
+    }
+
+    @Override
+    public float getMaxPriority() {
+        float max = 0.0f;
+        for (int i = 0; i < size; i++) {
+            if (priority[i] > max)
+                max = priority[i];
+        }
+        return max;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import nars.entity.Concept;
+import nars.language.Term;
+
+/**
+ * Second tier of the concept memory, for concepts displaced from the concept bag.
+ *
+ * Forgotten concepts are written with their belief tables and links to a memory-mapped
+ * file, in the record format of SnapshotWriter, and only their terms stay on the heap.
+ * Memory.concept and Memory.conceptualize take a stored concept back into the bag when
+ * its term is needed again. The file is a log: taken concepts leave garbage behind,
+ * which is compacted when it exceeds half of the log.
+ *
+ * Enabled with Memory.setConceptStore. The file is a cache and is truncated when opened.
+ */
+public class ConceptStore implements Closeable {
+
+    /** size of the mapped segments of the file */
+    static final int SEGMENT = 1 << 26;
+
+    private final FileChannel file;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    /** offsets of the records of the stored concepts */
+    private final HashMap<Term, Long> offsets = new HashMap<>();
+    /** end of the log, and bytes of records which were taken */
+    private long end, garbage;
+
+    private final SnapshotWriter writer;
+    private final SnapshotReader reader;
+
+    /** position of the current read, and the end of the record */
+    private long readPosition, readEnd;
+
+    private final ByteBuffer length = ByteBuffer.allocate(4);
+
+    private final WritableByteChannel appender = new WritableByteChannel() {
+        @Override public int write(final ByteBuffer src) {
+            final int n = src.remaining();
+            putAt(end, src);
+            end += n;
+            return n;
+        }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() { }
+    };
+
+    private final ReadableByteChannel scanner = new ReadableByteChannel() {
+        @Override public int read(final ByteBuffer dst) {
+            if (readPosition >= readEnd) {
+                return -1;
+            }
+            final int n = (int) Math.min(dst.remaining(), readEnd - readPosition);
+            final ByteBuffer part = dst.duplicate();
+            part.limit(part.position() + n);
+            getAt(readPosition, part);
+            dst.position(dst.position() + n);
+            readPosition += n;
+            return n;
+        }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() { }
+    };
+
+    public ConceptStore(final Memory memory, final Path path) throws IOException {
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new SnapshotWriter(memory);
+        this.reader = new SnapshotReader(memory);
+    }
+
+    /** number of stored concepts */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /** bytes of the log, including garbage */
+    public synchronized long bytes() {
+        return end;
+    }
+
+    public synchronized boolean contains(final Term term) {
+        return offsets.containsKey(term);
+    }
+
+    /**
+     * stores a concept which was removed from the concept bag, the record is only used
+     * once it is written completely, if writing fails the previous one is kept
+     */
+    public synchronized void put(final Concept c) {
+        final long start = end;
+        try {
+            end += 4;
+            writer.writeConcept(appender, c);
+            length.clear();
+            length.putInt((int) (end - start - 4)).flip();
+            putAt(start, length);
+        } catch (IOException e) {
+            end = start;
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            end = start;
+            throw e;
+        }
+        final Long previous = offsets.put(c.term, start);
+        if (previous != null) {
+            garbage += 4 + recordLength(previous);
+        }
+        if (garbage > SEGMENT && garbage > end / 2) {
+            compact();
+        }
+    }
+
+    /** removes and returns the stored concept of the term, or null */
+    public synchronized Concept take(final Term term) {
+        final Long offset = offsets.remove(term);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            final int n = recordLength(offset);
+            garbage += 4 + n;
+            readPosition = offset + 4;
+            readEnd = readPosition + n;
+            return reader.readConcept(scanner);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void clear() {
+        offsets.clear();
+        end = garbage = 0;
+    }
+
+    /** moves the records towards the start of the log, removing the garbage between them */
+    public synchronized void compact() {
+        final List<Map.Entry<Term, Long>> records = new ArrayList<>(offsets.entrySet());
+        records.sort((a, b) -> Long.compare(a.getValue(), b.getValue()));
+        ByteBuffer b = ByteBuffer.allocate(1 << 16);
+        long to = 0;
+        for (final Map.Entry<Term, Long> r : records) {
+            final long from = r.getValue();
+            final int n = 4 + recordLength(from);
+            if (b.capacity() < n) {
+                b = ByteBuffer.allocate(n);
+            }
+            b.clear().limit(n);
+            getAt(from, b);
+            b.flip();
+            putAt(to, b);
+            r.setValue(to);
+            to += n;
+        }
+        end = to;
+        garbage = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        offsets.clear();
+        segments.clear();
+        file.close();
+    }
+
+    private int recordLength(final long offset) {
+        length.clear();
+        getAt(offset, length);
+        return length.getInt(0);
+    }
+
+    /** the segment containing the position, positioned there */
+    private ByteBuffer segment(final long position) {
+        final int s = (int) (position / SEGMENT);
+        try {
+            while (segments.size() <= s) {
+                segments.add(file.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT, SEGMENT));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final ByteBuffer b = segments.get(s).duplicate();
+        b.position((int) (position % SEGMENT));
+        return b;
+    }
+
+    /** copies the remaining bytes of src to the position of the log, across segments */
+    private void putAt(long position, final ByteBuffer src) {
+        while (src.hasRemaining()) {
+            final ByteBuffer s = segment(position);
+            final int n = Math.min(s.remaining(), src.remaining());
+            final ByteBuffer part = src.duplicate();
+            part.limit(part.position() + n);
+            s.put(part);
+            src.position(src.position() + n);
+            position += n;
+        }
+    }
+
+    /** fills the remaining bytes of dst from the position of the log, across segments */
+    private void getAt(long position, final ByteBuffer dst) {
+        while (dst.hasRemaining()) {
+            final ByteBuffer s = segment(position);
+            final int n = Math.min(s.remaining(), dst.remaining());
+            s.limit(s.position() + n);
+            dst.put(s);
+            position += n;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import nars.entity.Sentence;
+import nars.entity.Task;
+
+/**
+ * The tasks derived in the last cycles, to find a derivation which repeats one of them.
+ *
+ * Different premises often derive the same sentence within a few cycles: the same term,
+ * punctuation, truth, evidential base and occurrence time, which is what Sentence.equals
+ * compares. The sentences are the keys, so a repeat is only found if it is really equal,
+ * and the window is small enough that the map stays small.
+ */
+public class DerivationFilter implements Serializable {
+
+    private static final class Derived implements Serializable {
+        final Task task;
+        final long time;
+
+        Derived(final Task task, final long time) {
+            this.task = task;
+            this.time = time;
+        }
+    }
+
+    /** number of cycles a derivation is remembered, 0 disables the filter */
+    public final int cycles;
+
+    private final Map<Sentence, Derived> derived = new HashMap<>();
+    /** the derivations in the order they were made, to forget them */
+    private final ArrayDeque<Derived> window = new ArrayDeque<>();
+
+    private long lookups, hits;
+
+    public DerivationFilter(final int cycles) {
+        this.cycles = cycles;
+    }
+
+    /**
+     * The task which derived the same sentence within the window.
+     *
+     * @param now the current cycle
+     * @return the earlier task, or null if there is none or the filter is disabled
+     */
+    public Task earlier(final Task t, final long now) {
+        if (cycles <= 0) {
+            return null;
+        }
+        while (!window.isEmpty() && window.peekFirst().time <= now - cycles) {
+            final Derived d = window.pollFirst();
+            derived.remove(d.task.sentence, d);
+        }
+        lookups++;
+        final Derived d = derived.get(t.sentence);
+        if (d != null) {
+            hits++;
+            return d.task;
+        }
+        return null;
+    }
+
+    /** remembers the task as the derivation of its sentence, once it was queued */
+    public void add(final Task t, final long now) {
+        if (cycles <= 0) {
+            return;
+        }
+        final Derived n = new Derived(t, now);
+        derived.put(t.sentence, n);
+        window.addLast(n);
+    }
+
+    /** forgets the task if it is remembered, when it was shed before being processed */
+    public void forget(final Task t) {
+        final Derived d = derived.get(t.sentence);
+        if (d != null && d.task == t) {
+            derived.remove(t.sentence);
+        }
+    }
+
+    /** number of derivations remembered */
+    public int size() {
+        return derived.size();
+    }
+
+    public long lookups() {
+        return lookups;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    /** the fraction of the derivations which repeated an earlier one */
+    public double hitRate() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void clear() {
+        derived.clear();
+        window.clear();
+        lookups = hits = 0;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import nars.entity.Sentence;
+import nars.entity.Task;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+
+/**
+ * LevelBag of the sequence buffer, which also indexes its events by their term without
+ * intervals.
+ *
+ * A new event replaces the one whose term only differs in the intervals, and the index
+ * finds it without comparing the new event with every event of the bag, so the buffer
+ * can hold thousands of events. Sampling takes events out and puts them back, so an event
+ * stays in the index while it is taken out, and is dropped from it when it is found to
+ * be no longer in the bag.
+ */
+public class EventBag extends LevelBag<Task<Term>,Sentence<Term>> {
+
+    /** the events by their term without intervals, in the order they were indexed */
+    private final Map<Term, ArrayList<Task<Term>>> events;
+    /** the index key of each indexed event */
+    private final Map<Task<Term>, Term> keys;
+
+    /** the key of a new event is needed to find its duplicate and again to index it */
+    private Term lastTerm, lastKey;
+
+    public EventBag(int levels, int capacity) {
+        super(levels, capacity);
+        events = new HashMap<>(capacity);
+        keys = new IdentityHashMap<>(capacity);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        //called by the LevelBag constructor before the index exists
+        if (events != null) {
+            events.clear();
+            keys.clear();
+            lastTerm = lastKey = null;
+        }
+    }
+
+    /** the term without intervals, which the events replacing each other share */
+    public Term key(final Term term) {
+        if (term != lastTerm) {
+            lastKey = CompoundTerm.replaceIntervals(term);
+            lastTerm = term;
+        }
+        return lastKey;
+    }
+
+    @Override
+    public Task<Term> addItem(final Task<Term> newItem) {
+        final Task<Term> overflow = super.addItem(newItem);
+        if (overflow != null) {
+            unindex(overflow);
+        }
+        if (overflow != newItem && !keys.containsKey(newItem)) {
+            final Term key = key(newItem.getTerm());
+            keys.put(newItem, key);
+            ArrayList<Task<Term>> e = events.get(key);
+            if (e == null) {
+                events.put(key, e = new ArrayList<>(1));
+            }
+            e.add(newItem);
+        }
+        return overflow;
+    }
+
+    @Override
+    public Task<Term> take(final Sentence<Term> name) {
+        final Task<Term> t = super.take(name);
+        if (t != null) {
+            unindex(t);
+        }
+        return t;
+    }
+
+    private void unindex(final Task<Term> t) {
+        final Term key = keys.remove(t);
+        if (key == null) {
+            return;
+        }
+        final ArrayList<Task<Term>> e = events.get(key);
+        for (int i = 0; i < e.size(); i++) {
+            if (e.get(i) == t) {
+                e.remove(i);
+                break;
+            }
+        }
+        if (e.isEmpty()) {
+            events.remove(key);
+        }
+    }
+
+    /**
+     * The event which a new event replaces: the first in the order of the bag whose term
+     * only differs in the intervals, and which has the same term indices if both have them.
+     *
+     * @return the event, or null if there is none
+     */
+    public Task<Term> duplicateOf(final Task<Term> event) {
+        final Term key = key(event.getTerm());
+        final ArrayList<Task<Term>> e = events.get(key);
+        if (e == null) {
+            return null;
+        }
+        Task<Term> first = null;
+        int matches = 0;
+        for (int i = 0; i < e.size(); ) {
+            final Task<Term> t = e.get(i);
+            if (get(t.name()) != t) { //taken out and not put back
+                e.remove(i);
+                keys.remove(t);
+                continue;
+            }
+            if (sameTermIndices(t.getTerm(), event.getTerm())) {
+                if (first == null) {
+                    first = t;
+                }
+                matches++;
+            }
+            i++;
+        }
+        if (e.isEmpty()) {
+            events.remove(key);
+        }
+        if (matches > 1) {
+            //events whose term indices differ from each other can match the same event
+            for (final Task<Term> t : this) {
+                if (key.equals(keys.get(t)) && sameTermIndices(t.getTerm(), event.getTerm())) {
+                    return t;
+                }
+            }
+        }
+        return first;
+    }
+
+    private static boolean sameTermIndices(final Term t, final Term event) {
+        if (t.term_indices != null && event.term_indices != null) {
+            for (int i = 0; i < t.term_indices.length; i++) {
+                if (t.term_indices[i] != event.term_indices[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
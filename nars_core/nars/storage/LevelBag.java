@@ -177,7 +177,7 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
     }
     
     @Override
-    public final void clear() {
+    public void clear() {
         for (int i = 0; i < levels; i++) {
             if (level[i] != null) {
                 level[i].clear();
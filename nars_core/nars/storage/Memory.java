@@ -24,9 +24,8 @@ import nars.control.ConceptProcessing;
 import nars.io.events.Events;
 import nars.io.events.EventEmitter;
 import java.io.Serializable;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -37,8 +36,10 @@ import nars.main.Parameters;
 import nars.io.events.Events.ResetEnd;
 import nars.io.events.Events.ResetStart;
 import nars.io.events.Events.TaskRemove;
+import nars.control.CycleProfiler;
 import nars.control.DerivationContext;
 import nars.control.GeneralInferenceControl;
+import nars.control.ParallelInferenceControl;
 import nars.control.TemporalInferenceControl;
 import nars.plugin.mental.Emotions;
 import nars.entity.BudgetValue;
@@ -83,12 +84,72 @@ public class Memory implements Serializable, Iterable<Concept> {
     public Task lastDecision = null;
     public boolean allowExecution = true;
 
+    /** seed of the random generator of each memory, applied on reset */
     public static long randomSeed = 1;
+    /** random generator for code running outside of the cycle of a memory */
     public static Random randomNumber = new Random(randomSeed);
     public static void resetStatic() {
         randomNumber.setSeed(randomSeed);    
     }
     
+    /** random generator of this memory, so that NARs running next to each other stay independent */
+    private final Random random = new Random(randomSeed);
+    
+    /** the memory cycling on a thread, bound by enter and leave */
+    private static final ThreadLocal<Memory> current = new ThreadLocal<>();
+    
+    /** the random generator to use in inference, concept firing workers have their own one */
+    public static Random random() {
+        if (Parameters.CONCEPT_FIRING_THREADS > 1) {
+            Random r = ParallelInferenceControl.workerRandom();
+            if (r != null)
+                return r;
+        }
+        final Memory m = current.get();
+        return m != null ? m.random : randomNumber;
+    }
+    
+    public Random getRandom() {
+        return random;
+    }
+    
+    /** the memory cycling on this thread, null outside of a cycle */
+    public static Memory current() {
+        return current.get();
+    }
+    
+    /** binds this memory to the thread, returns the one bound before to pass to leave */
+    public Memory enter() {
+        final Memory previous = current.get();
+        current.set(this);
+        return previous;
+    }
+    
+    public static void leave(final Memory previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+    
+    /* parameters of the current memory for code without access to it, the defaults outside of a cycle */
+    
+    public static int duration() {
+        final Memory m = current.get();
+        return m != null ? m.param.duration.get() : Parameters.DURATION;
+    }
+    
+    public static float horizon() {
+        final Memory m = current.get();
+        return m != null ? m.param.horizon.floatValue() : Parameters.HORIZON;
+    }
+    
+    public static double projectionDecay() {
+        final Memory m = current.get();
+        return m != null ? m.param.projectionDecay.get() : Parameters.projectionDecay.get();
+    }
+    
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
     public transient EventEmitter event;
@@ -100,11 +161,14 @@ public class Memory implements Serializable, Iterable<Concept> {
     public final Bag<Task<Term>,Sentence<Term>> novelTasks;
     
     /* Input event tasks that were either input events or derived sequences*/
-    public Bag<Task<Term>,Sentence<Term>> seq_current;
+    public EventBag seq_current;
     public Bag<Task<Term>,Sentence<Term>> recent_operations;
 
     /* List of new tasks accumulated in one cycle, to be processed in the next cycle */
-    public final Deque<Task> newTasks;
+    public final TaskBuffer newTasks;
+    
+    /* Derivations of the last cycles, to merge the repeated ones instead of processing them again */
+    public final DerivationFilter derivations;
     
     /* System clock, relatively defined to guarantee the repeatability of behaviors */
     private long cycle;
@@ -112,6 +176,17 @@ public class Memory implements Serializable, Iterable<Concept> {
     /* System parameters that can be changed at runtime */
     public final RuntimeParameters param;
     
+    /* Concept firing in parallel mode, see Parameters.CONCEPT_FIRING_THREADS */
+    private transient ParallelInferenceControl parallel;
+    /* Set while concepts are fired by workers, whose new tasks and events are deferred until the merge */
+    public transient volatile ParallelInferenceControl firing;
+    
+    /* Optional second tier for forgotten concepts, which are restored when their term is needed again */
+    private transient ConceptStore store;
+    
+    /* Timers and counters of the cycle phases, only measuring while Events.CycleProfile is observed or it is enabled */
+    public final CycleProfiler profiler = new CycleProfiler();
+    
     /* ---------- Constructor ---------- */
     /**
      * Create a new memory
@@ -119,14 +194,15 @@ public class Memory implements Serializable, Iterable<Concept> {
      * @param initialOperators - initial set of available operators; more may be added during runtime
      */
     public Memory(RuntimeParameters param, Bag<Concept,Term> concepts, Bag<Task<Term>,Sentence<Term>> novelTasks,
-            Bag<Task<Term>,Sentence<Term>> seq_current,
+            EventBag seq_current,
             Bag<Task<Term>,Sentence<Term>> recent_operations) {                
 
         this.param = param;
         this.event = new EventEmitter();
         this.concepts = concepts;
         this.novelTasks = novelTasks;                
-        this.newTasks = new ArrayDeque<>();
+        this.newTasks = new TaskBuffer(Parameters.NEW_TASKS_CAPACITY);
+        this.derivations = new DerivationFilter(Parameters.DERIVATION_FILTER_CYCLES);
         this.recent_operations = recent_operations;
         this.seq_current = seq_current;
         this.operators = new HashMap<>();
@@ -137,12 +213,18 @@ public class Memory implements Serializable, Iterable<Concept> {
         event.emit(ResetStart.class);
         decisionBlock = 0;
         concepts.clear();
+        if (store != null) {
+            store.clear();
+        }
         novelTasks.clear();
         newTasks.clear();    
+        derivations.clear();
         this.seq_current.clear();
         cycle = 0;
         emotion.resetEmotions();
         this.lastDecision = null;
+        profiler.reset();
+        random.setSeed(randomSeed);
         resetStatic();
         event.emit(ResetEnd.class);
     }
@@ -161,7 +243,41 @@ public class Memory implements Serializable, Iterable<Concept> {
      * @return a Concept or null
      */
     public Concept concept(final Term t) {
-        return concepts.get(CompoundTerm.replaceIntervals(t));
+        final Term key = CompoundTerm.replaceIntervals(t);
+        final Concept c = concepts.get(key);
+        if (c == null && store != null && firing == null) {
+            return restoreConcept(key);
+        }
+        return c;
+    }
+    
+    /** moves a stored concept back into the concept bag, returns null if it is not stored or does not fit */
+    private Concept restoreConcept(final Term term) {
+        final Concept c = store.take(term);
+        if (c == null) {
+            return null;
+        }
+        final Concept displaced = concepts.putIn(c);
+        if (displaced == c) {
+            store.put(c);
+            return null;
+        }
+        if (displaced != null) {
+            conceptRemoved(displaced);
+        }
+        return c;
+    }
+    
+    /**
+     * Sets the store that forgotten concepts are moved to, null to forget them.
+     * The store is not cleared when it is replaced.
+     */
+    public void setConceptStore(final ConceptStore store) {
+        this.store = store;
+    }
+    
+    public ConceptStore getConceptStore() {
+        return store;
     }
 
     /**
@@ -185,6 +301,10 @@ public class Memory implements Serializable, Iterable<Concept> {
         term = CompoundTerm.replaceIntervals(term);
         //see if concept is active
         Concept concept = concepts.take(term);
+        if (concept == null && store != null) {
+            //see if concept was forgotten to the store
+            concept = store.take(term);
+        }
         if (concept == null) {                            
             //create new concept, with the applied budget
             concept = new Concept(budget, term, this);
@@ -201,6 +321,7 @@ public class Memory implements Serializable, Iterable<Concept> {
             //unable to create, ex: has variables
             return null;
         }
+        concept.changed = true;
         Concept displaced = concepts.putBack(concept, cycles(param.conceptForgetDurations), this);   
         if (displaced == null) {
             //added without replacing anything
@@ -220,12 +341,50 @@ public class Memory implements Serializable, Iterable<Concept> {
     /* ---------- new task entries ---------- */
     /**
      * add new task that waits to be processed in the next cycleMemory
+     *
+     * @return whether the task was queued now, false if it was deferred, merged or shed
      */
-    public void addNewTask(final Task t, final String reason) {
-        newTasks.add(t);
+    public boolean addNewTask(final Task t, final String reason) {
+        if (firing != null && ParallelInferenceControl.defer(() -> addNewTask(t, reason))) {
+            return false;
+        }
+        if (newTasks.merge(t)) {
+            removeTask(t, "Merged (new task buffer)", CycleProfiler.Count.MERGED);
+            return false;
+        }
+        final Task shed = newTasks.add(t);
+        if (shed != null) {
+            derivations.forget(shed);
+            removeTask(shed, "Shed (new task buffer full)", CycleProfiler.Count.SHED);
+            if (shed == t) {
+                return false;
+            }
+        }
       //  logic.TASK_ADD_NEW.commit(t.getPriority());
         emit(Events.TaskAdd.class, t, reason);
         output(t);
+        return true;
+    }
+    
+    /**
+     * add a derived task, unless the same sentence was derived in the last cycles,
+     * then its budget is merged into the earlier task
+     */
+    public void addDerivedTask(final Task t, final String reason) {
+        if (firing != null && ParallelInferenceControl.defer(() -> addDerivedTask(t, reason))) {
+            return;
+        }
+        final Task earlier = derivations.earlier(t, cycle);
+        if (earlier != null) {
+            if (!newTasks.merge(t)) {
+                earlier.budget.merge(t.budget);
+            }
+            removeTask(t, "Duplicate derivation", CycleProfiler.Count.DUPLICATE);
+            return;
+        }
+        if (addNewTask(t, reason)) {
+            derivations.add(t, cycle);
+        }
     }
     
     boolean checked=false;
@@ -261,7 +420,7 @@ public class Memory implements Serializable, Iterable<Concept> {
             Task task = (Task)t;
             Stamp s = task.sentence.stamp;                        
             if (s.getCreationTime()==-1)
-                s.setCreationTime(time(), Parameters.DURATION);
+                s.setCreationTime(time(), param.duration.get());
 
             if(emitIn) {
                 emit(IN.class, task);
@@ -282,6 +441,12 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
 
     public void removeTask(final Task task, final String reason) {        
+        removeTask(task, reason, CycleProfiler.Count.REJECTED);
+    }
+    
+    /** removes a task, counting it in the profile as the given kind of removal */
+    public void removeTask(final Task task, final String reason, final CycleProfiler.Count count) {        
+        profiler.count(count);
         emit(TaskRemove.class, task, reason);
         task.end();        
     }
@@ -322,28 +487,103 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
     
     final public void emit(final Class c, final Object... signal) {        
+        if (firing != null && ParallelInferenceControl.defer(() -> event.emit(c, signal))) {
+            return;
+        }
         event.emit(c, signal);
     }
+    
+    /* Fixed arities, which do not allocate the signal when the event is not observed */
+    
+    final public void emit(final Class c) {
+        if (firing == null) {
+            event.emit(c);
+        } else if (event.isActive(c)) {
+            emit(c, new Object[0]);
+        }
+    }
+    
+    final public void emit(final Class c, final Object a) {
+        if (firing == null) {
+            event.emit(c, a);
+        } else if (event.isActive(c)) {
+            emit(c, new Object[] { a });
+        }
+    }
+    
+    final public void emit(final Class c, final Object a, final Object b) {
+        if (firing == null) {
+            event.emit(c, a, b);
+        } else if (event.isActive(c)) {
+            emit(c, new Object[] { a, b });
+        }
+    }
+    
+    final public void emit(final Class c, final Object a, final Object b, final Object d) {
+        if (firing == null) {
+            event.emit(c, a, b, d);
+        } else if (event.isActive(c)) {
+            emit(c, new Object[] { a, b, d });
+        }
+    }
+    
+    final public void emit(final Class c, final Object a, final Object b, final Object d, final Object e) {
+        if (firing == null) {
+            event.emit(c, a, b, d, e);
+        } else if (event.isActive(c)) {
+            emit(c, new Object[] { a, b, d, e });
+        }
+    }
 
     final public boolean emitting(final Class channel) {
         return event.isActive(channel);
     }
     
     public void conceptRemoved(Concept c) {
+        if (store != null) {
+            store.put(c);
+        }
         emit(Events.ConceptForget.class, c);
     }
     
     public void cycle(final NAR inputs) {
+        final Memory previous = enter();
+        try {
+            cycleBound();
+        } finally {
+            leave(previous);
+        }
+    }
+    
+    private void cycleBound() {
     
         event.emit(Events.CycleStart.class);
+        profiler.cycleStart(event.isActive(Events.CycleProfile.class));
         
+        long start = profiler.start();
         this.processNewTasks();
+        profiler.end(CycleProfiler.Phase.NEW_TASKS, start);
     //if(noResult()) //newTasks empty
+        start = profiler.start();
         this.processNovelTask();
+        profiler.end(CycleProfiler.Phase.NOVEL_TASK, start);
     //if(noResult()) //newTasks empty
-        GeneralInferenceControl.selectConceptForInference(this);
+        start = profiler.start();
+        if (Parameters.CONCEPT_FIRING_THREADS > 1) {
+            if (parallel == null) {
+                parallel = new ParallelInferenceControl(this);
+            }
+            parallel.selectConceptsForInference(Parameters.CONCEPT_FIRING_THREADS);
+        } else {
+            GeneralInferenceControl.selectConceptForInference(this);
+        }
+        profiler.end(CycleProfiler.Phase.CONCEPT_FIRE, start);
         
         event.emit(Events.CycleEnd.class);
+        final CycleProfiler.Snapshot profile = profiler.cycleEnd();
+        if (profile != null) {
+            event.emit(Events.CycleProfile.class, profile);
+        }
         event.synch();
         
         cycle++;
@@ -355,14 +595,18 @@ public class Memory implements Serializable, Iterable<Concept> {
         cont.setCurrentTerm(task.getTerm());
         cont.setCurrentConcept(conceptualize(task.budget, cont.getCurrentTerm()));
         if (cont.getCurrentConcept() != null) {
+            final long start = profiler.start();
             boolean processed = ConceptProcessing.processTask(cont.getCurrentConcept(), cont, task);
+            profiler.end(CycleProfiler.Phase.PROCESS_TASK, start);
             if (processed) {
                 event.emit(Events.ConceptDirectProcessedTask.class, task);
             }
         }
         
         if (!task.sentence.isEternal() && !(task.sentence.term instanceof Operation)) {
+            final long start = profiler.start();
             TemporalInferenceControl.eventInference(task, cont);
+            profiler.end(CycleProfiler.RuleFamily.TEMPORAL, start);
         }
         
         //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
@@ -375,10 +619,16 @@ public class Memory implements Serializable, Iterable<Concept> {
      * buffer.
      */
     public void processNewTasks() {
-        Task task;
         int counter = newTasks.size();  // don't include new tasks produced in the current workCycle
+        if (Parameters.NEW_TASKS_PER_CYCLE > 0 && counter > Parameters.NEW_TASKS_PER_CYCLE) {
+            counter = Parameters.NEW_TASKS_PER_CYCLE; // the others wait for the next cycle
+        }
+        //taken out first, a bounded buffer would hand out higher priority tasks derived meanwhile
+        final List<Task> batch = new ArrayList<>(counter);
         while (counter-- > 0) {
-            task = newTasks.removeFirst();
+            batch.add(newTasks.next());
+        }
+        for (final Task task : batch) {
             boolean enterDirect = true;
             if (/*task.isElemOfSequenceBuffer() || task.isObservablePrediction() || */ enterDirect ||  task.isInput() || task.sentence.isQuest() || task.sentence.isQuestion() || concept(task.sentence.term)!=null) { // new input or existing concept
                 localInference(task);
@@ -427,13 +677,24 @@ public class Memory implements Serializable, Iterable<Concept> {
      }
 
     private long currentStampSerial = 0;
-    public long newStampSerial() {
+    public synchronized long newStampSerial() {
         return currentStampSerial++;
     }   
+    
+    /** the serial the next stamp will get */
+    public synchronized long stampSerial() {
+        return currentStampSerial;
+    }
+    
+    /** restores the clock and the stamp serials, used when a snapshot is read */
+    synchronized void restoreClock(final long cycle, final long stampSerial) {
+        this.cycle = cycle;
+        this.currentStampSerial = stampSerial;
+    }
 
     /** converts durations to cycles */
     public final float cycles(PortableDouble durations) {
-        return Parameters.DURATION * durations.floatValue();
+        return param.duration.get() * durations.floatValue();
     }
 
     @Override
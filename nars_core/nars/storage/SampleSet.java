@@ -0,0 +1,76 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.util.Arrays;
+
+/**
+ * The items taken from a bag in one round of sampling, to skip those which were already
+ * tried. Clearing advances an epoch instead of emptying the table, so one instance is
+ * reused for every round without allocating, unless a round takes more items than ever.
+ */
+public class SampleSet<E> {
+
+    private Object[] items = new Object[16];
+    /** the epoch in which a slot was filled, slots of older epochs are empty */
+    private int[] epochs = new int[16];
+    private int epoch = 1;
+    private int size;
+
+    public void clear() {
+        if (++epoch == 0) {
+            Arrays.fill(epochs, 0);
+            epoch = 1;
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(final Object item) {
+        final int mask = items.length - 1;
+        int h = item.hashCode();
+        int i = (h ^ (h >>> 16)) & mask;
+        while (epochs[i] == epoch && !item.equals(items[i])) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    public boolean contains(final E item) {
+        return epochs[slot(item)] == epoch;
+    }
+
+    /** @return false if the item was already added since the last clear */
+    public boolean add(final E item) {
+        if ((size + 1) * 2 > items.length) {
+            grow();
+        }
+        final int i = slot(item);
+        if (epochs[i] == epoch) {
+            return false;
+        }
+        items[i] = item;
+        epochs[i] = epoch;
+        size++;
+        return true;
+    }
+
+    private void grow() {
+        final Object[] oldItems = items;
+        final int[] oldEpochs = epochs;
+        items = new Object[oldItems.length * 2];
+        epochs = new int[oldItems.length * 2];
+        for (int i = 0; i < oldItems.length; i++) {
+            if (oldEpochs[i] == epoch) {
+                final int s = slot(oldItems[i]);
+                items[s] = oldItems[i];
+                epochs[s] = epoch;
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.entity.TruthValue;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.NarseseParser;
+import nars.language.Term;
+import nars.main.Parameters;
+import static nars.storage.SnapshotWriter.ANALYTIC;
+import static nars.storage.SnapshotWriter.CONCEPT;
+import static nars.storage.SnapshotWriter.END;
+import static nars.storage.SnapshotWriter.FULL;
+import static nars.storage.SnapshotWriter.INPUT;
+import static nars.storage.SnapshotWriter.MAGIC;
+import static nars.storage.SnapshotWriter.OBSERVABLE_PREDICTION;
+import static nars.storage.SnapshotWriter.SEQUENCE_BUFFER;
+import static nars.storage.SnapshotWriter.TEMPORAL_INDUCTION;
+import static nars.storage.SnapshotWriter.VERSION;
+
+/**
+ * Restores a Memory from the snapshots of a SnapshotWriter.
+ *
+ * A full snapshot resets the memory and replaces its concepts. The incremental
+ * checkpoints following it have to be read in the order they were written; each one
+ * replaces the changed concepts and removes the concepts which were forgotten meanwhile.
+ * Terms are parsed with the operators registered in the memory.
+ */
+public class SnapshotReader {
+
+    private final Memory memory;
+    /** the term table of the chain */
+    private final List<Term> terms = new ArrayList<>();
+    /** the tasks of the current snapshot */
+    private final List<Task> tasks = new ArrayList<>();
+    /** number of the last checkpoint read, -1 before the first full snapshot */
+    private long checkpoint = -1;
+
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private ReadableByteChannel in;
+
+    public SnapshotReader(final Memory memory) {
+        this.memory = memory;
+    }
+
+    /** reads a full snapshot followed by its incremental checkpoints */
+    public int read(final Path... files) throws IOException {
+        int n = 0;
+        for (final Path f : files) {
+            try (FileChannel c = FileChannel.open(f)) {
+                n += read(c);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Reads a full snapshot or the next incremental checkpoint of the chain.
+     *
+     * @return the number of concepts read
+     */
+    public int read(final ReadableByteChannel in) throws IOException {
+        this.in = in;
+        buf.clear().flip();
+        try {
+            need(31);
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("not a memory snapshot");
+            }
+            final short version = buf.getShort();
+            if (version > VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            final boolean full = buf.get() == FULL;
+            final long number = buf.getLong();
+            if (full) {
+                terms.clear();
+                memory.reset();
+            } else if (checkpoint == -1 || number != checkpoint + 1) {
+                throw new IOException("checkpoint " + number + " does not follow checkpoint " + checkpoint);
+            }
+            checkpoint = -1; //until the checkpoint is complete
+            final long time = buf.getLong();
+            memory.restoreClock(time, buf.getLong());
+
+            //remove the concepts which were forgotten since the previous checkpoint
+            final int live = getInt();
+            final HashSet<Term> liveTerms = new HashSet<>(live * 2);
+            for (int i = 0; i < live; i++) {
+                liveTerms.add(term());
+            }
+            if (!full) {
+                final List<Term> forgotten = new ArrayList<>();
+                for (final Concept c : memory.concepts) {
+                    if (!liveTerms.contains(c.term)) {
+                        forgotten.add(c.term);
+                    }
+                }
+                for (final Term t : forgotten) {
+                    memory.concepts.take(t);
+                }
+            }
+
+            int read = 0;
+            byte record;
+            while ((record = get()) == CONCEPT) {
+                final Concept c = concept();
+                memory.concepts.take(c.term);
+                memory.concepts.putIn(c);
+                read++;
+            }
+            if (record != END) {
+                throw new IOException("invalid record " + record);
+            }
+            checkpoint = number;
+            return read;
+        } finally {
+            tasks.clear();
+            this.in = null;
+        }
+    }
+
+    /** reads a record of SnapshotWriter.writeConcept, without adding the concept to the memory */
+    Concept readConcept(final ReadableByteChannel in) throws IOException {
+        terms.clear();
+        checkpoint = -1;
+        this.in = in;
+        buf.clear().flip();
+        try {
+            return concept();
+        } finally {
+            terms.clear();
+            tasks.clear();
+            this.in = null;
+        }
+    }
+
+    /** makes sure the buffer has the bytes remaining */
+    private void need(final int bytes) throws IOException {
+        if (buf.remaining() >= bytes) {
+            return;
+        }
+        buf.compact();
+        while (buf.position() < bytes) {
+            if (in.read(buf) == -1) {
+                throw new EOFException("snapshot truncated");
+            }
+        }
+        buf.flip();
+    }
+
+    private byte get() throws IOException {
+        need(1);
+        return buf.get();
+    }
+
+    private int getInt() throws IOException {
+        need(4);
+        return buf.getInt();
+    }
+
+    private long getLong() throws IOException {
+        need(8);
+        return buf.getLong();
+    }
+
+    private String getString() throws IOException {
+        final byte[] b = new byte[getInt()];
+        for (int i = 0; i < b.length; ) {
+            need(1);
+            final int n = Math.min(buf.remaining(), b.length - i);
+            buf.get(b, i, n);
+            i += n;
+        }
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private Term term() throws IOException {
+        final int id = getInt();
+        if (id < terms.size()) {
+            return terms.get(id);
+        }
+        if (id != terms.size()) {
+            throw new IOException("invalid term reference " + id);
+        }
+        final String s = getString();
+        final Term t;
+        try {
+            t = NarseseParser.parseTerm(memory, s);
+        } catch (InvalidInputException e) {
+            throw new IOException("invalid term " + s, e);
+        }
+        terms.add(t);
+        return t;
+    }
+
+    private BudgetValue budget() throws IOException {
+        need(20);
+        final BudgetValue b = new BudgetValue(buf.getFloat(), buf.getFloat(), buf.getFloat());
+        restoreForgetTime(b, buf.getLong());
+        return b;
+    }
+
+    /** Items clone their budget without the time it was last forgotten */
+    private static void restoreForgetTime(final BudgetValue b, final long time) {
+        if (time != -1) {
+            b.setLastForgetTime(time);
+        }
+    }
+
+    private short[] index() throws IOException {
+        final int length = get();
+        if (length == -1) {
+            return null;
+        }
+        need(2 * length);
+        final short[] index = new short[length];
+        for (int i = 0; i < length; i++) {
+            index[i] = buf.getShort();
+        }
+        return index;
+    }
+
+    private Concept concept() throws IOException {
+        final Term term = term();
+        final BudgetValue budget = budget();
+        final Concept c = new Concept(budget, term, memory);
+        restoreForgetTime(c.budget, budget.getLastForgetTime());
+        c.observable = get() != 0;
+        tasks(c.beliefs);
+        tasks(c.desires);
+        tasks(c.questions);
+        tasks(c.quests);
+        tasks(c.executable_preconditions);
+
+        for (int n = getInt(); n > 0; n--) {
+            final Task t = task();
+            final short type = getShort();
+            final short[] index = index();
+            final BudgetValue b = budget();
+            final TaskLink l = new TaskLink(t, type, index, b, Parameters.TERM_LINK_RECORD_LENGTH);
+            restoreForgetTime(l.budget, b.getLastForgetTime());
+            c.taskLinks.putIn(l);
+        }
+        for (int n = getInt(); n > 0; n--) {
+            final Term target = term();
+            final short type = getShort();
+            final short[] index = index();
+            final BudgetValue b = budget();
+            final TermLink l = new TermLink(target, type, index, b);
+            restoreForgetTime(l.budget, b.getLastForgetTime());
+            c.termLinks.putIn(l);
+        }
+        return c;
+    }
+
+    private short getShort() throws IOException {
+        need(2);
+        return buf.getShort();
+    }
+
+    private void tasks(final List<Task> list) throws IOException {
+        for (int n = getInt(); n > 0; n--) {
+            list.add(task());
+        }
+    }
+
+    private Task task() throws IOException {
+        final int id = getInt();
+        if (id < tasks.size()) {
+            return tasks.get(id);
+        }
+        if (id != tasks.size()) {
+            throw new IOException("invalid task reference " + id);
+        }
+        final Sentence s = sentence();
+        final BudgetValue b = budget();
+        final byte flags = get();
+        final Sentence parentBelief = optionalSentence();
+        final Sentence bestSolution = optionalSentence();
+        final Task t = new Task(s, b, parentBelief, bestSolution, (flags & INPUT) != 0);
+        restoreForgetTime(t.budget, b.getLastForgetTime());
+        t.setElemOfSequenceBuffer((flags & SEQUENCE_BUFFER) != 0);
+        t.setObservablePrediction((flags & OBSERVABLE_PREDICTION) != 0);
+        tasks.add(t);
+        return t;
+    }
+
+    private Sentence optionalSentence() throws IOException {
+        return get() == 0 ? null : sentence();
+    }
+
+    private Sentence sentence() throws IOException {
+        final Term term = term();
+        need(28);
+        final char punctuation = buf.getChar();
+        final byte flags = buf.get();
+        TruthValue truth = null;
+        if (buf.get() != 0) {
+            truth = new TruthValue(buf.getFloat(), buf.getFloat(), (flags & ANALYTIC) != 0);
+        }
+        final long creationTime = buf.getLong();
+        final long occurrenceTime = buf.getLong();
+        final long[] base = new long[getInt()];
+        for (int i = 0; i < base.length; i++) {
+            base[i] = getLong();
+        }
+        final Stamp stamp = new Stamp(base, creationTime, occurrenceTime);
+        final Sentence s = new Sentence(term, punctuation, truth, stamp);
+        //questions are made eternal when created but may get an occurrence time later
+        stamp.setOccurrenceTime(occurrenceTime);
+        s.producedByTemporalInduction = (flags & TEMPORAL_INDUCTION) != 0;
+        return s;
+    }
+}
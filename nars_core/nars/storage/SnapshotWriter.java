@@ -0,0 +1,304 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.entity.TruthValue;
+import nars.language.Term;
+
+/**
+ * Writes the concepts of a Memory in a versioned binary format to a NIO channel,
+ * with their beliefs, desires, questions, quests, task links and term links.
+ *
+ * A snapshot consists of a header (magic, version, kind, checkpoint number, clock and
+ * stamp serial), the terms of all concepts in the memory, the changed concepts and an end mark.
+ * Terms are written as Narsese where they occur first and as index into the term table
+ * afterwards. Tasks are written once per snapshot and referenced by index afterwards.
+ *
+ * A full snapshot contains all concepts and starts a chain of checkpoints. An incremental
+ * checkpoint only contains the concepts which changed since the previous checkpoint of the
+ * chain, its term table continues the one of the chain. SnapshotReader reads a chain in order.
+ *
+ * Not thread safe, write while the memory does not cycle, like from an Events.CycleEnd observer.
+ */
+public class SnapshotWriter {
+
+    public static final int MAGIC = 0x4E415253; // "NARS"
+    public static final short VERSION = 1;
+
+    static final byte FULL = 0, INCREMENTAL = 1;
+    static final byte CONCEPT = 1, END = 2;
+    static final byte INPUT = 1, SEQUENCE_BUFFER = 2, OBSERVABLE_PREDICTION = 4, TEMPORAL_INDUCTION = 8, ANALYTIC = 16;
+
+    private final Memory memory;
+    /** the term table of the chain */
+    private final HashMap<Term, Integer> terms = new HashMap<>();
+    /** the tasks of the current snapshot */
+    private final IdentityHashMap<Task, Integer> tasks = new IdentityHashMap<>();
+    /** number of the last checkpoint of the chain, -1 if a full snapshot is needed */
+    private long checkpoint = -1;
+
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private WritableByteChannel out;
+
+    public SnapshotWriter(final Memory memory) {
+        this.memory = memory;
+    }
+
+    /** writes a full snapshot to a new file */
+    public int write(final Path file) throws IOException {
+        return write(file, true);
+    }
+
+    /** writes a full snapshot or an incremental checkpoint to a new file */
+    public int write(final Path file, final boolean full) throws IOException {
+        try (FileChannel c = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return write(c, full);
+        }
+    }
+
+    /**
+     * Writes a full snapshot or an incremental checkpoint.
+     * The first checkpoint, and the one after a failed write, is always full.
+     *
+     * @return the number of concepts written
+     */
+    public int write(final WritableByteChannel out, boolean full) throws IOException {
+        if (checkpoint == -1) {
+            full = true;
+        }
+        if (full) {
+            terms.clear();
+            checkpoint = -1;
+        }
+        final long number = checkpoint + 1;
+        checkpoint = -1; //until the snapshot is complete
+        this.out = out;
+        buf.clear();
+        try {
+            ensure(31);
+            buf.putInt(MAGIC);
+            buf.putShort(VERSION);
+            buf.put(full ? FULL : INCREMENTAL);
+            buf.putLong(number);
+            buf.putLong(memory.time());
+            buf.putLong(memory.stampSerial());
+
+            //the concepts in the memory, concepts missing in the chain afterwards were forgotten
+            putInt(memory.concepts.size());
+            for (final Concept c : memory.concepts) {
+                term(c.term);
+            }
+
+            int written = 0;
+            for (final Concept c : memory.concepts) {
+                if (full || c.changed) {
+                    put(CONCEPT);
+                    concept(c);
+                    written++;
+                }
+                c.changed = false;
+            }
+            put(END);
+            flush();
+            checkpoint = number;
+            return written;
+        } finally {
+            tasks.clear();
+            this.out = null;
+        }
+    }
+
+    /**
+     * Writes one concept as a record with its own term table, which can be read
+     * without the snapshots before it, used by ConceptStore.
+     * A writer used for records must not write snapshots.
+     */
+    void writeConcept(final WritableByteChannel out, final Concept c) throws IOException {
+        terms.clear();
+        checkpoint = -1;
+        this.out = out;
+        buf.clear();
+        try {
+            concept(c);
+            flush();
+        } finally {
+            terms.clear();
+            tasks.clear();
+            this.out = null;
+        }
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buf.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+
+    private void put(final byte b) throws IOException {
+        ensure(1);
+        buf.put(b);
+    }
+
+    private void putInt(final int i) throws IOException {
+        ensure(4);
+        buf.putInt(i);
+    }
+
+    private void putLong(final long l) throws IOException {
+        ensure(8);
+        buf.putLong(l);
+    }
+
+    private void putString(final String s) throws IOException {
+        final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        putInt(b.length);
+        for (int i = 0; i < b.length; ) {
+            if (!buf.hasRemaining()) {
+                flush();
+            }
+            final int n = Math.min(buf.remaining(), b.length - i);
+            buf.put(b, i, n);
+            i += n;
+        }
+    }
+
+    private void term(final Term t) throws IOException {
+        final Integer id = terms.get(t);
+        if (id != null) {
+            putInt(id);
+        } else {
+            putInt(terms.size());
+            terms.put(t, terms.size());
+            putString(t.name().toString());
+        }
+    }
+
+    private void budget(final BudgetValue b) throws IOException {
+        ensure(20);
+        buf.putFloat(b.getPriority());
+        buf.putFloat(b.getDurability());
+        buf.putFloat(b.getQuality());
+        buf.putLong(b.getLastForgetTime());
+    }
+
+    private void index(final short[] index) throws IOException {
+        if (index == null) {
+            put((byte) -1);
+            return;
+        }
+        ensure(1 + 2 * index.length);
+        buf.put((byte) index.length);
+        for (final short i : index) {
+            buf.putShort(i);
+        }
+    }
+
+    private void concept(final Concept c) throws IOException {
+        term(c.term);
+        budget(c.budget);
+        put(c.observable ? (byte) 1 : 0);
+        tasks(c.beliefs);
+        tasks(c.desires);
+        tasks(c.questions);
+        tasks(c.quests);
+        tasks(c.executable_preconditions);
+
+        putInt(c.taskLinks.size());
+        for (final TaskLink l : c.taskLinks) {
+            task(l.targetTask);
+            ensure(2);
+            buf.putShort(l.type);
+            index(l.index);
+            budget(l.budget);
+        }
+        putInt(c.termLinks.size());
+        for (final TermLink l : c.termLinks) {
+            term(l.target);
+            ensure(2);
+            buf.putShort(l.type);
+            index(l.index);
+            budget(l.budget);
+        }
+    }
+
+    private void tasks(final List<Task> list) throws IOException {
+        putInt(list.size());
+        for (final Task t : list) {
+            task(t);
+        }
+    }
+
+    private void task(final Task t) throws IOException {
+        final Integer id = tasks.get(t);
+        if (id != null) {
+            putInt(id);
+            return;
+        }
+        putInt(tasks.size());
+        tasks.put(t, tasks.size());
+        sentence(t.sentence);
+        budget(t.budget);
+        put((byte) ((t.isInput() ? INPUT : 0)
+                | (t.isElemOfSequenceBuffer() ? SEQUENCE_BUFFER : 0)
+                | (t.isObservablePrediction() ? OBSERVABLE_PREDICTION : 0)));
+        optionalSentence(t.getParentBelief());
+        optionalSentence(t.getBestSolution());
+    }
+
+    private void optionalSentence(final Sentence s) throws IOException {
+        put(s == null ? (byte) 0 : 1);
+        if (s != null) {
+            sentence(s);
+        }
+    }
+
+    private void sentence(final Sentence s) throws IOException {
+        term(s.term);
+        final TruthValue truth = s.truth;
+        final Stamp stamp = s.stamp;
+        ensure(31);
+        buf.putChar(s.punctuation);
+        buf.put((byte) ((s.producedByTemporalInduction ? TEMPORAL_INDUCTION : 0)
+                | ((truth != null && truth.getAnalytic()) ? ANALYTIC : 0)));
+        if (truth != null) {
+            buf.put((byte) 1);
+            buf.putFloat(truth.getFrequency());
+            buf.putFloat(truth.getConfidence());
+        } else {
+            buf.put((byte) 0);
+        }
+        buf.putLong(stamp.getCreationTime());
+        buf.putLong(stamp.getOccurrenceTime());
+        putInt(stamp.evidentialBase.length);
+        for (final long serial : stamp.evidentialBase) {
+            putLong(serial);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import nars.entity.Item;
+
+/**
+ * Thread-safe Bag which splits its items by key hash into independently locked
+ * LevelBag stripes, so that several threads can takeNext / putBack at once.
+ *
+ * takeNext chooses the stripe with a probability proportional to its mass, and
+ * within the stripe the selection follows the Distributor of the LevelBag, so a
+ * stripe with few or low priority items is not chosen as often as a full one even
+ * if the keys are skewed or the bag is small. If the chosen stripe is locked by
+ * another thread, the next free one is taken instead, which only makes the
+ * selection approximately proportional under contention.
+ *
+ * The capacity is divided evenly among the stripes, so overflow removes the
+ * lowest priority item of the stripe the new item belongs to.
+ */
+public class StripedLevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    final LevelBag<E,K>[] stripe;
+    final ReentrantLock[] lock;
+    final int capacity;
+
+    /** stripe where the next takeNext starts looking if all stripes have no mass */
+    private final AtomicInteger nextStripe = new AtomicInteger();
+
+    public StripedLevelBag(int levels, int capacity, int stripes) {
+        this.capacity = capacity;
+        stripe = new LevelBag[stripes];
+        lock = new ReentrantLock[stripes];
+        final int stripeCapacity = Math.max(1, (capacity + stripes - 1) / stripes);
+        for (int i = 0; i < stripes; i++) {
+            stripe[i] = new LevelBag<>(levels, stripeCapacity);
+            lock[i] = new ReentrantLock();
+        }
+    }
+
+    private int stripeOf(final K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % stripe.length;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < stripe.length; i++) {
+            lock[i].lock();
+            try {
+                stripe[i].clear();
+            } finally {
+                lock[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public E get(final K key) {
+        final int s = stripeOf(key);
+        lock[s].lock();
+        try {
+            return stripe[s].get(key);
+        } finally {
+            lock[s].unlock();
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        for (int i = 0; i < stripe.length; i++) {
+            lock[i].lock();
+            try {
+                keys.addAll(stripe[i].keySet());
+            } finally {
+                lock[i].unlock();
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public float getMass() {
+        float mass = 0;
+        for (LevelBag<E,K> s : stripe) {
+            mass += s.getMass();
+        }
+        return mass;
+    }
+
+    /**
+     * a stripe chosen by a roulette over the masses of the stripes, which are read
+     * without locking and may be slightly out of date
+     */
+    private int chooseStripe() {
+        float total = 0;
+        for (LevelBag<E,K> s : stripe) {
+            total += s.getMass();
+        }
+        if (total <= 0) {
+            return (nextStripe.getAndIncrement() & 0x7fffffff) % stripe.length;
+        }
+        float r = Memory.random().nextFloat() * total;
+        int last = 0;
+        for (int i = 0; i < stripe.length; i++) {
+            final float m = stripe[i].getMass();
+            if (m > 0) {
+                r -= m;
+                if (r < 0) {
+                    return i;
+                }
+                last = i;
+            }
+        }
+        //the masses changed since they were summed
+        return last;
+    }
+
+    @Override
+    public E takeNext() {
+        final int start = chooseStripe();
+        //first round: only stripes which are not in use by other threads
+        for (int i = 0; i < stripe.length; i++) {
+            final int s = (start + i) % stripe.length;
+            if (stripe[s].size() == 0 || !lock[s].tryLock())
+                continue;
+            try {
+                E e = stripe[s].takeNext();
+                if (e != null)
+                    return e;
+            } finally {
+                lock[s].unlock();
+            }
+        }
+        //second round: wait for the stripes which were busy
+        for (int i = 0; i < stripe.length; i++) {
+            final int s = (start + i) % stripe.length;
+            lock[s].lock();
+            try {
+                E e = stripe[s].takeNext();
+                if (e != null)
+                    return e;
+            } finally {
+                lock[s].unlock();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public E peekNext() {
+        E e = takeNext();
+        if (e != null)
+            putIn(e);
+        return e;
+    }
+
+    @Override
+    public E putIn(final E newItem) {
+        final int s = stripeOf(newItem.name());
+        lock[s].lock();
+        try {
+            return stripe[s].putIn(newItem);
+        } finally {
+            lock[s].unlock();
+        }
+    }
+
+    @Override
+    protected E addItem(final E newItem) {
+        final int s = stripeOf(newItem.name());
+        lock[s].lock();
+        try {
+            return stripe[s].addItem(newItem);
+        } finally {
+            lock[s].unlock();
+        }
+    }
+
+    @Override
+    public E take(final K key) {
+        final int s = stripeOf(key);
+        lock[s].lock();
+        try {
+            return stripe[s].take(key);
+        } finally {
+            lock[s].unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (LevelBag<E,K> s : stripe) {
+            size += s.size();
+        }
+        return size;
+    }
+
+    /** snapshot of the items, sorted by descending priority */
+    @Override
+    public List<E> values() {
+        List<E> items = new ArrayList<>(size());
+        for (int i = 0; i < stripe.length; i++) {
+            lock[i].lock();
+            try {
+                items.addAll(stripe[i].values());
+            } finally {
+                lock[i].unlock();
+            }
+        }
+        items.sort((a, b) -> Float.compare(b.getPriority(), a.getPriority()));
+        return items;
+    }
+
+    @Override
+    public float getAveragePriority() {
+        final int size = size();
+        if (size == 0) {
+            return 0.01f;
+        }
+        float f = getMass() / size;
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return Collections.unmodifiableList(values()).iterator();
+    }
+
+    public int getStripes() {
+        return stripe.length;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import nars.entity.Task;
+
+/**
+ * The new tasks waiting to be processed in the next cycle.
+ *
+ * Without a capacity it is a plain queue. With a capacity, it only keeps that many tasks
+ * with the highest priority: a task equal to a waiting one is merged into it, and when
+ * the buffer is full the task with the lowest priority is shed, which can be the new one.
+ * The tasks are then taken in the order of their priority, the oldest first among equal
+ * ones, so that a cycle which only processes some of them processes the most important.
+ */
+public class TaskBuffer implements Iterable<Task>, Serializable {
+
+    private static final class Entry implements Comparable<Entry>, Serializable {
+        final Task task;
+        /** the priority when added, the task may change it while waiting */
+        final float priority;
+        final long serial;
+
+        Entry(final Task task, final long serial) {
+            this.task = task;
+            this.priority = task.getPriority();
+            this.serial = serial;
+        }
+
+        @Override
+        public int compareTo(final Entry e) {
+            final int c = Float.compare(priority, e.priority);
+            return c != 0 ? c : Long.compare(e.serial, serial);
+        }
+    }
+
+    /** maximum number of waiting tasks, 0 for no limit */
+    public final int capacity;
+
+    private final ArrayDeque<Task> queue;
+    /** the waiting tasks from the lowest to the highest priority, if there is a capacity */
+    private final TreeSet<Entry> ranked;
+    private final Map<Task, Entry> waiting;
+    private long serial;
+
+    public TaskBuffer(final int capacity) {
+        this.capacity = capacity;
+        if (capacity > 0) {
+            queue = null;
+            ranked = new TreeSet<>();
+            waiting = new HashMap<>(capacity * 2);
+        } else {
+            queue = new ArrayDeque<>();
+            ranked = null;
+            waiting = null;
+        }
+    }
+
+    public int size() {
+        return queue != null ? queue.size() : ranked.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        if (queue != null) {
+            queue.clear();
+        } else {
+            ranked.clear();
+            waiting.clear();
+        }
+    }
+
+    /**
+     * Merges the budget of a task into an equal waiting one, which is then ranked by
+     * the merged priority. Only a buffer with a capacity merges.
+     *
+     * @return whether the task was merged and does not need to be added
+     */
+    public boolean merge(final Task t) {
+        if (waiting == null) {
+            return false;
+        }
+        final Entry e = waiting.get(t);
+        if (e == null) {
+            return false;
+        }
+        e.task.budget.merge(t.budget);
+        ranked.remove(e);
+        final Entry merged = new Entry(e.task, e.serial);
+        ranked.add(merged);
+        waiting.put(e.task, merged);
+        return true;
+    }
+
+    /**
+     * Adds a task, shedding the one with the lowest priority if the buffer is full.
+     *
+     * @return the shed task, which is the given one if all waiting tasks have a higher
+     * priority, or null if none was shed
+     */
+    public Task add(final Task t) {
+        if (queue != null) {
+            queue.add(t);
+            return null;
+        }
+        Task shed = null;
+        if (ranked.size() >= capacity) {
+            final Entry lowest = ranked.first();
+            if (t.getPriority() <= lowest.priority) {
+                return t;
+            }
+            remove(lowest);
+            shed = lowest.task;
+        }
+        final Entry e = new Entry(t, serial++);
+        ranked.add(e);
+        waiting.put(t, e);
+        return shed;
+    }
+
+    /** removes the next task to process, null if there is none */
+    public Task next() {
+        if (queue != null) {
+            return queue.poll();
+        }
+        final Entry e = ranked.pollLast();
+        if (e == null) {
+            return null;
+        }
+        waiting.remove(e.task);
+        return e.task;
+    }
+
+    /** the waiting tasks in the order they would be processed */
+    @Override
+    public Iterator<Task> iterator() {
+        if (queue != null) {
+            return queue.iterator();
+        }
+        final Iterator<Entry> i = ranked.descendingIterator();
+        return new Iterator<Task>() {
+            @Override public boolean hasNext() {
+                return i.hasNext();
+            }
+            @Override public Task next() {
+                return i.next().task;
+            }
+        };
+    }
+
+    private void remove(final Entry e) {
+        ranked.remove(e);
+        waiting.remove(e.task);
+    }
+}
@@ -747,7 +747,7 @@ public class NARControls extends JPanel implements ActionListener, EventObserver
         c.ipady = 4;
 
         p.add(new NSlider(memory.param.decisionThreshold, "Decision Threshold", 0.0f, 1.0f), c);
-        p.add(new NSlider(Parameters.projectionDecay, "Projection Decay", 0.0f, 1.0f), c);
+        p.add(new NSlider(memory.param.projectionDecay, "Projection Decay", 0.0f, 1.0f), c);
         p.add(new NSlider(memory.param.taskLinkForgetDurations, "Task Duration", 0.0f, 20), c);
         p.add(new NSlider(memory.param.termLinkForgetDurations, "Belief Duration", 0.0f, 20), c);
         p.add(new NSlider(memory.param.conceptForgetDurations, "Concept Duration", 0.0f, 20), c);
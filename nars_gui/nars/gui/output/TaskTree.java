@@ -170,7 +170,8 @@ public class TaskTree extends NPanel implements EventObserver, Runnable {
         }
         
         if (includeNewTasks)
-            t.addAll(mem.newTasks);
+            for (Task n : mem.newTasks)
+                t.add(n);
         
         if (includeNovelTasks)
             for (Task n : mem.novelTasks)
@@ -107,7 +107,7 @@ public class GlobalAnticipation implements Plugin, EventEmitter.EventObserver {
             return;
         }
         
-        final long duration = Parameters.DURATION;
+        final long duration = nal.memory.param.duration.get();
         ArrayList<Task> derivetasks=new ArrayList<Task>();
         
         for(final Task c : current_tasks) { //a =/> b or (&/ a1...an) =/> b
@@ -0,0 +1,95 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import nars.control.DerivationContext;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Symbols;
+import nars.io.events.Events;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.operator.mental.Anticipate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class AnticipateTest {
+
+    final NAR nar = new NAR();
+    final List<Term> disappointed = new ArrayList<>();
+    final Anticipate anticipate = new Anticipate() {
+        @Override protected void deriveDidntHappen(Term aTerm, long expectedOccurenceTime) {
+            disappointed.add(aTerm);
+        }
+    };
+
+    Term term(String s) throws Exception {
+        return nar.narsese().parseTerm(s);
+    }
+
+    void happens(Term t) {
+        Sentence s = new Sentence(t, Symbols.JUDGMENT_MARK, new TruthValue(1f, 0.9f),
+                new Stamp(nar.memory, Tense.Present));
+        anticipate.event(Events.InduceSucceedingEvent.class,
+                new Object[] { new Task(s, new BudgetValue(0.8f, 0.5f, 0.5f), true), new DerivationContext(nar.memory) });
+    }
+
+    void cycleEnd() {
+        anticipate.event(Events.CycleEnd.class, null);
+    }
+
+    @Test public void testConfirmAndExpire() throws Exception {
+        anticipate.setAnticipationAsOperator(false);
+        Term a = term("<a --> b>"), c = term("<c --> d>");
+        long now = nar.time();
+        anticipate.anticipate(a, nar.memory, now + 5, null);
+        anticipate.anticipate(c, nar.memory, now + 5, null);
+        anticipate.anticipate(a, nar.memory, now + 1000, null);
+
+        //only the first anticipation of the term is confirmed, nothing expired yet
+        happens(a);
+        cycleEnd();
+        assertTrue(disappointed.isEmpty());
+
+        //expires once the interval to the predicted time has passed ANTICIPATION_TOLERANCE times
+        nar.cycles(300);
+        cycleEnd();
+        assertEquals(1, disappointed.size());
+        assertEquals(c, disappointed.get(0));
+
+        //the later anticipation of the same term is still pending
+        happens(a);
+        cycleEnd();
+        nar.cycles(100000);
+        cycleEnd();
+        assertEquals(1, disappointed.size());
+    }
+
+    @Test public void testExpireInOrder() throws Exception {
+        anticipate.setAnticipationAsOperator(false);
+        long now = nar.time();
+        for (int i = 0; i < 20; i++) {
+            anticipate.anticipate(term("<x" + i + " --> y>"), nar.memory, now + 3 + (i % 5) * 4, null);
+        }
+        happens(term("<x19 --> y>"));
+        cycleEnd();
+        nar.cycles(10000);
+        cycleEnd();
+        assertEquals(19, disappointed.size());
+        //handled in the order they were made, not in the order they expired
+        for (int i = 0; i < 19; i++) {
+            assertEquals(term("<x" + i + " --> y>"), disappointed.get(i));
+        }
+    }
+
+}
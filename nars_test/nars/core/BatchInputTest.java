@@ -0,0 +1,44 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+public class BatchInputTest {
+
+    @Test public void testAddInputs() {
+        NAR n = new NAR();
+        List<NAR.InputError> errors = n.addInputs(Arrays.asList(
+                "'a comment",
+                "<a --> b>.",
+                "",
+                "<b --> c>. :|:",
+                "10",
+                "<b --> >.",
+                "<c --> d>?"));
+
+        assertEquals(1, errors.size());
+        assertEquals(6, errors.get(0).line);
+        assertEquals(0, n.time());
+        assertEquals(3, n.memory.newTasks.size());
+    }
+
+    @Test public void testAddInputsFromReader() throws IOException {
+        NAR n = new NAR();
+        List<NAR.InputError> errors = n.addInputs(new StringReader("<a --> b>.\n<(*,a,b) --> c>!\nnot narsese\n"));
+
+        assertEquals(1, errors.size());
+        assertEquals(3, errors.get(0).line);
+        assertEquals(2, n.memory.newTasks.size());
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.Random;
+import nars.entity.BeliefTable;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.inference.LocalRules;
+import nars.io.Symbols;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.Memory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+
+public class BeliefTableTest {
+
+    static long serial = 0;
+
+    static Task task(Term term, char punctuation, TruthValue truth, long occurrence) {
+        Stamp stamp = new Stamp(new long[] { serial++ }, 0, occurrence);
+        Sentence s = new Sentence(term, punctuation, truth, stamp);
+        stamp.setOccurrenceTime(occurrence);
+        return new Task(s, new BudgetValue(0.5f, 0.5f, 0.5f), true);
+    }
+
+    /** the linear scan Concept.selectCandidate did before */
+    static Task scan(Task query, BeliefTable table, Memory memory) {
+        float currentBest = 0;
+        Task candidate = null;
+        for (Task t : table) {
+            float q = LocalRules.solutionQuality(true, query, t.sentence, memory);
+            if (q > currentBest) {
+                currentBest = q;
+                candidate = t;
+            }
+        }
+        return candidate;
+    }
+
+    @Test public void testSelectSameAsScan() {
+        NAR n = new NAR();
+        n.cycles(100);
+        Memory m = n.memory;
+        Term term = Term.get("a");
+        Random rng = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            BeliefTable table = new BeliefTable(false);
+            for (int i = 0; i < 28; i++) {
+                //few distinct values to get equal confidences and times
+                TruthValue truth = new TruthValue(rng.nextInt(3) / 2f, (1 + rng.nextInt(4)) / 5f);
+                long occurrence = rng.nextInt(3) == 0 ? Stamp.ETERNAL : 90 + rng.nextInt(20);
+                Concept.addToTable(task(term, Symbols.JUDGMENT_MARK, truth, occurrence), table, 28, false);
+                for (int q = 0; q < 5; q++) {
+                    long time = rng.nextInt(3) == 0 ? Stamp.ETERNAL : 90 + rng.nextInt(20);
+                    Task query = task(term, Symbols.QUESTION_MARK, null, time);
+                    assertSame(scan(query, table, m), table.select(query, m));
+                }
+            }
+        }
+    }
+
+    @Test public void testIndex() {
+        Term term = Term.get("a");
+        BeliefTable table = new BeliefTable(false);
+        Concept.addToTable(task(term, Symbols.JUDGMENT_MARK, new TruthValue(1, 0.9f), 5), table, 28, false);
+        Concept.addToTable(task(term, Symbols.JUDGMENT_MARK, new TruthValue(1, 0.5f), Stamp.ETERNAL), table, 28, false);
+        Concept.addToTable(task(term, Symbols.JUDGMENT_MARK, new TruthValue(1, 0.8f), Stamp.ETERNAL), table, 28, false);
+        assertEquals(2, table.eternalSize());
+        assertEquals(1, table.temporalSize());
+        assertSame(table.get(1), table.firstEternal());
+        table.remove(1);
+        assertSame(table.get(1), table.firstEternal());
+        assertEquals(0.5f, table.firstEternal().sentence.truth.getConfidence(), 0);
+    }
+
+}
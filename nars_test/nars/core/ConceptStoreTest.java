@@ -0,0 +1,146 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.ConceptStore;
+import nars.storage.Memory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+
+public class ConceptStoreTest {
+
+    /** forgets a concept like the concept bag does when it is displaced */
+    static Concept forget(Memory m, Term t) {
+        Concept c = m.concepts.take(t);
+        assertNotNull(t.toString(), c);
+        m.conceptRemoved(c);
+        return c;
+    }
+
+    @Test public void testRestore() throws IOException {
+        Path file = Files.createTempFile("concepts", ".bin");
+        NAR n = new NAR();
+        try (ConceptStore store = new ConceptStore(n.memory, file)) {
+            n.memory.setConceptStore(store);
+            n.addInput("<robin --> bird>.\n<bird --> animal>.\n<robin --> [flying]>. :|:\n<robin --> ?x>?");
+            n.cycles(50);
+
+            Term robin = Term.get("robin");
+            Concept c = forget(n.memory, robin);
+            String beliefs = SnapshotTest.tasks(c.beliefs);
+            assertTrue(store.contains(robin));
+            assertNull(n.memory.concepts.get(robin));
+
+            //faulted back in by a lookup
+            Concept d = n.memory.concept(robin);
+            assertNotNull(d);
+            assertSame(d, n.memory.concepts.get(robin));
+            assertEquals(beliefs, SnapshotTest.tasks(d.beliefs));
+            assertEquals(SnapshotTest.taskLinks(c), SnapshotTest.taskLinks(d));
+            assertEquals(c.termLinks.keySet(), d.termLinks.keySet());
+            assertFalse(store.contains(robin));
+
+            //and by conceptualize, which activates it
+            forget(n.memory, robin);
+            float priority = d.getPriority();
+            Concept e = n.memory.conceptualize(new BudgetValue(0.9f, 0.9f, 0.9f), robin);
+            assertNotNull(e);
+            assertEquals(beliefs, SnapshotTest.tasks(e.beliefs));
+            assertTrue(e.getPriority() > priority);
+            assertEquals(0, store.size());
+
+            n.cycles(50);
+            n.reset();
+            assertEquals(0, store.size());
+        } finally {
+            n.memory.setConceptStore(null);
+            Files.delete(file);
+        }
+    }
+
+    @Test public void testFailedPutKeepsPrevious() throws IOException {
+        Path file = Files.createTempFile("concepts", ".bin");
+        NAR n = new NAR();
+        try (ConceptStore store = new ConceptStore(n.memory, file)) {
+            n.memory.setConceptStore(store);
+            n.addInput("<robin --> bird>.\n<robin --> [flying]>.");
+            n.cycles(20);
+
+            Term robin = Term.get("robin");
+            Concept c = forget(n.memory, robin);
+            String beliefs = SnapshotTest.tasks(c.beliefs);
+            long bytes = store.bytes();
+
+            //fails in the middle of the record
+            c.questions.add(null);
+            try {
+                store.put(c);
+                fail();
+            } catch (NullPointerException e) {
+            }
+            assertEquals(bytes, store.bytes());
+            assertTrue(store.contains(robin));
+
+            Concept back = store.take(robin);
+            assertNotNull(back);
+            assertEquals(beliefs, SnapshotTest.tasks(back.beliefs));
+            assertEquals(0, back.questions.size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test public void testCompact() throws IOException {
+        Path file = Files.createTempFile("concepts", ".bin");
+        NAR n = new NAR();
+        try (ConceptStore store = new ConceptStore(n.memory, file)) {
+            n.memory.setConceptStore(store);
+            n.addInput("<a --> b>.\n<b --> c>.\n<c --> d>.\n<d --> e>.");
+            n.cycles(30);
+
+            List<Term> terms = new ArrayList();
+            List<String> beliefs = new ArrayList();
+            for (Concept c : n.memory) {
+                terms.add(c.term);
+            }
+            for (Term t : terms) {
+                beliefs.add(SnapshotTest.tasks(forget(n.memory, t).beliefs));
+            }
+            //take every second one and store it again, leaving garbage
+            for (int i = 0; i < terms.size(); i += 2) {
+                store.put(store.take(terms.get(i)));
+            }
+            long bytes = store.bytes();
+            store.compact();
+            assertTrue(store.bytes() < bytes);
+            assertEquals(terms.size(), store.size());
+            for (int i = 0; i < terms.size(); i++) {
+                Concept c = store.take(terms.get(i));
+                assertEquals(terms.get(i), c.term);
+                assertEquals(beliefs.get(i), SnapshotTest.tasks(c.beliefs));
+            }
+        } finally {
+            n.memory.setConceptStore(null);
+            Files.delete(file);
+        }
+    }
+
+}
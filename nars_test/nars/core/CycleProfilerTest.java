@@ -0,0 +1,55 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import nars.control.CycleProfiler;
+import nars.control.CycleProfiler.Count;
+import nars.control.CycleProfiler.Phase;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class CycleProfilerTest {
+
+    @Test public void testInactiveWithoutListeners() {
+        NAR n = new NAR();
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.cycles(50);
+
+        assertEquals(0, n.profile().cycles);
+        assertEquals(0, n.profile().nanos(Phase.CONCEPT_FIRE));
+    }
+
+    @Test public void testCycleProfileEvent() {
+        NAR n = new NAR();
+        final List<CycleProfiler.Snapshot> profiles = new ArrayList();
+        n.on(Events.CycleProfile.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                profiles.add((CycleProfiler.Snapshot)args[0]);
+            }
+        });
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.cycles(50);
+
+        assertEquals(n.profile().cycles, profiles.size());
+        assertTrue(n.profile().nanos(Phase.CONCEPT_FIRE) > 0);
+        assertTrue(n.profile().nanos(Phase.REASON) > 0);
+        assertTrue(n.profile().count(Count.DERIVED) > 0);
+
+        long derived = 0;
+        for (CycleProfiler.Snapshot s : profiles)
+            derived += s.count(Count.DERIVED);
+        assertEquals(n.profile().count(Count.DERIVED), derived);
+    }
+
+}
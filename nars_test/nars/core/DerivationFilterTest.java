@@ -0,0 +1,130 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import nars.control.CycleProfiler.Count;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Symbols;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.DerivationFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class DerivationFilterTest {
+
+    final NAR nar = new NAR();
+
+    Task task(Sentence s, float priority) {
+        return new Task(s, new BudgetValue(priority, 0.5f, 0.5f), true);
+    }
+
+    Sentence sentence(String term, float frequency, Stamp stamp) throws Exception {
+        return new Sentence(nar.narsese().parseTerm(term), Symbols.JUDGMENT_MARK,
+                new TruthValue(frequency, 0.9f), stamp);
+    }
+
+    @Test public void testWindow() throws Exception {
+        DerivationFilter f = new DerivationFilter(3);
+        Stamp stamp = new Stamp(nar.memory);
+        Task a = task(sentence("<a --> b>", 1f, stamp), 0.5f);
+        assertNull(f.earlier(a, 10));
+        f.add(a, 10);
+        assertSame(a, f.earlier(task(sentence("<a --> b>", 1f, stamp), 0.5f), 12));
+        //another truth or evidence is another derivation
+        assertNull(f.earlier(task(sentence("<a --> b>", 0f, stamp), 0.5f), 12));
+        assertNull(f.earlier(task(sentence("<a --> b>", 1f, new Stamp(nar.memory)), 0.5f), 12));
+        //forgotten after the window
+        Task again = task(sentence("<a --> b>", 1f, stamp), 0.5f);
+        assertNull(f.earlier(again, 13));
+        f.add(again, 13);
+        assertSame(again, f.earlier(task(sentence("<a --> b>", 1f, stamp), 0.5f), 14));
+        assertEquals(6, f.lookups());
+        assertEquals(2, f.hits());
+        assertEquals(2.0 / 6, f.hitRate(), 0.0001);
+        f.forget(again);
+        assertNull(f.earlier(again, 14));
+        f.clear();
+        assertEquals(0, f.size());
+    }
+
+    @Test public void testDisabled() throws Exception {
+        DerivationFilter f = new DerivationFilter(0);
+        Sentence s = sentence("<a --> b>", 1f, new Stamp(nar.memory));
+        assertNull(f.earlier(task(s, 0.5f), 1));
+        f.add(task(s, 0.5f), 1);
+        assertNull(f.earlier(task(s, 0.5f), 1));
+        assertEquals(0, f.lookups());
+    }
+
+    @Test public void testMemoryMergesRepeat() throws Exception {
+        final int cycles = Parameters.DERIVATION_FILTER_CYCLES;
+        Parameters.DERIVATION_FILTER_CYCLES = 5;
+        try {
+            NAR n = new NAR();
+            n.setProfiling(true);
+            n.cycles(1);
+            Sentence s = new Sentence(n.narsese().parseTerm("<a --> b>"), Symbols.JUDGMENT_MARK,
+                    new TruthValue(1f, 0.9f), new Stamp(n.memory));
+            Task first = task(s, 0.2f);
+            n.memory.addDerivedTask(first, "Derived");
+            n.memory.addDerivedTask(task(s, 0.7f), "Derived");
+            assertEquals(1, n.memory.newTasks.size());
+            assertSame(first, n.memory.newTasks.next());
+            assertEquals(0.7f, first.getPriority(), 0.001f);
+            assertEquals(1, n.memory.derivations.hits());
+
+            //reasoning finds repeats too
+            n.addInput("<a --> b>.\n<b --> c>.\n<c --> d>.\n<a --> c>.\n");
+            n.cycles(200);
+            assertTrue(n.memory.derivations.hits() > 1);
+            assertTrue(n.profile().count(Count.DUPLICATE) > 0);
+        } finally {
+            Parameters.DERIVATION_FILTER_CYCLES = cycles;
+        }
+    }
+
+    @Test public void testShedIsNotRemembered() throws Exception {
+        final int cycles = Parameters.DERIVATION_FILTER_CYCLES, capacity = Parameters.NEW_TASKS_CAPACITY;
+        Parameters.DERIVATION_FILTER_CYCLES = 5;
+        Parameters.NEW_TASKS_CAPACITY = 2;
+        try {
+            NAR n = new NAR();
+            Stamp stamp = new Stamp(n.memory);
+            n.memory.addDerivedTask(task(sentence("<x --> y>", 1f, stamp), 0.9f), "Derived");
+            n.memory.addDerivedTask(task(sentence("<y --> z>", 1f, stamp), 0.8f), "Derived");
+
+            //shed right away, a repeat with a higher priority is admitted
+            n.memory.addDerivedTask(task(sentence("<a --> b>", 1f, stamp), 0.1f), "Derived");
+            Task repeat = task(sentence("<a --> b>", 1f, stamp), 0.85f);
+            n.memory.addDerivedTask(repeat, "Derived");
+            assertEquals(0, n.memory.derivations.hits());
+            assertEquals(2, n.memory.newTasks.size());
+
+            //shed while waiting, forgotten too
+            n.memory.addDerivedTask(task(sentence("<c --> d>", 1f, stamp), 0.95f), "Derived");
+            Task again = task(sentence("<a --> b>", 1f, stamp), 0.92f);
+            n.memory.addDerivedTask(again, "Derived");
+            assertEquals(0, n.memory.derivations.hits());
+            n.memory.newTasks.next();
+            assertSame(again, n.memory.newTasks.next());
+            //queued, so remembered now
+            n.memory.addDerivedTask(task(sentence("<a --> b>", 1f, stamp), 0.5f), "Derived");
+            assertEquals(1, n.memory.derivations.hits());
+        } finally {
+            Parameters.DERIVATION_FILTER_CYCLES = cycles;
+            Parameters.NEW_TASKS_CAPACITY = capacity;
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Symbols;
+import nars.language.Tense;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.EventBag;
+import nars.storage.SampleSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class EventBagTest {
+
+    final NAR nar = new NAR();
+
+    Task event(String term, float priority) throws Exception {
+        Term t = nar.narsese().parseTerm(term);
+        Sentence s = new Sentence(t, Symbols.JUDGMENT_MARK, new TruthValue(1f, 0.9f),
+                new Stamp(nar.memory, Tense.Present));
+        return new Task(s, new BudgetValue(priority, 0.5f, 0.5f), true);
+    }
+
+    @Test public void testDuplicateDiffersInIntervals() throws Exception {
+        EventBag bag = new EventBag(10, 100);
+        Task a = event("(&/,<a --> b>,+3,<c --> d>)", 0.5f);
+        Task other = event("(&/,<a --> b>,+3,<e --> d>)", 0.5f);
+        bag.putIn(a);
+        bag.putIn(other);
+        assertSame(a, bag.duplicateOf(event("(&/,<a --> b>,+7,<c --> d>)", 0.5f)));
+        assertNull(bag.duplicateOf(event("(&/,<a --> b>,+7,<f --> d>)", 0.5f)));
+        bag.take(a);
+        assertNull(bag.duplicateOf(event("(&/,<a --> b>,+7,<c --> d>)", 0.5f)));
+    }
+
+    @Test public void testIndexFollowsTheBag() throws Exception {
+        EventBag bag = new EventBag(10, 3);
+        Task a = event("<a --> b>", 0.9f);
+        bag.putIn(a);
+        //sampled and not put back
+        assertSame(a, bag.takeNext());
+        assertNull(bag.duplicateOf(event("<a --> b>", 0.5f)));
+        bag.putBack(a, 10, nar.memory);
+        assertSame(a, bag.duplicateOf(event("<a --> b>", 0.5f)));
+
+        //overflow removes the lowest event from the index too
+        Task low = event("<x --> y>", 0.1f);
+        bag.putIn(low);
+        bag.putIn(event("<c --> d>", 0.9f));
+        bag.putIn(event("<e --> f>", 0.9f));
+        assertEquals(3, bag.size());
+        assertNull(bag.duplicateOf(event("<x --> y>", 0.5f)));
+
+        bag.clear();
+        assertNull(bag.duplicateOf(event("<a --> b>", 0.5f)));
+    }
+
+    @Test public void testSampleSet() {
+        SampleSet<String> s = new SampleSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(s.add("x" + i));
+        }
+        assertFalse(s.add("x5"));
+        assertTrue(s.contains("x99"));
+        assertEquals(100, s.size());
+        s.clear();
+        assertFalse(s.contains("x5"));
+        assertTrue(s.add("x5"));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import nars.io.events.EventEmitter;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.io.events.Events;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class EventEmitterTest {
+
+    @Test public void testOnOff() {
+        EventEmitter e = new EventEmitter();
+        List<String> log = new ArrayList();
+        EventObserver a = (c, args) -> log.add("a " + c.getSimpleName() + Arrays.toString(args));
+        EventObserver b = (c, args) -> log.add("b " + c.getSimpleName() + Arrays.toString(args));
+
+        assertFalse(e.isActive(Events.TaskDerive.class));
+        e.emit(Events.TaskDerive.class, 1, 2, 3);
+        e.on(Events.TaskDerive.class, a);
+        e.on(Events.TaskDerive.class, b);
+        e.on(Events.ConceptFire.class, a);
+        assertTrue(e.isActive(Events.TaskDerive.class));
+
+        e.emit(Events.TaskDerive.class, 1, 2, 3);
+        e.emit(Events.ConceptFire.class);
+        e.emit(Events.ConceptFire.class, new Object[] { 4, 5 });
+        e.off(Events.TaskDerive.class, a);
+        e.emit(Events.TaskDerive.class, 6);
+        e.off(Events.TaskDerive.class, b);
+        assertFalse(e.isActive(Events.TaskDerive.class));
+        e.emit(Events.TaskDerive.class, 7);
+
+        assertEquals(Arrays.asList("a TaskDerive[1, 2, 3]", "b TaskDerive[1, 2, 3]",
+                "a ConceptFire[]", "a ConceptFire[4, 5]", "b TaskDerive[6]"), log);
+        assertEquals(EventEmitter.id(Events.TaskDerive.class), EventEmitter.id(Events.TaskDerive.class));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOffUnknown() {
+        new EventEmitter().off(Events.CycleEnd.class, (c, args) -> { });
+    }
+
+    @Test public void testObserverRemovingItself() {
+        EventEmitter e = new EventEmitter();
+        int[] n = new int[2];
+        EventObserver[] self = new EventObserver[1];
+        self[0] = (c, args) -> { n[0]++; e.off(c, self[0]); };
+        e.on(Events.CycleEnd.class, self[0]);
+        e.on(Events.CycleEnd.class, (c, args) -> n[1]++);
+        e.emit(Events.CycleEnd.class);
+        e.emit(Events.CycleEnd.class);
+        assertEquals(1, n[0]);
+        assertEquals(2, n[1]);
+    }
+
+}
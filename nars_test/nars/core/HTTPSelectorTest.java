@@ -0,0 +1,126 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import nars.web.HTTPServeFiles;
+import nars.web.NARServer;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class HTTPSelectorTest {
+
+    static class Reply {
+        String status;
+        final Map<String, String> header = new HashMap();
+        byte[] body;
+
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** reads one response, null at the end of the stream */
+    static Reply read(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int b, n = 0;
+        while (n < 4 && (b = in.read()) >= 0) {
+            head.write(b);
+            n = (b == '\r' || b == '\n') ? n + 1 : 0;
+        }
+        if (head.size() == 0) {
+            return null;
+        }
+        String[] lines = head.toString("ISO-8859-1").split("\r\n");
+        Reply r = new Reply();
+        r.status = lines[0];
+        for (int i = 1; i < lines.length; i++) {
+            int p = lines[i].indexOf(':');
+            r.header.put(lines[i].substring(0, p).toLowerCase(), lines[i].substring(p + 1).trim());
+        }
+        r.body = new byte[Integer.parseInt(r.header.get("content-length"))];
+        for (int off = 0; off < r.body.length; ) {
+            int read = in.read(r.body, off, r.body.length - off);
+            assertTrue(read > 0);
+            off += read;
+        }
+        return r;
+    }
+
+    static Reply request(int port, String request) throws IOException {
+        try (Socket s = new Socket("localhost", port)) {
+            s.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+            return read(s.getInputStream());
+        }
+    }
+
+    @Test public void testKeepAliveAndFiles() throws IOException {
+        File dir = Files.createTempDirectory("http").toFile();
+        byte[] large = new byte[300000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i * 31);
+        }
+        Files.write(new File(dir, "large.bin").toPath(), large);
+        Files.write(new File(dir, "small.txt").toPath(), "<a --> b>.".getBytes(StandardCharsets.UTF_8));
+
+        HTTPServeFiles server = new HTTPServeFiles(0, dir, true);
+        try (Socket s = new Socket("localhost", server.getPort())) {
+            OutputStream out = s.getOutputStream();
+            InputStream in = s.getInputStream();
+            //pipelined on one connection
+            out.write(("GET /large.bin HTTP/1.1\r\nHost: x\r\n\r\n"
+                    + "GET /small.txt HTTP/1.1\r\nHost: x\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            Reply a = read(in), b = read(in);
+            assertEquals("HTTP/1.1 200 OK", a.status);
+            assertEquals("keep-alive", a.header.get("connection"));
+            assertArrayEquals(large, a.body);
+            assertEquals("text/plain", b.header.get("content-type"));
+            assertEquals("<a --> b>.", b.text());
+
+            out.write("GET /missing.txt HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+            Reply c = read(in);
+            assertEquals("HTTP/1.1 404 Not Found", c.status);
+            assertEquals("close", c.header.get("connection"));
+            assertEquals(-1, in.read());
+        }
+        assertTrue(request(server.getPort(), "garbage\r\n\r\n").status.contains("400"));
+        server.close();
+    }
+
+    @Test public void testRESTSession() throws Exception {
+        NARServer server = new NARServer(0, 0);
+        int port = server.getHTTPPort();
+        String narsese = "<robin --> bird>.\n<bird --> animal>.\n<robin --> animal>?";
+        Reply posted = request(port, "POST /nal HTTP/1.1\r\nContent-Type: text/plain\r\nContent-Length: "
+                + narsese.getBytes(StandardCharsets.UTF_8).length + "\r\n\r\n" + narsese);
+        assertEquals("HTTP/1.1 200 OK", posted.status);
+        String session = posted.text();
+
+        StringBuilder output = new StringBuilder();
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!output.toString().contains("Answer") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            output.append(request(port, "GET /nal?session=" + session + " HTTP/1.1\r\n\r\n").text());
+        }
+        assertTrue(output.toString(), output.toString().contains("Answer: <robin --> animal>."));
+
+        assertEquals("HTTP/1.1 200 OK", request(port, "DELETE /nal?session=" + session + " HTTP/1.1\r\n\r\n").status);
+        assertEquals("HTTP/1.1 404 Not Found", request(port, "GET /nal?session=" + session + " HTTP/1.1\r\n\r\n").status);
+        server.stop();
+    }
+
+}
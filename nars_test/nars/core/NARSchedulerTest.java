@@ -0,0 +1,80 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import nars.main.NAR;
+import nars.main.NARScheduler;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class NARSchedulerTest {
+
+    static void awaitStopped(List<NAR> nars) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        for (NAR n : nars) {
+            while (n.isRunning() && System.currentTimeMillis() < deadline)
+                Thread.sleep(5);
+        }
+    }
+
+    @Test public void testCycleBudgets() throws InterruptedException {
+        NARScheduler s = new NARScheduler(2, 1);
+        List<NAR> nars = new ArrayList();
+        for (int i = 0; i < 20; i++) {
+            NAR n = new NAR();
+            n.setScheduler(s);
+            n.addInput("<a" + i + " --> b>.");
+            s.tenant(n).setCycleBudget(30 + i);
+            n.start(0);
+            nars.add(n);
+        }
+        awaitStopped(nars);
+        for (int i = 0; i < nars.size(); i++) {
+            NAR n = nars.get(i);
+            assertFalse(n.isRunning());
+            assertEquals(30 + i, s.tenant(n).getCycles());
+            assertEquals(30 + i, n.time());
+        }
+        s.shutdown();
+    }
+
+    @Test public void testStopAndPriority() throws InterruptedException {
+        NARScheduler s = new NARScheduler(1, 1);
+        NAR low = new NAR(), high = new NAR();
+        for (NAR n : new NAR[] { low, high }) {
+            n.setScheduler(s);
+            n.addInput("<a --> b>.\n<b --> c>.\n<c --> d>.");
+        }
+        s.tenant(high).setPriority(4);
+        low.start(0);
+        high.start(0);
+        Thread.sleep(300);
+        low.stop();
+        high.stop();
+        Thread.sleep(50);
+        long lowCycles = low.time(), highCycles = high.time();
+        assertTrue(lowCycles > 3);
+        assertTrue(highCycles + " > " + lowCycles, highCycles > lowCycles);
+        Thread.sleep(50);
+        assertEquals(lowCycles, low.time());
+        assertEquals(highCycles, high.time());
+
+        //resumes where it stopped
+        low.start(0);
+        Thread.sleep(50);
+        low.stop();
+        assertTrue(low.time() > lowCycles);
+        s.remove(low);
+        s.remove(high);
+        assertEquals(0, s.size());
+        s.shutdown();
+    }
+
+}
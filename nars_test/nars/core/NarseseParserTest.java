@@ -0,0 +1,56 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class NarseseParserTest {
+
+    final Narsese np = new Narsese(new NAR());
+
+    final String[] input = {
+        "<a --> b>.",
+        "<a-->b>. :|: %0.5;0.8%",
+        "$0.9;0.9$ <(*, a, b) --> c>!",
+        "<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> animal>>.",
+        "<(&/,<(*,SELF,{t001}) --> at>,(^pick,{t001})) =/> <{t001} --> [hold]>>!",
+        "<{M[0.5,-0.5]} --> [BRIGHT]>.",
+        "<(/,r,_,b) {-- c>?",
+        "<\"a b\" --> phrase>.",
+        "pick(x)!"
+    };
+
+    @Test public void testSameAsSubstringParser() throws InvalidInputException {
+        for (String s : input) {
+            Task a = np.parseTask(s);
+            Task b = np.parseTaskSubstrings(s);
+            assertEquals(s, b.sentence.toString(), a.sentence.toString());
+            assertEquals(s, b.budget.toString(), a.budget.toString());
+        }
+    }
+
+    @Test public void testErrorPosition() {
+        try {
+            np.parseTask("<(*,a,b) --> c d>.");
+            assertTrue(false);
+        } catch (InvalidInputException e) {
+            assertEquals(15, e.position);
+        }
+        try {
+            np.parseTask("<(*,a,b --> c>.");
+            assertTrue(false);
+        } catch (InvalidInputException e) {
+            assertEquals(8, e.position);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import nars.io.events.OutputStage;
+import nars.io.events.OutputStage.Overflow;
+import nars.io.events.TextOutputHandler;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class OutputStageTest {
+
+    @Test public void testSameAsSync() {
+        NAR n = new NAR();
+        StringWriter sync = new StringWriter(), async = new StringWriter();
+        new TextOutputHandler(n, sync);
+        TextOutputHandler a = new TextOutputHandler(n, async).setAsync(16, Overflow.BLOCK);
+        //no questions, their answers are formatted with the best solution found when written
+        n.addInput("<robin --> bird>.\n<bird --> animal>.\n<robin --> [flying]>. :|:");
+        n.cycles(200);
+        a.getStage().flush();
+        assertTrue(sync.toString().length() > 0);
+        assertEquals(sync.toString(), async.toString());
+        assertEquals(0, a.getStage().getDropped());
+        a.setSync();
+    }
+
+    /** a sink which blocks until released */
+    static class BlockedSink implements OutputStage.Sink {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> written = new ArrayList();
+
+        @Override public void write(Class channel, Object signal, long time) {
+            try {
+                release.await();
+            } catch (InterruptedException e) { }
+            written.add(signal);
+        }
+        @Override public void flush() { }
+    }
+
+    void testDrop(Overflow overflow, Object firstAfterBlocked) throws InterruptedException {
+        BlockedSink sink = new BlockedSink();
+        OutputStage s = new OutputStage(sink, 4, overflow, 1);
+        s.publish(String.class, 0, 0);
+        //wait until the writer took the first one and blocks
+        while (s.size() > 0) Thread.sleep(1);
+        for (int i = 1; i <= 4; i++)
+            assertTrue(s.publish(String.class, i, 0));
+        assertFalse(s.publish(String.class, 5, 0));
+        assertEquals(1, s.getDropped());
+        assertEquals(4, s.size());
+        sink.release.countDown();
+        s.flush();
+        assertEquals(5, sink.written.size());
+        assertEquals(firstAfterBlocked, sink.written.get(1));
+        s.close();
+    }
+
+    @Test public void testDropNewest() throws InterruptedException {
+        testDrop(Overflow.DROP_NEWEST, 1);
+    }
+
+    @Test public void testDropOldest() throws InterruptedException {
+        testDrop(Overflow.DROP_OLDEST, 2);
+    }
+
+    @Test public void testBlockedUntilClosed() throws InterruptedException {
+        BlockedSink sink = new BlockedSink();
+        OutputStage s = new OutputStage(sink, 4, Overflow.BLOCK, 1);
+        s.publish(String.class, 0, 0);
+        while (s.size() > 0) Thread.sleep(1);
+        for (int i = 1; i <= 4; i++)
+            assertTrue(s.publish(String.class, i, 0));
+        final boolean[] published = { true };
+        Thread p = new Thread(() -> published[0] = s.publish(String.class, 5, 0));
+        p.start();
+        while (p.getState() != Thread.State.WAITING) Thread.sleep(1);
+        Thread c = new Thread(s::close);
+        c.start();
+        while (c.getState() != Thread.State.WAITING) Thread.sleep(1);
+        sink.release.countDown();
+        p.join();
+        c.join();
+        //the event is not written after close, and counted as dropped
+        assertFalse(published[0]);
+        assertEquals(1, s.getDropped());
+        assertEquals(5, sink.written.size());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nars.io.events.TextOutputHandler;
+import nars.language.Term;
+import nars.main.NAR;
+import nars.storage.Memory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class ReasonerContextTest {
+
+    //variables in commutative compounds and sequences make inference draw from the random generator
+    static final String input = "<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> animal>>.\n"
+            + "<tweety --> bird>.\n<tweety --> [flying]>.\n<(&&,<#y --> bird>,<#y --> [small]>) ==> x>.\n"
+            + "<(&/,a,b,c,d,e) =/> f>.\n<?x --> animal>?";
+
+    static String run(NAR n) {
+        StringWriter out = new StringWriter();
+        new TextOutputHandler(n, out);
+        n.addInput(input);
+        n.cycles(300);
+        return out.toString();
+    }
+
+    @Test public void testNARsOnThreadsAreIndependent() throws Exception {
+        final String serial = run(new NAR());
+        assertTrue(serial.length() > 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit((Callable<String>) () -> run(new NAR())));
+        }
+        for (Future<String> r : results) {
+            assertEquals(serial, r.get());
+        }
+        pool.shutdown();
+    }
+
+    @Test public void testParametersPerNAR() {
+        NAR a = new NAR(), b = new NAR();
+        a.param.duration.set(50);
+        a.param.horizon.set(2);
+        assertEquals(50, a.memory.param.duration.get());
+        assertEquals(5, b.memory.param.duration.get());
+
+        assertNull(Memory.current());
+        Memory previous = a.memory.enter();
+        assertSame(a.memory, Memory.current());
+        assertEquals(50, Memory.duration());
+        assertEquals(2f, Memory.horizon(), 0);
+        Memory.leave(previous);
+        assertNull(Memory.current());
+        assertEquals(1f, Memory.horizon(), 0);
+    }
+
+    @Test public void testAtomsInternedAcrossThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Term>> results = new ArrayList();
+        for (int i = 0; i < 64; i++) {
+            results.add(pool.submit(() -> Term.get("interned_atom")));
+        }
+        for (Future<Term> r : results) {
+            assertSame(Term.get("interned_atom"), r.get());
+        }
+        pool.shutdown();
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import nars.entity.TermLink;
+import nars.inference.RuleDispatch;
+import nars.inference.RuleDispatch.Rule;
+import nars.language.Term;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class RuleDispatchTest {
+
+    static Term term(NAR n, String s) throws Exception {
+        return n.narsese().parseTerm(s);
+    }
+
+    @Test public void testLookup() throws Exception {
+        NAR n = new NAR();
+        Term inh = term(n, "<a --> b>"), sim = term(n, "<a <-> c>"), imp = term(n, "<<a --> b> ==> <c --> d>>"),
+                op = term(n, "(^want,{SELF},x)"), conj = term(n, "(&&,<a --> b>,<c --> d>)"), atom = term(n, "a");
+        short CS = TermLink.COMPOUND_STATEMENT;
+
+        assertEquals(Rule.ASYMMETRIC_ASYMMETRIC, RuleDispatch.lookup(CS, CS, inh, inh, true));
+        assertEquals(Rule.ASYMMETRIC_ASYMMETRIC, RuleDispatch.lookup(CS, CS, op, inh, true));
+        assertEquals(Rule.SYMMETRIC_ASYMMETRIC, RuleDispatch.lookup(CS, CS, sim, inh, true));
+        assertEquals(Rule.BRIDGE_ASYMMETRIC, RuleDispatch.lookup(CS, CS, sim, imp, true));
+        assertEquals(Rule.DETACHMENT_OF_BELIEF, RuleDispatch.lookup(CS, CS, inh, conj, true));
+        assertEquals(Rule.DETACHMENT_OF_TASK, RuleDispatch.lookup(CS, CS, imp, inh, true));
+        //syllogisms need a belief
+        assertEquals(Rule.NONE, RuleDispatch.lookup(CS, CS, inh, inh, false));
+        assertEquals(Rule.NONE, RuleDispatch.lookup(CS, CS, imp, conj, true));
+        //compounds of different operators never match
+        assertEquals(Rule.NONE, RuleDispatch.lookup(TermLink.COMPOUND, TermLink.COMPOUND, conj, inh, true));
+        assertEquals(Rule.COMPOUND_COMPOUND, RuleDispatch.lookup(TermLink.COMPOUND, TermLink.COMPOUND, conj, conj, true));
+        assertEquals(Rule.SELF_COMPONENT_STATEMENT, RuleDispatch.lookup(TermLink.SELF, TermLink.COMPONENT_STATEMENT, inh, atom, false));
+        assertEquals(Rule.NONE, RuleDispatch.lookup(TermLink.TRANSFORM, CS, inh, inh, true));
+    }
+
+    @Test public void testFiguresHaveTheirOwnEntries() {
+        assertNotEquals(RuleDispatch.entry(Rule.ASYMMETRIC_ASYMMETRIC, 11), RuleDispatch.entry(Rule.ASYMMETRIC_ASYMMETRIC, 22));
+        assertEquals(RuleDispatch.entry(Rule.CONDITION_COMPOUND, 0), RuleDispatch.entry(Rule.CONDITION_COMPOUND, 21));
+        assertTrue(RuleDispatch.entry(Rule.DETACHMENT_OF_TASK, 22) < RuleDispatch.ENTRIES);
+    }
+
+    @Test public void testFirings() {
+        NAR n = new NAR();
+        n.setProfiling(true);
+        n.addInput("<robin --> bird>.\n<bird --> animal>.\n<robin --> animal>?");
+        n.cycles(100);
+        //deduction: the shared term is the predicate of the task and the subject of the belief, or the other way
+        long deductions = RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC, 12)
+                + RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC, 21);
+        assertTrue(deductions > 0);
+        assertEquals(RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC),
+                deductions + RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC, 11)
+                + RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC, 22));
+        assertEquals(0, RuleDispatch.firings(n.memory.profiler, Rule.NONE));
+        n.memory.profiler.reset();
+        assertEquals(0, RuleDispatch.firings(n.memory.profiler, Rule.ASYMMETRIC_ASYMMETRIC));
+    }
+
+}
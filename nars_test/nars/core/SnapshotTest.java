@@ -0,0 +1,109 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.main.NAR;
+import nars.storage.Memory;
+import nars.storage.SnapshotReader;
+import nars.storage.SnapshotWriter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class SnapshotTest {
+
+    static String tasks(Iterable<Task> l) {
+        StringBuilder s = new StringBuilder();
+        for (Task t : l)
+            s.append(t.sentence.toString()).append(t.sentence.stamp).append(t.budget).append('\n');
+        return s.toString();
+    }
+
+    /** the task links by their key, a bag may hold links to tasks which are equal but not identical */
+    static Set<String> taskLinks(Concept c) {
+        Set<String> s = new TreeSet();
+        for (Task t : c.taskLinks.keySet()) {
+            TaskLink l = c.taskLinks.get(t);
+            s.add(l.type + " " + Arrays.toString(l.index) + " " + t.sentence);
+        }
+        return s;
+    }
+
+    static void assertSameConcepts(Memory expected, Memory actual) {
+        assertEquals(expected.time(), actual.time());
+        assertEquals(expected.stampSerial(), actual.stampSerial());
+        assertEquals(expected.concepts.size(), actual.concepts.size());
+        for (Concept c : expected) {
+            Concept d = actual.concepts.get(c.term);
+            assertNotNull(c.term.toString(), d);
+            assertEquals(c.budget.toString(), d.budget.toString());
+            assertEquals(tasks(c.beliefs), tasks(d.beliefs));
+            assertEquals(tasks(c.desires), tasks(d.desires));
+            assertEquals(tasks(c.questions), tasks(d.questions));
+            assertEquals(taskLinks(c), taskLinks(d));
+            assertEquals(c.termLinks.keySet(), d.termLinks.keySet());
+        }
+    }
+
+    static byte[] write(SnapshotWriter w, boolean full) throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        w.write(Channels.newChannel(b), full);
+        return b.toByteArray();
+    }
+
+    static void read(SnapshotReader r, byte[] snapshot) throws IOException {
+        r.read(Channels.newChannel(new ByteArrayInputStream(snapshot)));
+    }
+
+    @Test public void testFullAndIncremental() throws IOException {
+        NAR a = new NAR();
+        a.addInput("<robin --> bird>.\n<bird --> animal>.\n<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> flyer>>.\n<robin --> [flying]>. :|:\n<robin --> ?x>?\n<swan --> flyer>!");
+        a.cycles(100);
+
+        SnapshotWriter w = new SnapshotWriter(a.memory);
+        byte[] full = write(w, true);
+
+        NAR b = new NAR();
+        SnapshotReader r = new SnapshotReader(b.memory);
+        read(r, full);
+        assertSameConcepts(a.memory, b.memory);
+
+        a.addInput("<tweety --> bird>.");
+        a.cycles(50);
+        byte[] incremental = write(w, false);
+        assertTrue(incremental.length < full.length);
+        read(r, incremental);
+        assertSameConcepts(a.memory, b.memory);
+
+        //the restored memory keeps reasoning
+        b.cycles(50);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCheckpointOutOfOrder() throws IOException {
+        NAR a = new NAR();
+        a.addInput("<robin --> bird>.");
+        a.cycles(10);
+        SnapshotWriter w = new SnapshotWriter(a.memory);
+        write(w, true);
+        write(w, false);
+        byte[] second = write(w, false);
+
+        read(new SnapshotReader(new NAR().memory), second);
+    }
+
+}
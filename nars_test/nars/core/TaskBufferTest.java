@@ -0,0 +1,172 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import nars.control.CycleProfiler;
+import nars.control.CycleProfiler.Count;
+import nars.entity.BudgetValue;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Symbols;
+import nars.io.events.Events;
+import nars.io.events.EventEmitter.EventObserver;
+import nars.language.Tense;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.storage.TaskBuffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class TaskBufferTest {
+
+    final NAR nar = new NAR();
+
+    Task task(String term, float priority) throws Exception {
+        Sentence s = new Sentence(nar.narsese().parseTerm(term), Symbols.JUDGMENT_MARK,
+                new TruthValue(1f, 0.9f), new Stamp(nar.memory));
+        return new Task(s, new BudgetValue(priority, 0.5f, 0.5f), true);
+    }
+
+    @Test public void testUnboundedIsFifo() throws Exception {
+        TaskBuffer b = new TaskBuffer(0);
+        Task x = task("<a --> b>", 0.1f), y = task("<c --> d>", 0.9f);
+        assertNull(b.add(x));
+        assertNull(b.add(y));
+        assertFalse(b.merge(task("<a --> b>", 0.5f)));
+        assertSame(x, b.next());
+        assertSame(y, b.next());
+        assertNull(b.next());
+    }
+
+    @Test public void testShedLowest() throws Exception {
+        TaskBuffer b = new TaskBuffer(2);
+        Task x = task("<a --> b>", 0.5f), y = task("<c --> d>", 0.3f), z = task("<e --> f>", 0.4f);
+        assertNull(b.add(x));
+        assertNull(b.add(y));
+        assertSame(y, b.add(z));
+        //not admitted, all waiting ones are higher
+        Task low = task("<g --> h>", 0.1f);
+        assertSame(low, b.add(low));
+        assertEquals(2, b.size());
+        assertSame(x, b.next());
+        assertSame(z, b.next());
+        assertTrue(b.isEmpty());
+    }
+
+    @Test public void testMerge() throws Exception {
+        TaskBuffer b = new TaskBuffer(4);
+        Task x = task("<a --> b>", 0.2f), y = task("<c --> d>", 0.5f);
+        b.add(x);
+        b.add(y);
+        Task dup = new Task(x.sentence, new BudgetValue(0.8f, 0.5f, 0.5f), true);
+        assertTrue(b.merge(dup));
+        assertEquals(2, b.size());
+        //ranked by the merged priority
+        assertSame(x, b.next());
+        assertEquals(0.8f, x.getPriority(), 0.001f);
+    }
+
+    @Test public void testBoundedMemory() throws Exception {
+        final int capacity = Parameters.NEW_TASKS_CAPACITY, perCycle = Parameters.NEW_TASKS_PER_CYCLE;
+        Parameters.NEW_TASKS_CAPACITY = 5;
+        Parameters.NEW_TASKS_PER_CYCLE = 2;
+        try {
+            NAR n = new NAR();
+            final int[] removed = new int[1];
+            n.memory.event.on(Events.TaskRemove.class, new EventObserver() {
+                @Override public void event(Class event, Object[] args) {
+                    removed[0]++;
+                }
+            });
+            for (int i = 0; i < 10; i++) {
+                n.memory.inputTask(task("<x" + i + " --> y>", 0.1f + 0.05f * i), false);
+            }
+            assertEquals(5, n.memory.newTasks.size());
+            assertEquals(5, removed[0]);
+            n.memory.processNewTasks();
+            //two processed, the others still waiting next to those derived from them
+            assertTrue(n.memory.newTasks.size() >= 3);
+            assertTrue(n.memory.newTasks.size() <= 5);
+        } finally {
+            Parameters.NEW_TASKS_CAPACITY = capacity;
+            Parameters.NEW_TASKS_PER_CYCLE = perCycle;
+        }
+    }
+
+    @Test public void testOnlyWaitingTasksProcessed() throws Exception {
+        final int capacity = Parameters.NEW_TASKS_CAPACITY;
+        Parameters.NEW_TASKS_CAPACITY = 100;
+        try {
+            NAR n = new NAR();
+            n.addInput("<a --> b>. :|:");
+            n.cycles(3);
+            final List<Task> processed = new ArrayList<>();
+            n.memory.event.on(Events.TaskImmediateProcess.class, new EventObserver() {
+                @Override public void event(Class event, Object[] args) {
+                    processed.add((Task) args[0]);
+                }
+            });
+            //the event is induced with the one before, deriving tasks of a higher priority than the waiting one
+            Sentence s = new Sentence(n.narsese().parseTerm("<c --> d>"), Symbols.JUDGMENT_MARK,
+                    new TruthValue(1f, 0.9f), new Stamp(n.memory, Tense.Present));
+            Task event = new Task(s, new BudgetValue(0.9f, 0.5f, 0.5f), true);
+            Task low = task("<e --> f>", 0.02f);
+            n.memory.inputTask(event, false);
+            n.memory.inputTask(low, false);
+            n.memory.processNewTasks();
+            assertEquals(2, processed.size());
+            assertSame(event, processed.get(0));
+            assertSame(low, processed.get(1));
+            assertFalse(n.memory.newTasks.isEmpty());
+        } finally {
+            Parameters.NEW_TASKS_CAPACITY = capacity;
+        }
+    }
+
+    @Test public void testRemovalsCountedOnce() throws Exception {
+        final int capacity = Parameters.NEW_TASKS_CAPACITY;
+        Parameters.NEW_TASKS_CAPACITY = 3;
+        try {
+            NAR n = new NAR();
+            n.setProfiling(true);
+            n.cycles(1);
+            final Map<String, Integer> reasons = new HashMap<>();
+            n.memory.event.on(Events.TaskRemove.class, new EventObserver() {
+                @Override public void event(Class event, Object[] args) {
+                    reasons.merge(((String) args[1]).startsWith("Shed") || ((String) args[1]).startsWith("Merged")
+                            ? (String) args[1] : "other", 1, Integer::sum);
+                }
+            });
+            Task x = task("<x --> y>", 0.5f);
+            n.memory.inputTask(x, false);
+            n.memory.inputTask(new Task(x.sentence, new BudgetValue(0.6f, 0.5f, 0.5f), true), false);
+            for (int i = 0; i < 6; i++) {
+                n.memory.inputTask(task("<x" + i + " --> y>", 0.1f + 0.1f * i), false);
+            }
+            n.cycles(1);
+            CycleProfiler.Snapshot p = n.profile();
+            assertTrue(p.count(Count.MERGED) >= 1);
+            assertTrue(p.count(Count.SHED) >= 4);
+            //each removal is counted once, under its own kind
+            assertEquals((int) reasons.getOrDefault("Merged (new task buffer)", 0), p.count(Count.MERGED));
+            assertEquals((int) reasons.getOrDefault("Shed (new task buffer full)", 0), p.count(Count.SHED));
+            assertEquals((int) reasons.getOrDefault("other", 0), p.count(Count.REJECTED));
+        } finally {
+            Parameters.NEW_TASKS_CAPACITY = capacity;
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Random;
+import nars.entity.TermLink;
+import nars.entity.TermLinkRecords;
+import nars.language.Term;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+
+public class TermLinkRecordsTest {
+
+    /** the deque of records TaskLink used before */
+    static class DequeRecords {
+        final ArrayDeque<Object[]> records = new ArrayDeque();
+        final int recordLength;
+
+        DequeRecords(int recordLength) {
+            this.recordLength = recordLength;
+        }
+
+        boolean novel(TermLink key, long currentTime, long horizon) {
+            Iterator<Object[]> ir = records.iterator();
+            while (ir.hasNext()) {
+                Object[] r = ir.next();
+                if (key.equals(r[0])) {
+                    if (currentTime < (Long)r[1] + horizon)
+                        return false;
+                    r[1] = currentTime;
+                    ir.remove();
+                    records.addLast(r);
+                    return true;
+                }
+            }
+            while (records.size() + 1 >= recordLength) records.removeFirst();
+            records.addLast(new Object[] { key, currentTime });
+            return true;
+        }
+    }
+
+    void testSameAsDeque(int recordLength, boolean hashed) {
+        TermLink[] links = new TermLink[recordLength * 2];
+        for (int i = 0; i < links.length; i++)
+            links[i] = new TermLink(Term.get("t" + i), TermLink.COMPOUND, (short)0);
+
+        TermLinkRecords r = new TermLinkRecords(recordLength, hashed);
+        DequeRecords d = new DequeRecords(recordLength);
+        Random rng = new Random(recordLength);
+        for (long t = 0; t < 20000; t++) {
+            //equal but not identical links are found too
+            TermLink l = links[rng.nextInt(links.length)];
+            if (rng.nextBoolean())
+                l = new TermLink(l.target, l.type, l.index);
+            assertEquals(d.novel(l, t, 50), r.novel(l, t, 50));
+            assertEquals(d.records.size(), r.size());
+        }
+    }
+
+    @Test public void testScanned() {
+        testSameAsDeque(2, false);
+        testSameAsDeque(10, false);
+    }
+
+    @Test public void testHashed() {
+        testSameAsDeque(10, true);
+        testSameAsDeque(64, true);
+    }
+
+}
@@ -294,4 +294,42 @@ public class TermTest {
         
         
     }
+    
+    @Test public void testInterning() throws Narsese.InvalidInputException {
+        Parameters.TERM_INTERNING = true;
+        try {
+            Term a = np.parseTerm("<(*,x,y) --> z>");
+            Term b = np.parseTerm("<(*,x,y) --> z>");
+            assertTrue(a == b);
+            assertTrue(((CompoundTerm)a).term[0] == ((CompoundTerm)b).term[0]);
+            
+            //copies which may be modified are never shared
+            assertTrue(a.cloneDeep() != a);
+            
+            //terms with variables are renamed in place, so they are not interned
+            assertTrue(np.parseTerm("<$1 --> z>") != np.parseTerm("<$1 --> z>"));
+        }
+        finally {
+            Parameters.TERM_INTERNING = false;
+        }
+    }
+    
+    @Test public void testStructuralEquality() throws Narsese.InvalidInputException {
+        Parameters.TERM_ELEMENT_EQUIVALENCY = true;
+        try {
+            Term a = np.parseTerm("<(&&,<a --> b>,<$1 --> c>) ==> <$1 --> d>>");
+            Term b = np.parseTerm("<(&&,<$1 --> c>,<a --> b>) ==> <$1 --> d>>");
+            Term c = np.parseTerm("<(&&,<a --> b>,<$1 --> c>) ==> <$1 --> e>>");
+            assertEquals(a, b);
+            assertEquals(a.hashCode(), b.hashCode());
+            assertEquals(a.name().toString(), b.name().toString());
+            assertTrue(!a.equals(c));
+            
+            //images differ only by their relation index
+            assertTrue(!np.parseTerm("(/,r,_,x)").equals(np.parseTerm("(/,r,x,_)")));
+        }
+        finally {
+            Parameters.TERM_ELEMENT_EQUIVALENCY = false;
+        }
+    }
 }
@@ -1,7 +1,12 @@
 package nars.core;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
+import nars.entity.Stamp;
+import static nars.entity.Stamp.baseOverlap;
 import static nars.entity.Stamp.toSetArray;
 import org.junit.Test;
 
@@ -30,4 +35,38 @@ public class TestStamp {
                 Arrays.hashCode(toSetArray(new long[] { 1,1,3 }))
         );    
     }
+    
+    static boolean anyRepeated(long[] a, long[] b) {
+        HashSet<Long> s = new HashSet();
+        for (long x : a)
+            if (!s.add(x)) return true;
+        for (long x : b)
+            if (!s.add(x)) return true;
+        return false;
+    }
+    
+    static Stamp stamp(long[] base) {
+        Stamp s = new Stamp(0, null, base[0], 5);
+        s.evidentialBase = base;
+        s.baseLength = base.length;
+        return s;
+    }
+    
+    @Test 
+    public void testBaseOverlap() {
+        assertTrue(baseOverlap(new long[] { 1, 2 }, new long[] { 3, 2 }));
+        assertTrue(baseOverlap(new long[] { 1, 1 }, new long[] { 3 }));
+        assertTrue(!baseOverlap(new long[] { 1, 2 }, new long[] { 3, 4 }));
+        
+        Random r = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            long[] a = new long[1 + r.nextInt(40)], b = new long[1 + r.nextInt(40)];
+            for (int j = 0; j < a.length; j++) a[j] = r.nextInt(400);
+            for (int j = 0; j < b.length; j++) b[j] = r.nextInt(400);
+            boolean expected = anyRepeated(a, b);
+            assertEquals(expected, baseOverlap(a, b));
+            assertEquals(expected, baseOverlap(stamp(a), stamp(b)));
+            assertEquals(anyRepeated(a, new long[0]), stamp(a).evidenceIsCyclic());
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import nars.io.Symbols;
+import nars.io.Narsese;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+import nars.language.Unifier;
+import nars.language.Variables;
+import nars.main.NAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class UnifierTest {
+
+    final Narsese np = new Narsese(new NAR());
+
+    Term term(String s) throws Exception {
+        return np.parseTerm(s);
+    }
+
+    @Test public void testUndo() throws Exception {
+        Unifier u = new Unifier();
+        Term x = term("$x"), y = term("$y");
+        u.bind(0, x, term("a"));
+        int mark = u.mark();
+        u.bind(0, y, term("b"));
+        u.bind(0, x, term("c"));
+        assertEquals(term("c"), u.get(0, x));
+        assertNull(u.get(1, x));
+        u.undo(mark);
+        assertEquals(term("a"), u.get(0, x));
+        assertNull(u.get(0, y));
+        assertTrue(u.isEmpty(1));
+        u.clear();
+        assertTrue(u.isEmpty(0));
+    }
+
+    @Test public void testApply() throws Exception {
+        Unifier u = new Unifier();
+        assertTrue(u.unify(Symbols.VAR_INDEPENDENT, term("<$x --> bird>"), term("<robin --> bird>")));
+        CompoundTerm c = (CompoundTerm) term("<<$x --> bird> ==> <$x --> animal>>");
+        assertEquals(term("<<robin --> bird> ==> <robin --> animal>>"), u.apply(c, 0));
+        //components without the variable are kept
+        CompoundTerm d = (CompoundTerm) term("(*,<a --> b>,<$x --> c>)");
+        assertSame(d.term[0], ((CompoundTerm) u.apply(d, 0)).term[0]);
+        //nothing to substitute
+        assertSame(c, u.apply(c, 1));
+    }
+
+    @Test public void testBacktrack() throws Exception {
+        Unifier u = new Unifier();
+        int mark = u.mark();
+        //a failed unification keeps its bindings until the caller undoes them
+        assertFalse(u.unify(Symbols.VAR_INDEPENDENT, term("<(*,$x,$z) --> a>"), term("<(*,c,d) --> b>")));
+        assertEquals(term("c"), u.get(0, term("$x")));
+        u.undo(mark);
+        assertTrue(u.isEmpty(0));
+        assertTrue(u.unify(Symbols.VAR_INDEPENDENT, term("<(*,$x,$z) --> a>"), term("<(*,e,d) --> a>")));
+        assertEquals(term("e"), u.get(0, term("$x")));
+        assertFalse(Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, term("(&&,<$x --> a>,<$x --> b>)"), term("(&&,<c --> a>,<d --> b>)")));
+    }
+
+    @Test public void testPartial() throws Exception {
+        Term[] u = { term("<(&/,<$x --> a>,<$y --> b>) =/> <$x --> c>>"), term("<(&/,e,<d --> a>,<f --> b>,g) =/> x>") };
+        assertTrue(Variables.unify(Symbols.VAR_INDEPENDENT, ((CompoundTerm) u[0]).term[0], ((CompoundTerm) u[1]).term[0], u, true));
+        assertEquals(term("<(&/,<d --> a>,<f --> b>) =/> <d --> c>>"), u[0]);
+    }
+
+    @Test public void testMaps() throws Exception {
+        Map<Term, Term> m1 = new HashMap(), m2 = new HashMap();
+        m1.put(term("$y"), term("z"));
+        assertTrue(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, term("<$x --> $y>"), term("<a --> z>"), m1, m2));
+        assertEquals(term("a"), m1.get(term("$x")));
+        assertEquals(2, m1.size());
+        assertTrue(m2.isEmpty());
+    }
+
+}
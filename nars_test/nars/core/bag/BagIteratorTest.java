@@ -2,8 +2,10 @@ package nars.core.bag;
 
 import java.util.Iterator;
 import nars.perf.BagPerf.NullItem;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
+import nars.storage.StripedLevelBag;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -64,6 +66,8 @@ public class BagIteratorTest {
     @Test
     public void testBags() {
         testBagIterator(new LevelBag(L, L*2));
+        testBagIterator(new StripedLevelBag(L, L*2, 2));
+        testBagIterator(new ArrayBag(L*2));
         
     }
     
@@ -0,0 +1,106 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  * 
+ */
+package nars.core.bag;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import nars.perf.BagPerf.NullItem;
+import nars.storage.StripedLevelBag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class StripedLevelBagTest {
+    
+    @Test
+    public void testPutInTake() {
+        StripedLevelBag<NullItem,CharSequence> b = new StripedLevelBag(10, 1000, 8);
+        for (int i = 0; i < 100; i++)
+            b.putIn(new NullItem(0.01f * i));
+        assertEquals(100, b.size());
+        
+        NullItem x = b.takeNext();
+        assertTrue(x != null);
+        assertEquals(99, b.size());
+        assertEquals(null, b.get(x.name()));
+        
+        b.putIn(x);
+        assertEquals(x, b.get(x.name()));
+        assertEquals(100, b.values().size());
+        
+        b.clear();
+        assertEquals(0, b.size());
+        assertEquals(null, b.takeNext());
+    }
+    
+    @Test
+    public void testConcurrentTakePutBack() throws InterruptedException {
+        final StripedLevelBag<NullItem,CharSequence> b = new StripedLevelBag(10, 1000, 4);
+        for (int i = 0; i < 200; i++)
+            b.putIn(new NullItem(0.005f * i));
+        
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] t = new Thread[4];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    NullItem x = b.takeNext();
+                    if (x == null || b.putIn(x) != null)
+                        errors.incrementAndGet();
+                }
+            });
+            t[i].start();
+        }
+        for (Thread x : t)
+            x.join();
+        
+        assertEquals(0, errors.get());
+        assertEquals(200, b.size());
+    }
+    
+    /** an item in the given stripe of a bag with two stripes, hashed as in StripedLevelBag */
+    static NullItem item(float priority, int stripe) {
+        NullItem x = new NullItem(priority);
+        while (true) {
+            int h = x.key.hashCode();
+            h ^= (h >>> 16);
+            if ((h & 0x7fffffff) % 2 == stripe)
+                return x;
+            x.key = x.key + "x";
+        }
+    }
+    
+    /** fraction of the selections which take the item */
+    static double share(StripedLevelBag<NullItem,CharSequence> b, NullItem item, int selections) {
+        int taken = 0;
+        for (int i = 0; i < selections; i++) {
+            NullItem x = b.takeNext();
+            if (x == item)
+                taken++;
+            b.putIn(x);
+        }
+        return (double) taken / selections;
+    }
+    
+    @Test
+    public void testSelectionFollowsStripeMass() {
+        //one low priority item alone in its stripe, a full stripe of high priority ones
+        StripedLevelBag<NullItem,CharSequence> b = new StripedLevelBag(100, 1000, 2);
+        NullItem low = item(0.05f, 0);
+        b.putIn(low);
+        for (int i = 0; i < 20; i++)
+            b.putIn(item(0.9f, 1));
+        //proportional to mass it is 0.05 / 18.05, taking the stripes in turn would give 0.5
+        double skewed = share(b, low, 20000);
+        assertTrue("share " + skewed, skewed < 0.01);
+        
+        //stripes of equal mass are taken equally often
+        b = new StripedLevelBag(100, 1000, 2);
+        NullItem first = item(0.5f, 0);
+        b.putIn(first);
+        b.putIn(item(0.5f, 1));
+        double even = share(b, first, 20000);
+        assertEquals(0.5, even, 0.03);
+    }
+}
@@ -3,6 +3,7 @@ package nars.perf;
 import automenta.vivisect.TreeMLData;
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.List;
 import nars.io.events.EventEmitter.EventObserver;
 import nars.io.events.Events;
 import nars.main.NAR;
@@ -33,7 +34,8 @@ public class BagFairness {
     
     private final ArrayList<Chart> charts;
             
-    float nextConceptPriority;
+    /** priorities of the concepts fired in the current cycle, several when firing in parallel */
+    final List<Float> firedPriorities = new ArrayList();
     
     public BagFairness(NAR n, String file, int maxConcepts, int iterationRecordBegin, int iterations) {
 
@@ -52,10 +54,7 @@ public class BagFairness {
 
             @Override
             public void event(Class event, Object[] arguments) {
-                if (nextConceptPriority!=-1)
-                    throw new RuntimeException("Only supports 1 concept per cycle");
-                
-                nextConceptPriority = ((DerivationContext)arguments[0]).getCurrentConcept().getPriority();
+                firedPriorities.add(((DerivationContext)arguments[0]).getCurrentConcept().getPriority());
             }
             
         });
@@ -66,7 +65,7 @@ public class BagFairness {
         
         while (n.time() < iterations) {
 
-            nextConceptPriority = -1;
+            firedPriorities.clear();
                              
             
             
@@ -79,8 +78,7 @@ public class BagFairness {
             
             if (n.time() > iterationRecordBegin) {
 
-                if (nextConceptPriority!=-1) {
-                    float p = nextConceptPriority;
+                for (float p : firedPriorities) {
                     int b = Bag.bin(p, bins-1);
 
                     fireCount[b]++;                
@@ -121,8 +119,14 @@ public class BagFairness {
     }
     
     
+    /** optional argument: number of concept firing threads, which also switches to a striped concept bag */
     public static void main(String[] args) {
         Parameters.DEBUG = true;
+        if (args.length > 0) {
+            int threads = Integer.parseInt(args[0]);
+            Parameters.CONCEPT_FIRING_THREADS = threads;
+            Parameters.CONCEPT_BAG_STRIPES = threads > 1 ? threads * 4 : 0;
+        }
         
         int inputs = 100;
         int maxConcepts = 1000;
@@ -24,14 +24,18 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import nars.storage.Memory;
 import nars.main.NAR;
 import nars.main.Parameters;
 import nars.entity.BudgetValue;
 import nars.entity.Item;
 import nars.main.NAR.PortableDouble;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
+import nars.storage.StripedLevelBag;
 
 /**
  *
@@ -95,7 +99,7 @@ public class BagPerf {
         System.out.println();
     }
             
-    public static int itemID = 0;
+    public static final AtomicInteger itemID = new AtomicInteger();
     
     /** Empty Item implementation useful for testing */
     public static class NullItem extends Item.StringKeyItem {
@@ -107,7 +111,7 @@ public class BagPerf {
 
         public NullItem(float priority) {
             super(new BudgetValue(priority, priority, priority));
-            this.key = "" + (itemID++);
+            this.key = "" + itemID.getAndIncrement();
         }
 
         @Override
@@ -129,6 +133,37 @@ public class BagPerf {
             }            
         }
     }
+    
+    /** randomBagIO on several threads sharing the same bag, returns the wall time in ms */
+    public static double randomBagIOConcurrent(final Bag<NullItem,CharSequence> b, final int threads, final int accessesPerThread, final double insertProportion) {
+        Thread[] t = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            t[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < accessesPerThread; j++) {
+                    if (random.nextFloat() > insertProportion) {
+                        NullItem x = b.takeNext();
+                        if (x != null)
+                            b.putBack(x, forgetRate.floatValue(), null);
+                    }
+                    else {
+                        b.putIn(new NullItem(random.nextFloat() * (1.0f - Parameters.TRUTH_EPSILON)));
+                    }
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread x : t)
+            x.start();
+        try {
+            for (Thread x : t)
+                x.join();
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+        return (System.nanoTime() - start) / 1.0e6;
+    }
+    
     public static void iterate(Bag<NullItem,CharSequence> b) {
         Iterator<NullItem> i = b.iterator();
         int count = 0;
@@ -214,8 +249,37 @@ public class BagPerf {
     }
     
     
+    /** multi-threaded mode: throughput of the striped bag for an increasing number of threads sharing it */
+    public static void mainConcurrent(int maxThreads) {
+        int levels = 100;
+        int capacity = 10000;
+        int accesses = 200000;
+        float insertRatio = 0.5f;
+        int repeats = 5;
+        
+        printCSVLine(System.out, "threads", "stripes", "ms", "ops/ms");
+        for (int stripes : new int[] { 1, 4, 16, 64 }) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double total = 0;
+                for (int r = 0; r < repeats + 1; r++) {
+                    Bag<NullItem,CharSequence> b = new StripedLevelBag<>(levels, capacity, stripes);
+                    double ms = randomBagIOConcurrent(b, threads, accesses / threads, insertRatio);
+                    if (r > 0) //first one is warmup
+                        total += ms;
+                }
+                double ms = total / repeats;
+                printCSVLine(System.out, threads+"", stripes+"", ms+"", (accesses / ms)+"");
+            }
+        }
+    }
+    
     public static void main(String[] args) {
         
+        if (args.length > 0 && args[0].equals("threads")) {
+            mainConcurrent(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+            return;
+        }
+        
         int itemsPerLevel = 10;
         int repeats = 10;
         int warmups = 1;
@@ -233,7 +297,8 @@ public class BagPerf {
                 int randomAccesses = accessesPerItem * items;
                         
                 Bag[] bags = new Bag[] { 
-                    new LevelBag(levels, items)                        
+                    new LevelBag(levels, items),
+                    new ArrayBag(items)
                 };
                 
                 Map<Bag, Double> t = BagPerf.compare(                    
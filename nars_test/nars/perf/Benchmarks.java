@@ -0,0 +1,634 @@
+/*
+ * Copyright (C) 2014 me
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nars.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import nars.control.DerivationContext;
+import nars.core.NALTest;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.inference.RuleTables;
+import nars.io.Narsese;
+import nars.io.Symbols;
+import nars.io.events.Events;
+import nars.language.Term;
+import nars.language.Variables;
+import nars.main.NAR;
+import nars.main.Parameters;
+import nars.perf.BagPerf.NullItem;
+import nars.storage.LevelBag;
+import nars.storage.Memory;
+
+/**
+ * Benchmark suite with warmup iterations, forked JVMs and machine readable results.
+ *
+ * Every benchmark runs its operation repeatedly for a fixed time per iteration and
+ * reports the average time per operation. With forks > 0 each benchmark runs in
+ * fresh JVMs, so JIT decisions of one benchmark do not influence the next.
+ *
+ * Usage: Benchmarks [-f forks] [-wi warmups] [-i iterations] [-t ms] [-csv file] [-json file] [name prefix...]
+ */
+public class Benchmarks {
+
+    /** results are added here so the JIT can not remove the benchmarked operations */
+    public static volatile int sink;
+
+    /** prefix of the lines a forked benchmark reports its iteration scores with */
+    static final String SAMPLE = "@sample ";
+
+    public static abstract class Benchmark {
+        public final String name;
+        /** operations performed by one call of op(), the score is divided by it */
+        public final int opsPerCall;
+
+        public Benchmark(String name, int opsPerCall) {
+            this.name = name;
+            this.opsPerCall = opsPerCall;
+        }
+
+        public Benchmark(String name) {
+            this(name, 1);
+        }
+
+        /** runs once per JVM before the warmup */
+        abstract public void setup() throws Exception;
+
+        /** the measured operation, returns a value which is consumed */
+        abstract public int op() throws Exception;
+    }
+
+    /** parses lines with NarseseParser or the substring parser, only lines which are valid tasks are used */
+    static abstract class NarseseBenchmark extends Benchmark {
+        final boolean substrings;
+        Narsese parser;
+        String[] lines;
+        int i;
+
+        NarseseBenchmark(String name, boolean substrings) {
+            super(name);
+            this.substrings = substrings;
+        }
+
+        abstract List<String> input() throws IOException;
+
+        @Override public void setup() throws IOException {
+            parser = new Narsese(new NAR());
+            final List<String> valid = new ArrayList<>();
+            for (String line : input()) {
+                try {
+                    if (parser.parseTaskSubstrings(line) != null)
+                        valid.add(line);
+                } catch (Exception e) { }
+            }
+            lines = valid.toArray(new String[valid.size()]);
+        }
+
+        @Override public int op() throws Exception {
+            final String line = lines[i++ % lines.length];
+            return (substrings ? parser.parseTaskSubstrings(line) : parser.parseTask(line)).hashCode();
+        }
+    }
+
+    /** overlap checks of cached stamps, alternating between neighbouring and distant bases, 64 per call */
+    static class StampBenchmark extends Benchmark {
+        final int length;
+        final boolean overlapping;
+        Stamp[] stamps;
+        int i;
+
+        StampBenchmark(String name, int length, boolean overlapping) {
+            super(name, 64);
+            this.length = length;
+            this.overlapping = overlapping;
+        }
+
+        @Override public void setup() {
+            stamps = new Stamp[4];
+            for (int j = 0; j < stamps.length; j++) {
+                final long[] base = new long[length];
+                for (int k = 0; k < length; k++) {
+                    //neighbouring bases share their last element if overlapping
+                    base[k] = j * (overlapping ? length - 1 : length) + k;
+                }
+                stamps[j] = new Stamp(0, null, base[0], Parameters.DURATION);
+                stamps[j].evidentialBase = base;
+                stamps[j].baseLength = length;
+            }
+        }
+
+        @Override public int op() {
+            int overlaps = 0;
+            for (int k = 0; k < opsPerCall; k++) {
+                final Stamp a = stamps[i % stamps.length], b = stamps[(i + 1 + (i & 1)) % stamps.length];
+                i++;
+                if (Stamp.baseOverlap(a, b))
+                    overlaps++;
+            }
+            return overlaps;
+        }
+    }
+
+    /** novelty checks of a tasklink with term links drawn at random from a few more than it records, 64 per call */
+    static class NoveltyBenchmark extends Benchmark {
+        final int recordLength;
+        TaskLink taskLink;
+        TermLink[] termLinks;
+        long time;
+        int seed = 1;
+
+        NoveltyBenchmark(String name, int recordLength) {
+            super(name, 64);
+            this.recordLength = recordLength;
+        }
+
+        @Override public void setup() throws Exception {
+            final Task t = new NAR().narsese().parseTask("<a --> b>.");
+            taskLink = new TaskLink(t, null, new BudgetValue(0.5f, 0.5f, 0.5f), recordLength);
+            termLinks = new TermLink[recordLength + recordLength / 4];
+            for (int j = 0; j < termLinks.length; j++) {
+                termLinks[j] = new TermLink(Term.get("t" + j), TermLink.COMPOUND, (short)0);
+            }
+        }
+
+        @Override public int op() {
+            int novel = 0;
+            for (int k = 0; k < opsPerCall; k++) {
+                seed ^= seed << 13; seed ^= seed >>> 17; seed ^= seed << 5;
+                if (taskLink.novel(termLinks[(seed & 0x7fffffff) % termLinks.length], time++))
+                    novel++;
+            }
+            return novel;
+        }
+    }
+
+    /** answer selection from a full belief table of eternal and temporal beliefs, for eternal and present queries, 16 per call */
+    static class BeliefSelectBenchmark extends Benchmark {
+        NAR nar;
+        Concept concept;
+        Task[] queries;
+        int i;
+
+        BeliefSelectBenchmark(String name) {
+            super(name, 16);
+        }
+
+        @Override public void setup() throws Exception {
+            nar = new NAR();
+            nar.cycles(100);
+            final Narsese parser = nar.narsese();
+            concept = nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), Term.get("a"));
+            for (int j = 0; j < Parameters.CONCEPT_BELIEFS_MAX; j++) {
+                final Task t = parser.parseTask("$0.5$ a. " + (j % 3 == 0 ? "" : ":|: ") + "%" + (j % 2) + ";" + (0.3f + 0.02f * j) + "%");
+                t.sentence.stamp.setOccurrenceTime(j % 3 == 0 ? Stamp.ETERNAL : 50 + 2 * j);
+                Concept.addToTable(t, concept.beliefs, Parameters.CONCEPT_BELIEFS_MAX, false);
+            }
+            queries = new Task[] { parser.parseTask("a?"), parser.parseTask("a? :|:") };
+        }
+
+        @Override public int op() {
+            int h = 0;
+            for (int k = 0; k < opsPerCall; k++) {
+                h += concept.selectCandidate(queries[i++ & 1], concept.beliefs).hashCode();
+            }
+            return h;
+        }
+    }
+
+    public static class Result {
+        public final String benchmark;
+        public final List<Double> samples = new ArrayList<>();
+
+        public Result(String benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        public double mean() {
+            double s = 0;
+            for (double x : samples) s += x;
+            return s / samples.size();
+        }
+
+        /** standard deviation of the iteration scores */
+        public double error() {
+            if (samples.size() < 2)
+                return 0;
+            final double m = mean();
+            double s = 0;
+            for (double x : samples) s += (x - m) * (x - m);
+            return Math.sqrt(s / (samples.size() - 1));
+        }
+    }
+
+    public static final Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+
+    static void add(Benchmark b) {
+        benchmarks.put(b.name, b);
+    }
+
+    static {
+        add(new Benchmark("bag.putIn") {
+            LevelBag<NullItem,CharSequence> bag;
+            NullItem[] items;
+            int i;
+
+            @Override public void setup() {
+                bag = new LevelBag<>(100, 1000);
+                items = new NullItem[2000];
+                for (int j = 0; j < items.length; j++) {
+                    items[j] = new NullItem();
+                }
+            }
+
+            @Override public int op() {
+                final NullItem x = items[i++ % items.length];
+                bag.putIn(x);
+                return bag.size();
+            }
+        });
+        add(new Benchmark("bag.takeNext+putBack") {
+            LevelBag<NullItem,CharSequence> bag;
+            Memory memory;
+            float forgetCycles;
+
+            @Override public void setup() {
+                memory = new NAR().memory;
+                forgetCycles = memory.cycles(memory.param.conceptForgetDurations);
+                bag = new LevelBag<>(100, 1000);
+                for (int j = 0; j < 1000; j++) {
+                    bag.putIn(new NullItem());
+                }
+            }
+
+            @Override public int op() {
+                final NullItem x = bag.takeNext();
+                bag.putBack(x, forgetCycles, memory);
+                return x.hashCode();
+            }
+        });
+        add(new Benchmark("narsese.parseTask") {
+            final String[] input = {
+                "<robin --> bird>.",
+                "<(*,a,b) --> like>. %0.9;0.8%",
+                "<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> animal>>.",
+                "<(&/,<(*,SELF,{t001}) --> at>,(^pick,{t001})) =/> <{t001} --> [hold]>>!",
+                "<{tweety} --> (|,bird,[yellow])>?"
+            };
+            Narsese parser;
+            int i;
+
+            @Override public void setup() {
+                parser = new Narsese(new NAR());
+            }
+
+            @Override public int op() throws Exception {
+                return parser.parseTask(input[i++ % input.length]).hashCode();
+            }
+        });
+        for (final boolean substrings : new boolean[] { false, true }) {
+            final String parser = substrings ? ".substrings" : "";
+            add(new NarseseBenchmark("narsese.nal" + parser, substrings) {
+                /** the task lines of all nal scripts */
+                @Override List<String> input() throws IOException {
+                    final List<String> lines = new ArrayList<>();
+                    final List<Path> files = new ArrayList<>();
+                    Files.walk(Paths.get("nal")).filter((f) -> f.toString().endsWith(".nal")).forEach(files::add);
+                    Collections.sort(files);
+                    for (Path f : files) {
+                        lines.addAll(Files.readAllLines(f));
+                    }
+                    return lines;
+                }
+            });
+            add(new NarseseBenchmark("narsese.nested" + parser, substrings) {
+                @Override List<String> input() {
+                    String term = "a";
+                    for (int i = 0; i < 32; i++) {
+                        term = "<(*," + term + ",b" + i + ") --> r>";
+                    }
+                    return Collections.singletonList(term + ".");
+                }
+            });
+        }
+        add(new Benchmark("variables.unify") {
+            final String[][] pairs = {
+                {"<$x --> bird>", "<robin --> bird>"},
+                {"<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> animal>>", "<(&&,<robin --> bird>,<robin --> [flying]>) ==> <robin --> animal>>"},
+                {"<(*,$x,$y) --> like>", "<(*,cat,fish) --> like>"},
+                {"<#y --> (&,bird,[yellow])>", "<tweety --> (&,bird,[yellow])>"}
+            };
+            Term[][] terms;
+            char[] types;
+            int i;
+
+            @Override public void setup() throws Exception {
+                Narsese parser = new Narsese(new NAR());
+                terms = new Term[pairs.length][];
+                types = new char[pairs.length];
+                for (int j = 0; j < pairs.length; j++) {
+                    terms[j] = new Term[] { parser.parseTerm(pairs[j][0]), parser.parseTerm(pairs[j][1]) };
+                    types[j] = pairs[j][0].indexOf(Symbols.VAR_INDEPENDENT) != -1 ? Symbols.VAR_INDEPENDENT : Symbols.VAR_DEPENDENT;
+                }
+            }
+
+            @Override public int op() {
+                final int j = i++ % terms.length;
+                final Term[] c = { terms[j][0], terms[j][1] };
+                return Variables.unify(types[j], c) ? 1 : 0;
+            }
+        });
+        add(new Benchmark("stamp.baseOverlap") {
+            long[][] bases;
+            int i;
+
+            @Override public void setup() {
+                bases = new long[4][16];
+                for (int j = 0; j < bases.length; j++) {
+                    for (int k = 0; k < bases[j].length; k++) {
+                        //neighbouring bases share their last element
+                        bases[j][k] = j * (bases[j].length - 1) + k;
+                    }
+                }
+            }
+
+            @Override public int op() {
+                final long[] a = bases[i % bases.length], b = bases[(i + 1 + (i & 1)) % bases.length];
+                i++;
+                return Stamp.baseOverlap(a, b) ? 1 : 0;
+            }
+        });
+        add(new StampBenchmark("stamp.baseOverlap.stamps", 16, true));
+        add(new StampBenchmark("stamp.baseOverlap.long", 1024, true));
+        add(new StampBenchmark("stamp.baseOverlap.disjoint", 16, false));
+        add(new NoveltyBenchmark("tasklink.novel", Parameters.TERM_LINK_RECORD_LENGTH));
+        add(new NoveltyBenchmark("tasklink.novel.64", 64));
+        add(new BeliefSelectBenchmark("belief.select"));
+        add(new Benchmark("rules.reason") {
+            final List<TaskLink> taskLinks = new ArrayList<>();
+            final List<TermLink> termLinks = new ArrayList<>();
+            final List<Concept> concepts = new ArrayList<>();
+            Memory memory;
+            int i;
+
+            @Override public void setup() throws Exception {
+                NAR n = new NAR();
+                n.addInput("<robin --> bird>.\n<bird --> animal>.\n<bird --> [flying]>.\n"
+                        + "<(&&,<$x --> bird>,<$x --> [flying]>) ==> <$x --> flyer>>.\n"
+                        + "<swan --> bird>. %0.9;0.9%\n<bird --> swimmer>?\n");
+                n.cycles(20);
+                memory = n.memory;
+                //fixed premise pairs: every non-transform tasklink with every termlink of its concept
+                for (Concept c : memory.concepts) {
+                    for (TaskLink t : c.taskLinks) {
+                        if (t.type == TermLink.TRANSFORM)
+                            continue;
+                        for (TermLink b : c.termLinks) {
+                            taskLinks.add(t);
+                            termLinks.add(b);
+                            concepts.add(c);
+                        }
+                    }
+                }
+                if (taskLinks.isEmpty())
+                    throw new IllegalStateException("no premise pairs");
+            }
+
+            @Override public int op() {
+                final int j = i++ % taskLinks.size();
+                final TaskLink t = taskLinks.get(j);
+                final TermLink b = termLinks.get(j);
+                final Concept c = concepts.get(j);
+                DerivationContext nal = new DerivationContext(memory);
+                nal.setCurrentConcept(c);
+                nal.setCurrentTerm(c.term);
+                nal.setCurrentTaskLink(t);
+                nal.setCurrentBeliefLink(b);
+                nal.setCurrentTask(t.getTarget());
+                RuleTables.reason(t, b, nal);
+                final int derived = memory.newTasks.size();
+                memory.newTasks.clear();
+                return derived;
+            }
+        });
+
+        final int cycles = 1000;
+        add(new Benchmark("events.emit", 64) {
+            Memory m;
+            int i;
+
+            @Override public void setup() {
+                m = new NAR().memory;
+            }
+
+            /** emits of derivations, which are not observed by default */
+            @Override public int op() {
+                for (int k = 0; k < opsPerCall; k++) {
+                    m.emit(Events.TaskDerive.class, m, m, m);
+                }
+                return i++;
+            }
+        });
+        add(new Benchmark("events.emit.observed", 64) {
+            Memory m;
+            int i;
+
+            @Override public void setup() {
+                m = new NAR().memory;
+                m.event.on(Events.TaskDerive.class, (c, args) -> i += args.length);
+            }
+
+            @Override public int op() {
+                for (int k = 0; k < opsPerCall; k++) {
+                    m.emit(Events.TaskDerive.class, m, m, m);
+                }
+                return i;
+            }
+        });
+        add(new Benchmark("nar.cycles") {
+            final List<String> examples = new ArrayList<>();
+            NAR n;
+            int i;
+
+            @Override public void setup() {
+                List<String> paths = new ArrayList<>();
+                for (Object o : NALTest.params()) {
+                    paths.add((String)((Object[])o)[0]);
+                }
+                Collections.sort(paths);
+                for (String p : paths) {
+                    examples.add(NALTest.getExample(p));
+                }
+                n = new NAR();
+            }
+
+            /** one nal/test script followed by the extra cycles per call */
+            @Override public int op() {
+                n.reset();
+                n.addInput(examples.get(i++ % examples.size()));
+                n.cycles(cycles);
+                return (int)n.memory.time();
+            }
+        });
+    }
+
+    /** runs a benchmark in this JVM */
+    public static Result measure(final Benchmark b, final int warmups, final int iterations, final long iterationMS) throws Exception {
+        b.setup();
+        Result r = new Result(b.name);
+        for (int it = 0; it < warmups + iterations; it++) {
+            System.gc();
+            final long end = System.nanoTime() + iterationMS * 1000000L;
+            long calls = 0;
+            int s = 0;
+            final long start = System.nanoTime();
+            long now;
+            do {
+                s += b.op();
+                calls++;
+            } while ((now = System.nanoTime()) < end);
+            sink += s;
+            if (it >= warmups) {
+                r.samples.add(((double)(now - start)) / (calls * b.opsPerCall));
+            }
+        }
+        return r;
+    }
+
+    /** runs a benchmark in a new JVM with the same classpath */
+    public static Result fork(final Benchmark b, final int warmups, final int iterations, final long iterationMS) throws IOException, InterruptedException {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Benchmarks.class.getName(), "-child", b.name,
+                Integer.toString(warmups), Integer.toString(iterations), Long.toString(iterationMS))
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Result r = new Result(b.name);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                //the reasoner may print to the same stream without line breaks
+                final int s = line.indexOf(SAMPLE);
+                if (s != -1)
+                    r.samples.add(Double.parseDouble(line.substring(s + SAMPLE.length())));
+            }
+        }
+        if (p.waitFor() != 0 || r.samples.isEmpty())
+            throw new IllegalStateException("forked benchmark " + b.name + " failed");
+        return r;
+    }
+
+    public static void printCSV(PrintStream out, List<Result> results) {
+        out.println("benchmark,unit,score,error,samples");
+        for (Result r : results) {
+            out.println(String.format(Locale.US, "%s,ns/op,%.3f,%.3f,%d", r.benchmark, r.mean(), r.error(), r.samples.size()));
+        }
+    }
+
+    public static void printJSON(PrintStream out, List<Result> results) {
+        out.println("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            StringBuilder raw = new StringBuilder();
+            for (double x : r.samples) {
+                if (raw.length() > 0) raw.append(',');
+                raw.append(String.format(Locale.US, "%.3f", x));
+            }
+            out.print(String.format(Locale.US,
+                    "  {\"benchmark\": \"%s\", \"unit\": \"ns/op\", \"score\": %.3f, \"error\": %.3f, \"samples\": [%s]}",
+                    r.benchmark, r.mean(), r.error(), raw));
+            out.println(i < results.size() - 1 ? "," : "");
+        }
+        out.println("]");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Parameters.DEBUG = false;
+
+        if (args.length > 0 && args[0].equals("-child")) {
+            Result r = measure(benchmarks.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4]));
+            for (double x : r.samples) {
+                System.out.println();
+                System.out.println(SAMPLE + x);
+            }
+            return;
+        }
+
+        int forks = 1, warmups = 3, iterations = 5;
+        long iterationMS = 1000;
+        String csv = null, json = null;
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-f": forks = Integer.parseInt(args[++i]); break;
+                case "-wi": warmups = Integer.parseInt(args[++i]); break;
+                case "-i": iterations = Integer.parseInt(args[++i]); break;
+                case "-t": iterationMS = Long.parseLong(args[++i]); break;
+                case "-csv": csv = args[++i]; break;
+                case "-json": json = args[++i]; break;
+                default: selected.add(args[i]);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Benchmark b : benchmarks.values()) {
+            if (!selected.isEmpty()) {
+                boolean match = false;
+                for (String s : selected) match |= b.name.startsWith(s);
+                if (!match) continue;
+            }
+            Result r;
+            if (forks == 0) {
+                r = measure(b, warmups, iterations, iterationMS);
+            }
+            else {
+                r = new Result(b.name);
+                for (int f = 0; f < forks; f++) {
+                    r.samples.addAll(fork(b, warmups, iterations, iterationMS).samples);
+                }
+            }
+            System.out.println(String.format(Locale.US, "%-24s %12.3f ns/op  +- %.3f", b.name, r.mean(), r.error()));
+            results.add(r);
+        }
+
+        if (csv != null) {
+            try (PrintStream out = new PrintStream(csv)) {
+                printCSV(out, results);
+            }
+        }
+        if (json != null) {
+            try (PrintStream out = new PrintStream(json)) {
+                printJSON(out, results);
+            }
+        }
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * Here comes the text of your license
+ * Each line should be prefixed with  *
+ */
+package nars.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.StringTokenizer;
+import java.util.TimeZone;
+import static nars.web.HTTPServer.HTTP_BADREQUEST;
+import static nars.web.HTTPServer.HTTP_INTERNALERROR;
+import static nars.web.HTTPServer.MIME_PLAINTEXT;
+
+/**
+ * Non-blocking mode of HTTPServer: one thread multiplexes all connections with a Selector
+ * instead of a thread per socket.
+ *
+ * Connections are kept alive for HTTP/1.1 (and HTTP/1.0 asking for it) and pipelined requests
+ * are answered in order. Responses whose data is a FileInputStream, as served by HTTPServeFiles,
+ * are sent with FileChannel.transferTo without copying through the heap. Requests are served
+ * on the selector thread, so serve() should return quickly.
+ */
+class HTTPSelector implements Runnable {
+
+    static final int MAX_HEADER = 16 * 1024;
+    static final int MAX_BODY = 1024 * 1024;
+    static final int MAX_REQUEST = MAX_HEADER + 4 + MAX_BODY;
+    static final long KEEP_ALIVE_MS = 30000;
+
+    private final HTTPServer server;
+    private final Selector selector;
+    private final ServerSocketChannel channel;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /** only used by the selector thread */
+    private final SimpleDateFormat gmtFrmt = new SimpleDateFormat("E, d MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
+    private static class Connection {
+        final SocketChannel socket;
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        /** head and body of the response being written, null if none */
+        ByteBuffer out;
+        /** file sent after out */
+        FileInputStream file;
+        long filePosition, fileEnd;
+        boolean keepAlive;
+        long lastActive;
+
+        Connection(final SocketChannel socket) {
+            this.socket = socket;
+        }
+
+        boolean writing() {
+            return out != null || file != null;
+        }
+    }
+
+    /** a request which could not be parsed, answered with 400 before closing */
+    private static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(final String message) {
+            super(message);
+        }
+    }
+
+    HTTPSelector(final HTTPServer server, final int port) throws IOException {
+        this.server = server;
+        this.gmtFrmt.setTimeZone(TimeZone.getTimeZone("GMT"));
+        this.selector = Selector.open();
+        this.channel = ServerSocketChannel.open();
+        this.channel.bind(new InetSocketAddress(port));
+        this.channel.configureBlocking(false);
+        this.channel.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this, "HTTP Selector");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    int getPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long lastSweep = System.currentTimeMillis();
+        try {
+            while (!closed) {
+                selector.select(1000);
+                final Iterator<SelectionKey> i = selector.selectedKeys().iterator();
+                while (i.hasNext()) {
+                    final SelectionKey key = i.next();
+                    i.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            handle(key, (Connection) key.attachment());
+                        }
+                    } catch (IOException e) {
+                        close(key);
+                    }
+                }
+                final long now = System.currentTimeMillis();
+                if (now - lastSweep > 1000) {
+                    sweep(now);
+                    lastSweep = now;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        } finally {
+            for (final SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel s = channel.accept();
+        if (s == null) {
+            return;
+        }
+        s.configureBlocking(false);
+        s.socket().setTcpNoDelay(true);
+        final Connection c = new Connection(s);
+        c.lastActive = System.currentTimeMillis();
+        s.register(selector, SelectionKey.OP_READ, c);
+    }
+
+    /** closes the connections idle for longer than KEEP_ALIVE_MS */
+    private void sweep(final long now) {
+        for (final SelectionKey key : selector.keys()) {
+            final Object c = key.attachment();
+            if (c instanceof Connection && now - ((Connection) c).lastActive > KEEP_ALIVE_MS) {
+                close(key);
+            }
+        }
+    }
+
+    private void close(final SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+        }
+        final Object c = key.attachment();
+        if (c instanceof Connection) {
+            closeFile((Connection) c);
+        }
+    }
+
+    private static void closeFile(final Connection c) {
+        if (c.file != null) {
+            try {
+                c.file.close();
+            } catch (IOException e) {
+            }
+            c.file = null;
+        }
+    }
+
+    private void read(final SelectionKey key) throws IOException {
+        final Connection c = (Connection) key.attachment();
+        if (!c.in.hasRemaining()) {
+            if (c.in.capacity() >= MAX_REQUEST) {
+                close(key);
+                return;
+            }
+            final ByteBuffer larger = ByteBuffer.allocate(Math.min(c.in.capacity() * 2, MAX_REQUEST));
+            c.in.flip();
+            larger.put(c.in);
+            c.in = larger;
+        }
+        if (c.socket.read(c.in) < 0) {
+            close(key);
+            return;
+        }
+        c.lastActive = System.currentTimeMillis();
+        handle(key, c);
+    }
+
+    /**
+     * writes the pending response and answers the complete requests in the input buffer one
+     * at a time, until the socket takes no more or a request is incomplete
+     */
+    private void handle(final SelectionKey key, final Connection c) throws IOException {
+        while (true) {
+            if (c.writing()) {
+                if (!write(c)) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (!c.keepAlive) {
+                    close(key);
+                    return;
+                }
+            }
+            try {
+                if (!respond(c)) {
+                    break;
+                }
+            } catch (BadRequest e) {
+                c.in.clear();
+                c.keepAlive = false;
+                send(c, HTTP_BADREQUEST, MIME_PLAINTEXT, null, bytes("BAD REQUEST: " + e.getMessage()), null, true);
+            }
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /** writes as much of the response as the socket takes, true if it is complete */
+    private boolean write(final Connection c) throws IOException {
+        c.lastActive = System.currentTimeMillis();
+        if (c.out != null) {
+            c.socket.write(c.out);
+            if (c.out.hasRemaining()) {
+                return false;
+            }
+            c.out = null;
+        }
+        if (c.file != null) {
+            final FileChannel f = c.file.getChannel();
+            while (c.filePosition < c.fileEnd) {
+                final long n = f.transferTo(c.filePosition, c.fileEnd - c.filePosition, c.socket);
+                if (n <= 0) {
+                    return false;
+                }
+                c.filePosition += n;
+            }
+            closeFile(c);
+        }
+        return true;
+    }
+
+    /** parses the first request in the input buffer and prepares its response, false if it is not complete */
+    private boolean respond(final Connection c) throws IOException {
+        final ByteBuffer in = c.in;
+        final int headEnd = indexOfHeadEnd(in);
+        if (headEnd < 0) {
+            if (in.position() >= MAX_HEADER) {
+                throw new BadRequest("Header too large.");
+            }
+            return false;
+        }
+        final String head = new String(in.array(), 0, headEnd, StandardCharsets.ISO_8859_1);
+        final String[] lines = head.split("\r\n");
+        final StringTokenizer st = new StringTokenizer(lines[0]);
+        if (st.countTokens() < 2) {
+            throw new BadRequest("Syntax error. Usage: GET /example/file.html");
+        }
+        final String method = st.nextToken();
+        String uri = st.nextToken();
+        final String version = st.hasMoreTokens() ? st.nextToken() : "HTTP/1.0";
+
+        final Properties header = new Properties();
+        for (int i = 1; i < lines.length; i++) {
+            final int p = lines[i].indexOf(':');
+            if (p > 0) {
+                header.put(lines[i].substring(0, p).trim().toLowerCase(), lines[i].substring(p + 1).trim());
+            }
+        }
+
+        int length = 0;
+        final String contentLength = header.getProperty("content-length");
+        if (contentLength != null) {
+            try {
+                length = Integer.parseInt(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequest("Invalid Content-Length.");
+            }
+            if (length < 0 || length > MAX_BODY) {
+                throw new BadRequest("Invalid Content-Length.");
+            }
+        }
+        final int end = headEnd + 4 + length;
+        if (in.position() < end) {
+            return false;
+        }
+        final String body = new String(in.array(), headEnd + 4, length, StandardCharsets.UTF_8);
+        //keep the pipelined requests after this one
+        in.flip();
+        in.position(end);
+        in.compact();
+
+        final Properties parms = new Properties();
+        final int qmi = uri.indexOf('?');
+        if (qmi >= 0) {
+            decodeParms(uri.substring(qmi + 1), parms);
+            uri = uri.substring(0, qmi);
+        }
+        uri = decodePercent(uri);
+        if (length > 0) {
+            final String type = header.getProperty("content-type", "");
+            if (type.startsWith("application/x-www-form-urlencoded")) {
+                decodeParms(body, parms);
+            } else {
+                parms.setProperty("content", body);
+            }
+        }
+
+        final String connection = header.getProperty("connection", "");
+        c.keepAlive = version.equals("HTTP/1.1") ? !connection.equalsIgnoreCase("close") : connection.equalsIgnoreCase("keep-alive");
+
+        HTTPServer.Response r;
+        try {
+            r = server.serve(uri, method, header, parms);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            r = null;
+        }
+        if (r == null) {
+            send(c, HTTP_INTERNALERROR, MIME_PLAINTEXT, null, bytes("SERVER INTERNAL ERROR: Serve() failed."), null, true);
+        } else {
+            send(c, r.status, r.mimeType, r.header, null, r.data, !method.equalsIgnoreCase("HEAD"));
+        }
+        return true;
+    }
+
+    /** position of the empty line ending the head, -1 if it was not received yet */
+    private static int indexOfHeadEnd(final ByteBuffer in) {
+        final byte[] a = in.array();
+        for (int i = 0, n = in.position() - 3; i < n; i++) {
+            if (a[i] == '\r' && a[i + 1] == '\n' && a[i + 2] == '\r' && a[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** prepares the response, with either the body bytes or the data stream */
+    private void send(final Connection c, final String status, final String mime, final Properties header,
+            byte[] body, final InputStream data, final boolean withBody) throws IOException {
+        long length = body != null ? body.length : 0;
+        if (data instanceof FileInputStream) {
+            final FileChannel f = ((FileInputStream) data).getChannel();
+            c.file = (FileInputStream) data;
+            c.filePosition = f.position();
+            c.fileEnd = f.size();
+            length = c.fileEnd - c.filePosition;
+            if (!withBody) {
+                closeFile(c);
+            }
+        } else if (data != null) {
+            final ByteArrayOutputStream b = new ByteArrayOutputStream();
+            final byte[] buff = new byte[2048];
+            try {
+                int read;
+                while ((read = data.read(buff)) > 0) {
+                    b.write(buff, 0, read);
+                }
+            } finally {
+                data.close();
+            }
+            body = b.toByteArray();
+            length = body.length;
+        }
+
+        final StringBuilder h = new StringBuilder(256);
+        h.append("HTTP/1.1 ").append(status).append("\r\n");
+        if (mime != null) {
+            h.append("Content-Type: ").append(mime).append("\r\n");
+        }
+        if (header == null || header.getProperty("Date") == null) {
+            h.append("Date: ").append(gmtFrmt.format(new Date())).append("\r\n");
+        }
+        if (header != null) {
+            final Enumeration e = header.keys();
+            while (e.hasMoreElements()) {
+                final String key = (String) e.nextElement();
+                if (!key.equalsIgnoreCase("Content-length") && !key.equalsIgnoreCase("Connection")) {
+                    h.append(key).append(": ").append(header.getProperty(key)).append("\r\n");
+                }
+            }
+        }
+        h.append("Content-Length: ").append(length).append("\r\n");
+        h.append("Connection: ").append(c.keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+
+        final byte[] head = h.toString().getBytes(StandardCharsets.ISO_8859_1);
+        final int bodyLength = (withBody && body != null) ? body.length : 0;
+        c.out = ByteBuffer.allocate(head.length + bodyLength);
+        c.out.put(head);
+        if (bodyLength > 0) {
+            c.out.put(body);
+        }
+        c.out.flip();
+    }
+
+    private static byte[] bytes(final String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the percent encoding scheme. <br/> For example:
+     * "an+example%20string" -> "an example string"
+     */
+    static String decodePercent(final String str) {
+        final ByteArrayOutputStream b = new ByteArrayOutputStream(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            if (c == '+') {
+                b.write(' ');
+            } else if (c == '%') {
+                try {
+                    b.write(Integer.parseInt(str.substring(i + 1, i + 3), 16));
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    throw new BadRequest("Bad percent-encoding.");
+                }
+                i += 2;
+            } else {
+                final byte[] u = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                b.write(u, 0, u.length);
+            }
+        }
+        return new String(b.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Decodes parameters in percent-encoded URI-format and adds them to given Properties. */
+    static void decodeParms(final String parms, final Properties p) {
+        final StringTokenizer st = new StringTokenizer(parms, "&");
+        while (st.hasMoreTokens()) {
+            final String e = st.nextToken();
+            final int sep = e.indexOf('=');
+            if (sep >= 0) {
+                p.put(decodePercent(e.substring(0, sep)).trim(), decodePercent(e.substring(sep + 1)));
+            }
+        }
+    }
+}
@@ -40,7 +40,11 @@ public class HTTPServeFiles extends HTTPServer {
     File staticFilePath;
     
     public HTTPServeFiles(int port, File staticFilePath) throws IOException {
-        super(port);
+        this(port, staticFilePath, false);
+    }
+
+    public HTTPServeFiles(int port, File staticFilePath, boolean nonBlocking) throws IOException {
+        super(port, nonBlocking);
         this.staticFilePath = staticFilePath;
     }
 
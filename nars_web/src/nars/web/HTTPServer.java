@@ -212,9 +212,28 @@ abstract public class HTTPServer {
      * Throws an IOException if the socket is already in use
      */
     public HTTPServer(int port) throws IOException {
-        myTcpPort = port;        
+        this(port, false);
+    }
+
+    /**
+     * Starts a HTTP server to given port, 0 for any free one.
+     * <p>
+     * With nonBlocking, a single selector thread serves all connections,
+     * keeps them alive and sends files without copying, see HTTPSelector.
+     * Otherwise each connection gets a thread and an HTTPSession.
+     * <p>
+     * Throws an IOException if the socket is already in use
+     */
+    public HTTPServer(int port, boolean nonBlocking) throws IOException {
+        if (nonBlocking) {
+            selector = new HTTPSelector(this, port);
+            myTcpPort = selector.getPort();
+            return;
+        }
 
-        final ServerSocket ss = new ServerSocket(myTcpPort);
+        final ServerSocket ss = new ServerSocket(port);
+        serverSocket = ss;
+        myTcpPort = ss.getLocalPort();
         Thread t = new Thread(new Runnable() {
             @Override
             public void run() {
@@ -230,6 +249,23 @@ abstract public class HTTPServer {
         t.start();
     }
 
+    /** the port the server listens on */
+    public int getPort() {
+        return myTcpPort;
+    }
+
+    /** stops accepting connections */
+    public void close() {
+        if (selector != null) {
+            selector.close();
+        } else {
+            try {
+                serverSocket.close();
+            } catch (IOException ioe) {
+            }
+        }
+    }
+
     /**
      * Starts as a standalone file server and waits for Enter.
      */
@@ -524,6 +560,8 @@ abstract public class HTTPServer {
     }
 
     private int myTcpPort;
+    private ServerSocket serverSocket;
+    private HTTPSelector selector;
 
 
 
@@ -7,7 +7,9 @@
 package nars.web;
 
 import nars.main.NAR;
+import nars.io.events.OutputStage;
 import nars.io.events.TextOutputHandler;
+import nars.main.Parameters;
 import nars.io.events.TextOutputHandler.LineOutput;
 
 /**
@@ -25,7 +27,9 @@ abstract public class NARConnection implements LineOutput {
         this.nar = nar;
         this.cycleIntervalMS = cycleIntervalMS;
              
-        this.writer = new TextOutputHandler(nar, this);
+        //a slow client loses its oldest output instead of stalling the reasoner
+        this.writer = new TextOutputHandler(nar, this)
+                .setAsync(Parameters.WEB_OUTPUT_BUFFER, OutputStage.Overflow.DROP_OLDEST);
     }
 
     public void read(final String message) {
@@ -52,5 +56,15 @@ abstract public class NARConnection implements LineOutput {
         nar.stop();
     }
     
+    /** stops the reasoner and the output thread of the connection, and leaves its scheduler */
+    public void close() {
+        stop();
+        if (nar.getScheduler() != null) {
+            nar.getScheduler().remove(nar);
+        }
+        writer.setActive(false);
+        writer.setSync();
+    }
+    
     
 }
@@ -4,9 +4,16 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import nars.main.NAR;
+import nars.main.NARScheduler;
+import nars.main.Parameters;
 import org.java_websocket.WebSocket;
 import org.java_websocket.WebSocketImpl;
 import org.java_websocket.handshake.ClientHandshake;
@@ -19,6 +26,85 @@ public class NARServer  {
     
     private static int cycleIntervalMS = 50;
     
+    /** path of the REST endpoint: POST Narsese to it, GET the output with the session returned */
+    static final String REST_PATH = "/nal";
+    /** REST sessions which were not polled for this long are closed */
+    static final long REST_SESSION_TIMEOUT_MS = 5 * 60 * 1000;
+    
+    /** a session of a REST client, which keeps the output lines until they are polled */
+    static class RESTSession extends NARConnection {
+        private final ArrayDeque<String> output = new ArrayDeque();
+        volatile long lastPoll = System.currentTimeMillis();
+
+        RESTSession(NAR nar, int cycleIntervalMS) {
+            super(nar, cycleIntervalMS);
+        }
+
+        @Override public void println(String line) {
+            synchronized (output) {
+                if (output.size() >= Parameters.WEB_OUTPUT_BUFFER) {
+                    output.removeFirst();
+                }
+                output.addLast(line);
+            }
+        }
+
+        /** removes and returns the output written since the last poll, one line each */
+        String poll() {
+            lastPoll = System.currentTimeMillis();
+            StringBuilder sb = new StringBuilder();
+            synchronized (output) {
+                for (String line : output) {
+                    sb.append(line).append('\n');
+                }
+                output.clear();
+            }
+            return sb.toString();
+        }
+    }
+    
+    /** serves the web client files and the REST endpoint on a single selector thread */
+    class NARSHTTPServer extends HTTPServeFiles {
+
+        public NARSHTTPServer(int port, File staticFilePath) throws IOException {
+            super(port, staticFilePath, true);
+        }
+
+        @Override
+        public Response serve(String uri, String method, Properties header, Properties parms) {
+            if (!uri.equals(REST_PATH)) {
+                return super.serve(uri, method, header, parms);
+            }
+            expireRESTSessions();
+            String id = parms.getProperty("session");
+            RESTSession s = (id != null) ? restSessions.get(id) : null;
+            if (s == null && (id != null || !method.equalsIgnoreCase("POST"))) {
+                return new Response(HTTP_NOTFOUND, MIME_PLAINTEXT, "Unknown session.");
+            }
+            switch (method.toUpperCase()) {
+                case "POST":
+                    if (s == null) {
+                        id = UUID.randomUUID().toString();
+                        s = new RESTSession(newNAR(), cycleIntervalMS);
+                        restSessions.put(id, s);
+                    }
+                    String content = parms.getProperty("content");
+                    if (content != null && !content.trim().isEmpty()) {
+                        s.read(content);
+                    }
+                    return new Response(HTTP_OK, MIME_PLAINTEXT, id);
+                case "GET":
+                    return new Response(HTTP_OK, MIME_PLAINTEXT, s.poll());
+                case "DELETE":
+                    restSessions.remove(id);
+                    s.close();
+                    return new Response(HTTP_OK, MIME_PLAINTEXT, "");
+                default:
+                    return new Response(HTTP_NOTIMPLEMENTED, MIME_PLAINTEXT, "Use POST, GET or DELETE.");
+            }
+        }
+    }
+    
     class NARSWebSocketServer extends WebSocketServer  {
 
         public NARSWebSocketServer(InetSocketAddress addr) throws UnknownHostException {
@@ -33,7 +119,7 @@ public class NARServer  {
 
             if (WEBSOCKET_DEBUG) System.out.println("Connect: " + conn.getRemoteSocketAddress().getAddress().getHostAddress());
 
-            final NARConnection n = new NARConnection(new NAR(), cycleIntervalMS) {
+            final NARConnection n = new NARConnection(newNAR(), cycleIntervalMS) {
                 @Override public void println(String output) {
                     conn.send(output);
                 }
@@ -48,7 +134,7 @@ public class NARServer  {
 
             NARConnection n = socketSession.get(conn);
             if (n!=null) {
-                n.stop();
+                n.close();
                 socketSession.remove(conn);
             }
         }
@@ -74,15 +160,51 @@ public class NARServer  {
     }
     
     final NARSWebSocketServer websockets;
+    final NARSHTTPServer http;
     private final Map<WebSocket, NARConnection> socketSession = new HashMap();
+    private final Map<String, RESTSession> restSessions = new ConcurrentHashMap();
+    /** runs the cycles of all sessions on a shared pool instead of a thread per session */
+    private final NARScheduler scheduler = new NARScheduler();
 
     public NARServer(int httpPort, int webSocketsPort) throws UnknownHostException, IOException {
         websockets = new NARSWebSocketServer(new InetSocketAddress(webSocketsPort));
         websockets.start();
         
-        new HTTPServeFiles(httpPort, new File("nars_web/client"));
+        http = new NARSHTTPServer(httpPort, new File("nars_web/client"));
         
     }
+    
+    NAR newNAR() {
+        final NAR nar = new NAR();
+        nar.setScheduler(scheduler);
+        return nar;
+    }
+    
+    private void expireRESTSessions() {
+        final long now = System.currentTimeMillis();
+        for (Iterator<RESTSession> i = restSessions.values().iterator(); i.hasNext(); ) {
+            RESTSession s = i.next();
+            if (now - s.lastPoll > REST_SESSION_TIMEOUT_MS) {
+                i.remove();
+                s.close();
+            }
+        }
+    }
+    
+    public int getHTTPPort() {
+        return http.getPort();
+    }
+    
+    /** stops the servers and the sessions */
+    public void stop() throws IOException, InterruptedException {
+        http.close();
+        websockets.stop();
+        for (RESTSession s : restSessions.values()) {
+            s.close();
+        }
+        restSessions.clear();
+        scheduler.shutdown();
+    }
 
 
 
@@ -118,6 +240,7 @@ public class NARServer  {
         
         System.out.println("NARS Web Server ready. port: " + httpPort + ", websockets port: " + wsPort);
         System.out.println("  Cycle interval (ms): " + cycleIntervalMS);
+        System.out.println("  REST endpoint: " + REST_PATH);
         /*if (nlp!=null) {
             System.out.println("  NLP enabled, using: " + nlpHost + ":" + nlpPort);            
         }*/